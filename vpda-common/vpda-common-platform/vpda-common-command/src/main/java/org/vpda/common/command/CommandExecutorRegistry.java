@@ -53,4 +53,49 @@ public interface CommandExecutorRegistry {
      */
     public abstract Collection<String> getExecutorsIds();
 
+    /**
+     * Register command executor by passed id if there is no executor registered
+     * under this id yet
+     * 
+     * @param id
+     * @param commandExecutor
+     * @return executor registered before or null if passed executor was
+     *         registered
+     */
+    public default CommandExecutor registerCommandExecutorIfAbsent(String id, CommandExecutor commandExecutor) {
+        CommandExecutor old = getRegisteredCommandExecutor(id);
+        if (old == null) {
+            registerCommandExecutor(id, commandExecutor);
+        }
+        return old;
+    }
+
+    /**
+     * Replaces executor registered under id only if currently registered
+     * executor is expected one
+     * 
+     * @param id
+     * @param expected
+     * @param commandExecutor
+     * @return true if executor was replaced
+     */
+    public default boolean replaceCommandExecutor(String id, CommandExecutor expected, CommandExecutor commandExecutor) {
+        if (getRegisteredCommandExecutor(id) != expected) {
+            return false;
+        }
+        registerCommandExecutor(id, commandExecutor);
+        return true;
+    }
+
+    /**
+     * Gets route to executor registered under id. Route can be kept and reused,
+     * it follows later registrations.
+     * 
+     * @param id
+     * @return route to executor
+     */
+    public default CommandExecutorRoute getCommandExecutorRoute(String id) {
+        return CommandExecutorRoute.lookup(this, id);
+    }
+
 }
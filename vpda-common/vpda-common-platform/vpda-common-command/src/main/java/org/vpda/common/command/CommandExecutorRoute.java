@@ -0,0 +1,56 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command;
+
+/**
+ * Handle to executor registered under one id in {@link CommandExecutorRegistry}.
+ * Route can be resolved once and reused, it always returns executor currently
+ * registered under its id.
+ * 
+ * @author kitko
+ *
+ */
+public interface CommandExecutorRoute {
+    /**
+     * @return id of routed executor
+     */
+    public String getExecutorId();
+
+    /**
+     * @return executor currently registered under route id or null
+     */
+    public CommandExecutor getCommandExecutor();
+
+    /**
+     * Creates route that looks up executor in registry on every call
+     * 
+     * @param registry
+     * @param id
+     * @return route
+     */
+    public static CommandExecutorRoute lookup(CommandExecutorRegistry registry, String id) {
+        return new CommandExecutorRoute() {
+            @Override
+            public String getExecutorId() {
+                return id;
+            }
+
+            @Override
+            public CommandExecutor getCommandExecutor() {
+                return registry.getRegisteredCommandExecutor(id);
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Future result of command execution that can be composed without blocking
+ * 
+ * @author kitko
+ * @param <T> type of result
+ *
+ */
+public interface CompletableExecutionResult<T> extends FutureExecutionResult<T> {
+
+    /**
+     * @return future completed when command execution finishes
+     */
+    public CompletableFuture<T> toCompletableFuture();
+
+    /**
+     * Adapts any execution result to CompletableFuture. Completable results and
+     * finished results are adapted without blocking, other pending futures are
+     * awaited in common pool.
+     * 
+     * @param <T>
+     * @param result
+     * @return future with result
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(ExecutionResult<T> result) {
+        if (result == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (result instanceof CompletableExecutionResult<T> completable) {
+            return completable.toCompletableFuture();
+        }
+        if (result instanceof CompletableFuture<?>) {
+            @SuppressWarnings("unchecked")
+            CompletableFuture<T> future = (CompletableFuture<T>) result;
+            return future;
+        }
+        if (result instanceof Future<?> future && !future.isDone()) {
+            @SuppressWarnings("unchecked")
+            Future<T> pending = (Future<T>) future;
+            return awaitInCommonPool(pending);
+        }
+        try {
+            return CompletableFuture.completedFuture(result.get());
+        }
+        catch (ExecutionException e) {
+            return CompletableFuture.failedFuture(e.getCause() != null ? e.getCause() : e);
+        }
+        catch (CancellationException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Adapts plain future to CompletableFuture by awaiting it in common pool.
+     * Waiting runs as {@link ForkJoinPool.ManagedBlocker}, so pool compensates
+     * blocked worker and other common pool tasks are not starved.
+     * 
+     * @param <T>
+     * @param future
+     * @return future with result
+     */
+    public static <T> CompletableFuture<T> awaitInCommonPool(Future<T> future) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        try {
+                            future.get();
+                        }
+                        catch (ExecutionException | CancellationException e) {
+                            // Reported by get after block
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return future.isDone();
+                    }
+                });
+                return future.get();
+            }
+            catch (ExecutionException e) {
+                throw new CompletionException(e.getCause() != null ? e.getCause() : e);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+}
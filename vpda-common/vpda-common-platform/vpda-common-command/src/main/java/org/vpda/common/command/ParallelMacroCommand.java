@@ -0,0 +1,397 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.vpda.common.util.Builder;
+import org.vpda.common.util.Cancellable;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Macro command that submits independent commands concurrently. Command can
+ * declare dependencies on commands added before it, it is submitted only after
+ * all its dependencies finished successfully. Number of concurrently running
+ * commands is limited by max parallelism.
+ * <p>
+ * Commands run in parallel only when executing executor is
+ * {@link FutureCommandExecutor}, otherwise they are executed one by one in
+ * order they were added. Execution waits until all commands finish and returns
+ * one result per command in same order as commands were added. Result of
+ * command that was not executed because dependency failed or macro was cancelled
+ * is cancelled. Cancellation applies only to currently running execution.
+ * 
+ * @author kitko
+ *
+ */
+public final class ParallelMacroCommand implements Command<List<ExecutionResult>>, Cancellable, Serializable {
+    private static final long serialVersionUID = -1726019331528213405L;
+    private static final int CANCEL_SIGNAL = -1;
+    private final List<Command> commands;
+    private final int[][] dependencies;
+    private final int maxParallelism;
+    private final boolean failFast;
+    private transient volatile Execution currentExecution;
+
+    private ParallelMacroCommand(ParallelMacroCommandBuilder builder) {
+        this.commands = new ArrayList<Command>(builder.commands);
+        this.dependencies = builder.dependencies.toArray(new int[builder.dependencies.size()][]);
+        this.maxParallelism = builder.maxParallelism;
+        this.failFast = builder.failFast;
+    }
+
+    /**
+     * Creates macro without dependencies between commands
+     * 
+     * @param cmds
+     */
+    public ParallelMacroCommand(Command... cmds) {
+        this(new ParallelMacroCommandBuilder().addCommands(Arrays.asList(cmds)));
+    }
+
+    /**
+     * @return commands of this macro
+     */
+    public List<Command> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    /**
+     * @return max number of concurrently running commands
+     */
+    public int getMaxParallelism() {
+        return maxParallelism;
+    }
+
+    /**
+     * @return true if first failure cancels all other commands
+     */
+    public boolean isFailFast() {
+        return failFast;
+    }
+
+    @Override
+    public List<ExecutionResult> execute(CommandExecutor executor, CommandExecutionEnv env, CommandEvent event) throws Exception {
+        Execution execution = new Execution(executor, env, event);
+        currentExecution = execution;
+        try {
+            return execution.run();
+        }
+        finally {
+            currentExecution = null;
+        }
+    }
+
+    /**
+     * @return true if currently running execution was cancelled
+     */
+    @Override
+    public boolean isCancelled() {
+        Execution execution = currentExecution;
+        return execution != null && execution.cancelled;
+    }
+
+    /**
+     * Cancels currently running execution
+     * 
+     * @return false if macro is not running
+     */
+    @Override
+    public boolean cancel() {
+        Execution execution = currentExecution;
+        if (execution == null) {
+            return false;
+        }
+        execution.signalCancel();
+        return true;
+    }
+
+    /**
+     * State of one execution of macro, all state except cancellation is owned by
+     * executing thread
+     */
+    private final class Execution {
+        private final CommandExecutor executor;
+        private final CommandExecutionEnv env;
+        private final CommandEvent event;
+        private final CompletableFuture<Object>[] futures;
+        private final FutureExecutionResult<?>[] submitted;
+        private final int[] pendingDependencies;
+        private final List<Integer>[] dependents;
+        private final BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+        private final int parallelism;
+        private volatile boolean cancelled;
+
+        @SuppressWarnings("unchecked")
+        private Execution(CommandExecutor executor, CommandExecutionEnv env, CommandEvent event) {
+            this.executor = executor;
+            this.env = env;
+            this.event = event;
+            int size = commands.size();
+            this.futures = new CompletableFuture[size];
+            this.submitted = new FutureExecutionResult<?>[size];
+            this.pendingDependencies = new int[size];
+            this.dependents = new List[size];
+            for (int i = 0; i < size; i++) {
+                futures[i] = new CompletableFuture<>();
+                dependents[i] = new ArrayList<>(2);
+            }
+            for (int i = 0; i < size; i++) {
+                pendingDependencies[i] = dependencies[i].length;
+                for (int dependency : dependencies[i]) {
+                    dependents[dependency].add(i);
+                }
+            }
+            this.parallelism = executor instanceof FutureCommandExecutor ? maxParallelism : 1;
+        }
+
+        private void signalCancel() {
+            cancelled = true;
+            finished.add(CANCEL_SIGNAL);
+        }
+
+        private List<ExecutionResult> run() {
+            int size = commands.size();
+            List<Integer> ready = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (pendingDependencies[i] == 0) {
+                    ready.add(i);
+                }
+            }
+            int running = 0;
+            int done = 0;
+            int next = 0;
+            boolean aborted = cancelled;
+            boolean completed = false;
+            boolean interrupted = false;
+            try {
+                while (!aborted && done < size) {
+                    while (running < parallelism && next < ready.size()) {
+                        submit(ready.get(next++));
+                        running++;
+                    }
+                    if (running == 0) {
+                        break;
+                    }
+                    int index = finished.take();
+                    if (index == CANCEL_SIGNAL) {
+                        aborted = true;
+                        break;
+                    }
+                    running--;
+                    done++;
+                    if (futures[index].isCompletedExceptionally()) {
+                        if (failFast) {
+                            aborted = true;
+                            break;
+                        }
+                        continue;
+                    }
+                    for (int dependent : dependents[index]) {
+                        if (--pendingDependencies[dependent] == 0) {
+                            ready.add(dependent);
+                        }
+                    }
+                }
+                completed = true;
+            }
+            catch (InterruptedException e) {
+                // Interrupted while waiting, cancel submitted commands and return cancelled results
+                interrupted = true;
+            }
+            finally {
+                if (aborted || !completed) {
+                    cancelRunning();
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            List<ExecutionResult> result = new ArrayList<ExecutionResult>(size);
+            for (int i = 0; i < size; i++) {
+                futures[i].cancel(false);
+                result.add(new MacroExecutionResult<>(futures[i]));
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void submit(int index) {
+            CompletableFuture<Object> target = futures[index];
+            CompletableFuture<Object> future;
+            try {
+                ExecutionResult<Object> res = executor.executeCommand(commands.get(index), env, event);
+                if (res instanceof FutureExecutionResult<?> futureResult) {
+                    submitted[index] = futureResult;
+                }
+                future = CompletableExecutionResult.toCompletableFuture(res);
+            }
+            catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((res, e) -> {
+                if (e != null) {
+                    target.completeExceptionally(e);
+                }
+                else {
+                    target.complete(res);
+                }
+                finished.add(index);
+            });
+        }
+
+        private void cancelRunning() {
+            for (int i = 0; i < submitted.length; i++) {
+                if (futures[i].isDone()) {
+                    continue;
+                }
+                if (submitted[i] != null) {
+                    submitted[i].cancel(true);
+                }
+                else if (commands.get(i) instanceof Cancellable cancellable) {
+                    cancellable.cancel();
+                }
+            }
+        }
+    }
+
+    /** Result of one command of macro */
+    private static final class MacroExecutionResult<T> implements CompletableExecutionResult<T> {
+        private final CompletableFuture<T> future;
+
+        private MacroExecutionResult(CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return future.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            return future.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return future.get(timeout, unit);
+        }
+
+        @Override
+        public CompletableFuture<T> toCompletableFuture() {
+            return future;
+        }
+    }
+
+    /**
+     * Builder for ParallelMacroCommand
+     * 
+     * @author kitko
+     *
+     */
+    public static final class ParallelMacroCommandBuilder implements Builder<ParallelMacroCommand> {
+        private final List<Command> commands = new ArrayList<>();
+        private final List<int[]> dependencies = new ArrayList<>();
+        private int maxParallelism = Runtime.getRuntime().availableProcessors();
+        private boolean failFast = true;
+
+        /**
+         * Adds command
+         * 
+         * @param command
+         * @param dependsOn indexes of previously added commands that must finish
+         *                  successfully before command is submitted
+         * @return index of added command
+         */
+        public int addCommand(Command command, int... dependsOn) {
+            Assert.isNotNullArgument(command, "command");
+            int index = commands.size();
+            for (int dependency : dependsOn) {
+                if (dependency < 0 || dependency >= index) {
+                    throw new IllegalArgumentException("Command can depend only on previously added command, invalid index : " + dependency);
+                }
+            }
+            commands.add(command);
+            dependencies.add(dependsOn.clone());
+            return index;
+        }
+
+        /**
+         * Adds independent commands
+         * 
+         * @param cmds
+         * @return this
+         */
+        public ParallelMacroCommandBuilder addCommands(List<? extends Command> cmds) {
+            for (Command command : cmds) {
+                addCommand(command);
+            }
+            return this;
+        }
+
+        /**
+         * @param maxParallelism max number of concurrently running commands
+         * @return this
+         */
+        public ParallelMacroCommandBuilder setMaxParallelism(int maxParallelism) {
+            if (maxParallelism <= 0) {
+                throw new IllegalArgumentException("MaxParallelism must be positive");
+            }
+            this.maxParallelism = maxParallelism;
+            return this;
+        }
+
+        /**
+         * @param failFast if true first failure cancels all other commands
+         * @return this
+         */
+        public ParallelMacroCommandBuilder setFailFast(boolean failFast) {
+            this.failFast = failFast;
+            return this;
+        }
+
+        @Override
+        public ParallelMacroCommand build() {
+            return new ParallelMacroCommand(this);
+        }
+
+        @Override
+        public Class<? extends ParallelMacroCommand> getTargetClass() {
+            return ParallelMacroCommand.class;
+        }
+    }
+
+}
@@ -21,8 +21,11 @@ import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.vpda.common.util.exceptions.VPDARuntimeException;
+import org.vpda.internal.common.util.ClassMetadata;
 import org.vpda.internal.common.util.ClassUtil;
 
 /**
@@ -51,18 +54,25 @@ public abstract class ReflexiveCall implements Call, Serializable {
         return name;
     }
 
-    @Override
-    public Collection<String> getParamNames() {
-        Collection<Method> getters = ClassUtil.getGetters(getClass());
-        Collection<String> names = new ArrayList<String>(getters.size());
-        for (Method m : getters) {
-            String property = m.getName().substring("get".length());
-            property = Character.toLowerCase(property.charAt(0)) + property.substring(1);
-            if (!"name".equals(property)) {
-                names.add(property);
+    private static final ClassValue<List<String>> PARAM_NAMES = new ClassValue<List<String>>() {
+        @Override
+        protected List<String> computeValue(Class<?> type) {
+            Collection<Method> getters = ClassMetadata.forClass(type).getGetters();
+            List<String> names = new ArrayList<String>(getters.size());
+            for (Method m : getters) {
+                String property = m.getName().substring("get".length());
+                property = Character.toLowerCase(property.charAt(0)) + property.substring(1);
+                if (!"name".equals(property)) {
+                    names.add(property);
+                }
             }
+            return Collections.unmodifiableList(names);
         }
-        return names;
+    };
+
+    @Override
+    public Collection<String> getParamNames() {
+        return PARAM_NAMES.get(getClass());
     }
 
     @Override
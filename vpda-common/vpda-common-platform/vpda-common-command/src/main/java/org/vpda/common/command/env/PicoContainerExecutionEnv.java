@@ -18,6 +18,7 @@
 package org.vpda.common.command.env;
 
 import org.picocontainer.PicoContainer;
+import org.vpda.common.ioc.objectresolver.FrozenObjectResolver;
 import org.vpda.common.ioc.objectresolver.PicoContainerObjectResolver;
 
 /**
@@ -38,4 +39,16 @@ public final class PicoContainerExecutionEnv extends CEEnvDelegate {
         super(new PicoContainerObjectResolver(container));
     }
 
+    /**
+     * Creates PicoContainerExecutionEnv from container with types resolved once
+     * and then served from lookup table. Frozen types should be singleton
+     * components of the container.
+     * 
+     * @param container
+     * @param frozenTypes
+     */
+    public PicoContainerExecutionEnv(PicoContainer container, Class<?>... frozenTypes) {
+        super(new FrozenObjectResolver.FrozenObjectResolverBuilder().setSource(new PicoContainerObjectResolver(container)).addFrozenTypes(frozenTypes).build());
+    }
+
 }
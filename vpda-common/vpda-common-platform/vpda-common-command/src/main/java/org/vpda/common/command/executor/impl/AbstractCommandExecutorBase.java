@@ -17,9 +17,11 @@ package org.vpda.common.command.executor.impl;
 import java.io.Serializable;
 
 import org.vpda.common.command.Command;
+import org.vpda.common.command.CommandCallback;
 import org.vpda.common.command.CommandEvent;
 import org.vpda.common.command.CommandExecutionEnv;
 import org.vpda.common.command.CommandExecutor;
+import org.vpda.common.command.CommandWithCallback;
 import org.vpda.common.command.ExecutionResult;
 
 /**
@@ -31,6 +33,7 @@ import org.vpda.common.command.ExecutionResult;
 public abstract class AbstractCommandExecutorBase implements CommandExecutor, Serializable {
     private static final long serialVersionUID = 1805268809393921252L;
     private final String id;
+    private transient volatile CommandExecutionMetrics metrics;
 
     /**
      * Do not call directly, use container
@@ -52,8 +55,57 @@ public abstract class AbstractCommandExecutorBase implements CommandExecutor, Se
 
     @Override
     public <T> ExecutionResult<T> executeCommand(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event) throws Exception {
-        T result = command.execute(this, env, event);
-        return new ExecutionResultBase<>(result);
+        return execute(command, command, env, event);
+    }
+
+    @Override
+    public <T> ExecutionResult<T> executeCommandWithCallback(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event, CommandCallback<T> callback) throws Exception {
+        return execute(command, new CommandWithCallback<T>(command, callback), env, event);
+    }
+
+    private <T> ExecutionResult<T> execute(Command<?> submitted, Command<? extends T> command, CommandExecutionEnv env, CommandEvent event) throws Exception {
+        CommandExecutionMetrics.Execution execution = startExecution(submitted);
+        if (execution == null) {
+            T result = command.execute(this, env, event);
+            return new ExecutionResultBase<>(result);
+        }
+        long start = execution.start();
+        boolean failed = true;
+        try {
+            T result = command.execute(this, env, event);
+            failed = false;
+            return new ExecutionResultBase<>(result);
+        }
+        finally {
+            execution.finish(start, failed);
+        }
+    }
+
+    /**
+     * @param command
+     * @return recording of submitted command or null if executor is not
+     *         instrumented
+     */
+    CommandExecutionMetrics.Execution startExecution(Command<?> command) {
+        CommandExecutionMetrics current = metrics;
+        return current != null ? current.submit(command) : null;
+    }
+
+    /**
+     * Sets metrics commands executed by this executor are recorded to, see
+     * {@link CommandExecutionMetrics#instrument(CommandExecutor)}
+     * 
+     * @param metrics metrics or null to stop recording
+     */
+    public void setMetrics(CommandExecutionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return metrics commands are recorded to or null
+     */
+    public CommandExecutionMetrics getMetrics() {
+        return metrics;
     }
 
     @Override
@@ -0,0 +1,85 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mutable counters for one command class. Latencies are kept in histogram with
+ * power of two buckets in nanoseconds.
+ * 
+ * @author kitko
+ *
+ */
+final class CommandClassMetrics {
+    private static final int BUCKETS = 64;
+    private final String commandClassName;
+    final LongAdder invocations = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder sampled = new LongAdder();
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAccumulator latencyMax = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(BUCKETS);
+    private final LongAdder queueWaitSum = new LongAdder();
+    private final LongAccumulator queueWaitMax = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray queueWaitHistogram = new AtomicLongArray(BUCKETS);
+
+    CommandClassMetrics(String commandClassName) {
+        this.commandClassName = commandClassName;
+    }
+
+    void recordSample(long queueWait, long latency) {
+        sampled.increment();
+        queueWaitSum.add(queueWait);
+        queueWaitMax.accumulate(queueWait);
+        queueWaitHistogram.incrementAndGet(bucket(queueWait));
+        latencySum.add(latency);
+        latencyMax.accumulate(latency);
+        latencyHistogram.incrementAndGet(bucket(latency));
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros(nanos) - 1;
+    }
+
+    private static long percentile(AtomicLongArray histogram, long count, long max, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= threshold) {
+                return i >= BUCKETS - 2 ? max : Math.min(max, (1L << (i + 1)) - 1);
+            }
+        }
+        return max;
+    }
+
+    CommandClassStatistics snapshot(long elapsedMillis) {
+        long count = sampled.sum();
+        long invocationCount = invocations.sum();
+        double throughput = elapsedMillis > 0 ? invocationCount * 1000d / elapsedMillis : 0;
+        long maxLatency = latencyMax.get();
+        long maxQueueWait = queueWaitMax.get();
+        return new CommandClassStatistics(commandClassName, invocationCount, failures.sum(), count, throughput, count == 0 ? 0 : latencySum.sum() / count, maxLatency,
+                percentile(latencyHistogram, count, maxLatency, 0.5), percentile(latencyHistogram, count, maxLatency, 0.9),
+                percentile(latencyHistogram, count, maxLatency, 0.99), count == 0 ? 0 : queueWaitSum.sum() / count, maxQueueWait,
+                percentile(queueWaitHistogram, count, maxQueueWait, 0.99));
+    }
+}
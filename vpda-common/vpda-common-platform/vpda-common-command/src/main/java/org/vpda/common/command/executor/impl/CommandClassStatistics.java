@@ -0,0 +1,176 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of execution metrics of one command class. Times are in
+ * nanoseconds and computed from sampled executions only, percentiles are upper
+ * bounds of power of two histogram buckets capped by max value.
+ * 
+ * @author kitko
+ *
+ */
+public final class CommandClassStatistics implements Serializable {
+    private static final long serialVersionUID = -3049431700906371733L;
+    private final String commandClassName;
+    private final long invocations;
+    private final long failures;
+    private final long sampled;
+    private final double throughput;
+    private final long meanLatency;
+    private final long maxLatency;
+    private final long latencyP50;
+    private final long latencyP90;
+    private final long latencyP99;
+    private final long meanQueueWait;
+    private final long maxQueueWait;
+    private final long queueWaitP99;
+
+    /**
+     * Creates statistics
+     * 
+     * @param commandClassName
+     * @param invocations
+     * @param failures
+     * @param sampled
+     * @param throughput
+     * @param meanLatency
+     * @param maxLatency
+     * @param latencyP50
+     * @param latencyP90
+     * @param latencyP99
+     * @param meanQueueWait
+     * @param maxQueueWait
+     * @param queueWaitP99
+     */
+    public CommandClassStatistics(String commandClassName, long invocations, long failures, long sampled, double throughput, long meanLatency, long maxLatency,
+            long latencyP50, long latencyP90, long latencyP99, long meanQueueWait, long maxQueueWait, long queueWaitP99) {
+        this.commandClassName = commandClassName;
+        this.invocations = invocations;
+        this.failures = failures;
+        this.sampled = sampled;
+        this.throughput = throughput;
+        this.meanLatency = meanLatency;
+        this.maxLatency = maxLatency;
+        this.latencyP50 = latencyP50;
+        this.latencyP90 = latencyP90;
+        this.latencyP99 = latencyP99;
+        this.meanQueueWait = meanQueueWait;
+        this.maxQueueWait = maxQueueWait;
+        this.queueWaitP99 = queueWaitP99;
+    }
+
+    /**
+     * @return name of command class
+     */
+    public String getCommandClassName() {
+        return commandClassName;
+    }
+
+    /**
+     * @return number of submitted commands
+     */
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * @return number of commands that failed with exception
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return number of timed executions
+     */
+    public long getSampled() {
+        return sampled;
+    }
+
+    /**
+     * @return submitted commands per second since metrics were reset
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    /**
+     * @return mean execution time
+     */
+    public long getMeanLatency() {
+        return meanLatency;
+    }
+
+    /**
+     * @return max execution time
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * @return median execution time
+     */
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    /**
+     * @return 90th percentile of execution time
+     */
+    public long getLatencyP90() {
+        return latencyP90;
+    }
+
+    /**
+     * @return 99th percentile of execution time
+     */
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+
+    /**
+     * @return mean time between submit and start of execution
+     */
+    public long getMeanQueueWait() {
+        return meanQueueWait;
+    }
+
+    /**
+     * @return max time between submit and start of execution
+     */
+    public long getMaxQueueWait() {
+        return maxQueueWait;
+    }
+
+    /**
+     * @return 99th percentile of time between submit and start of execution
+     */
+    public long getQueueWaitP99() {
+        return queueWaitP99;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandClassStatistics [commandClassName=" + commandClassName + ", invocations=" + invocations + ", failures=" + failures + ", sampled=" + sampled
+                + ", throughput=" + throughput + ", meanLatency=" + meanLatency + ", maxLatency=" + maxLatency + ", latencyP50=" + latencyP50 + ", latencyP90="
+                + latencyP90 + ", latencyP99=" + latencyP99 + ", meanQueueWait=" + meanQueueWait + ", maxQueueWait=" + maxQueueWait + ", queueWaitP99="
+                + queueWaitP99 + "]";
+    }
+
+}
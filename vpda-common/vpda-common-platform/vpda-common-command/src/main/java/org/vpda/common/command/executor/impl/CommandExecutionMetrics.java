@@ -0,0 +1,262 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.vpda.common.command.Command;
+import org.vpda.common.command.CommandExecutor;
+import org.vpda.common.command.FutureCommandExecutor;
+import org.vpda.common.util.exceptions.VPDARuntimeException;
+
+/**
+ * Collects per command class execution metrics of instrumented executors.
+ * Every submitted command is counted, only one of samplingRate executions is
+ * timed, so instrumentation overhead stays small. Executions are recorded at
+ * executor boundary, submitted commands are not wrapped. Metrics can be pulled using
+ * {@link #getCommandStatistics()} or through JMX after
+ * {@link #registerMBean(String)}.
+ * 
+ * @author kitko
+ *
+ */
+public final class CommandExecutionMetrics implements CommandExecutionMetricsMXBean {
+    /** Domain of registered mbeans */
+    public static final String MBEAN_DOMAIN = "org.vpda.command";
+
+    private final ConcurrentMap<Class<?>, CommandClassMetrics> metrics = new ConcurrentHashMap<>();
+    private volatile int samplingRate;
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Creates metrics timing one of samplingRate executions
+     * 
+     * @param samplingRate
+     */
+    public CommandExecutionMetrics(int samplingRate) {
+        setSamplingRate(samplingRate);
+    }
+
+    /**
+     * Creates metrics timing every execution
+     */
+    public CommandExecutionMetrics() {
+        this(1);
+    }
+
+    /**
+     * Records commands of executor to this metrics. Executor based on
+     * {@link AbstractCommandExecutorBase}, also behind
+     * {@link CommandExecutorDelegate}, records the commands itself, including
+     * nested commands executed using executor passed to command, and is
+     * returned as is. Other executors are decorated and only commands submitted
+     * through the decorator are recorded.
+     * 
+     * @param executor
+     * @return instrumented executor
+     */
+    public CommandExecutor instrument(CommandExecutor executor) {
+        if (attachTo(executor)) {
+            return executor;
+        }
+        if (executor instanceof FutureCommandExecutor futureExecutor) {
+            return new InstrumentedFutureCommandExecutor(futureExecutor, this);
+        }
+        return new InstrumentedCommandExecutor(executor, this);
+    }
+
+    /**
+     * Records commands of future executor to this metrics, see
+     * {@link #instrument(CommandExecutor)}
+     * 
+     * @param executor
+     * @return instrumented executor
+     */
+    public FutureCommandExecutor instrument(FutureCommandExecutor executor) {
+        if (attachTo(executor)) {
+            return executor;
+        }
+        return new InstrumentedFutureCommandExecutor(executor, this);
+    }
+
+    private boolean attachTo(CommandExecutor executor) {
+        CommandExecutor current = executor;
+        while (current instanceof CommandExecutorDelegate delegate) {
+            current = delegate.getDelegatedObject();
+        }
+        if (current instanceof AbstractCommandExecutorBase base) {
+            base.setMetrics(this);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts submitted command and starts its recording
+     * 
+     * @param command
+     * @return recording of command execution
+     */
+    Execution submit(Command<?> command) {
+        Class<?> commandClass = command.getClass();
+        CommandClassMetrics classMetrics = metrics.get(commandClass);
+        if (classMetrics == null) {
+            classMetrics = metrics.computeIfAbsent(commandClass, c -> new CommandClassMetrics(c.getName()));
+        }
+        classMetrics.invocations.increment();
+        int rate = samplingRate;
+        long submitTime = rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0 ? System.nanoTime() : 0;
+        return new Execution(classMetrics, submitTime);
+    }
+
+    /** Recording of one submitted command */
+    static final class Execution {
+        private final CommandClassMetrics metrics;
+        private final long submitTime;
+        private volatile boolean started;
+
+        private Execution(CommandClassMetrics metrics, long submitTime) {
+            this.metrics = metrics;
+            this.submitTime = submitTime;
+        }
+
+        /**
+         * Marks execution as started
+         * 
+         * @return start time or 0 if execution is not timed
+         */
+        long start() {
+            started = true;
+            return submitTime != 0 ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records finished execution
+         * 
+         * @param start time returned by {@link #start()}
+         * @param failed
+         */
+        void finish(long start, boolean failed) {
+            if (failed) {
+                metrics.failures.increment();
+            }
+            if (submitTime != 0) {
+                metrics.recordSample(start - submitTime, System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Records command that failed before it was executed. Failure of started
+         * command is recorded by {@link #finish(long, boolean)}.
+         */
+        void submitFailed() {
+            if (!started) {
+                metrics.failures.increment();
+            }
+        }
+    }
+
+    @Override
+    public List<CommandClassStatistics> getCommandStatistics() {
+        long elapsed = System.currentTimeMillis() - since;
+        List<CommandClassStatistics> result = new ArrayList<>(metrics.size());
+        for (CommandClassMetrics classMetrics : metrics.values()) {
+            result.add(classMetrics.snapshot(elapsed));
+        }
+        return result;
+    }
+
+    /**
+     * @param commandClass
+     * @return statistics of command class or null if no such command was
+     *         executed
+     */
+    public CommandClassStatistics getCommandStatistics(Class<?> commandClass) {
+        CommandClassMetrics classMetrics = metrics.get(commandClass);
+        return classMetrics != null ? classMetrics.snapshot(System.currentTimeMillis() - since) : null;
+    }
+
+    @Override
+    public int getSamplingRate() {
+        return samplingRate;
+    }
+
+    @Override
+    public void setSamplingRate(int samplingRate) {
+        if (samplingRate <= 0) {
+            throw new IllegalArgumentException("SamplingRate must be positive");
+        }
+        this.samplingRate = samplingRate;
+    }
+
+    @Override
+    public void reset() {
+        metrics.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Registers this metrics to platform mbean server
+     * 
+     * @param name name of metrics
+     * @return object name metrics were registered with
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = createObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (JMException e) {
+            throw new VPDARuntimeException("Cannot register command execution metrics mbean " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters metrics from platform mbean server
+     * 
+     * @param name name of metrics
+     */
+    public void unregisterMBean(String name) {
+        try {
+            ObjectName objectName = createObjectName(name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        }
+        catch (JMException e) {
+            throw new VPDARuntimeException("Cannot unregister command execution metrics mbean " + name, e);
+        }
+    }
+
+    private static ObjectName createObjectName(String name) throws JMException {
+        return new ObjectName(MBEAN_DOMAIN + ":type=CommandExecutionMetrics,name=" + ObjectName.quote(name));
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link CommandExecutionMetrics}
+ * 
+ * @author kitko
+ *
+ */
+public interface CommandExecutionMetricsMXBean {
+    /**
+     * @return statistics of all command classes seen so far
+     */
+    public List<CommandClassStatistics> getCommandStatistics();
+
+    /**
+     * @return one of how many executions is timed
+     */
+    public int getSamplingRate();
+
+    /**
+     * @param samplingRate one of how many executions is timed, 1 times all
+     */
+    public void setSamplingRate(int samplingRate);
+
+    /** Clears all collected metrics */
+    public void reset();
+}
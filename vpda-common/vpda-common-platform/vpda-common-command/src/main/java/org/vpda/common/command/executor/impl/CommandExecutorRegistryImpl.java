@@ -23,16 +23,19 @@ import java.util.Map;
 import org.vpda.common.command.CommandConst;
 import org.vpda.common.command.CommandExecutor;
 import org.vpda.common.command.CommandExecutorRegistry;
+import org.vpda.common.command.CommandExecutorRoute;
 
 /**
- * Registry for command executors
+ * Registry for command executors. Registered executors are kept in immutable
+ * snapshot that is replaced on every registration, so lookups need no locking
+ * and registration is atomic.
  * 
  * @author kitko
  *
  */
 public final class CommandExecutorRegistryImpl implements CommandExecutorRegistry, Serializable {
     private static final long serialVersionUID = 6522761493408767466L;
-    private final Map<String, CommandExecutor> executors;
+    private volatile Map<String, CommandExecutor> executors;
 
     /**
      * Creates new registry
@@ -40,25 +43,46 @@ public final class CommandExecutorRegistryImpl implements CommandExecutorRegistr
      */
     public CommandExecutorRegistryImpl() {
         super();
-        executors = new HashMap<String, CommandExecutor>();
+        executors = Collections.emptyMap();
+    }
+
+    private static String toKey(String commandexecutorId) {
+        return commandexecutorId == null ? CommandConst.DEFAULT_COMMON_EXECUTOR : commandexecutorId;
     }
 
     @Override
     public CommandExecutor getRegisteredCommandExecutor(String commandexecutorId) {
-        if (commandexecutorId == null) {
-            commandexecutorId = CommandConst.DEFAULT_COMMON_EXECUTOR;
+        return executors.get(toKey(commandexecutorId));
+    }
+
+    @Override
+    public synchronized void registerCommandExecutor(String id, CommandExecutor commandExecutor) {
+        Map<String, CommandExecutor> newExecutors = new HashMap<String, CommandExecutor>(executors);
+        newExecutors.put(toKey(id), commandExecutor);
+        executors = Collections.unmodifiableMap(newExecutors);
+    }
+
+    @Override
+    public synchronized CommandExecutor registerCommandExecutorIfAbsent(String id, CommandExecutor commandExecutor) {
+        CommandExecutor old = executors.get(toKey(id));
+        if (old == null) {
+            registerCommandExecutor(id, commandExecutor);
         }
-        return executors.get(commandexecutorId);
+        return old;
     }
 
     @Override
-    public void registerCommandExecutor(String id, CommandExecutor commandExecutor) {
-        executors.put(id, commandExecutor);
+    public synchronized boolean replaceCommandExecutor(String id, CommandExecutor expected, CommandExecutor commandExecutor) {
+        if (executors.get(toKey(id)) != expected) {
+            return false;
+        }
+        registerCommandExecutor(id, commandExecutor);
+        return true;
     }
 
     @Override
     public Collection<String> getExecutorsIds() {
-        return Collections.unmodifiableCollection(executors.keySet());
+        return executors.keySet();
     }
 
     @Override
@@ -66,4 +90,51 @@ public final class CommandExecutorRegistryImpl implements CommandExecutorRegistr
         registerCommandExecutor(commandExecutor.getExecutorId(), commandExecutor);
     }
 
+    @Override
+    public CommandExecutorRoute getCommandExecutorRoute(String id) {
+        return new SnapshotRoute(this, toKey(id));
+    }
+
+    /**
+     * Route that keeps executor resolved from last seen snapshot. While registry
+     * is not changed, route costs one volatile read.
+     */
+    private static final class SnapshotRoute implements CommandExecutorRoute {
+        private final CommandExecutorRegistryImpl registry;
+        private final String id;
+        private volatile Resolved resolved;
+
+        private SnapshotRoute(CommandExecutorRegistryImpl registry, String id) {
+            this.registry = registry;
+            this.id = id;
+        }
+
+        @Override
+        public String getExecutorId() {
+            return id;
+        }
+
+        @Override
+        public CommandExecutor getCommandExecutor() {
+            Map<String, CommandExecutor> current = registry.executors;
+            Resolved r = resolved;
+            if (r != null && r.snapshot == current) {
+                return r.executor;
+            }
+            CommandExecutor executor = current.get(id);
+            resolved = new Resolved(current, executor);
+            return executor;
+        }
+    }
+
+    private static final class Resolved {
+        private final Map<String, CommandExecutor> snapshot;
+        private final CommandExecutor executor;
+
+        private Resolved(Map<String, CommandExecutor> snapshot, CommandExecutor executor) {
+            this.snapshot = snapshot;
+            this.executor = executor;
+        }
+    }
+
 }
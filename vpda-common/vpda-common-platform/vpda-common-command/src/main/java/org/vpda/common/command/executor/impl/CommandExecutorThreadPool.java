@@ -14,13 +14,22 @@
  */
 package org.vpda.common.command.executor.impl;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.vpda.common.command.Command;
 import org.vpda.common.command.CommandCallback;
@@ -28,9 +37,14 @@ import org.vpda.common.command.CommandEvent;
 import org.vpda.common.command.CommandExecutionEnv;
 import org.vpda.common.command.CommandExecutorRegistry;
 import org.vpda.common.command.CommandWithCallback;
+import org.vpda.common.command.CompletableExecutionResult;
 import org.vpda.common.command.FutureCommandExecutor;
 import org.vpda.common.command.FutureExecutionResult;
+import org.vpda.common.command.executor.impl.CommandExecutorThreadPoolConfig.ExecutorMode;
+import org.vpda.common.command.executor.impl.CommandExecutorThreadPoolConfig.RejectionPolicy;
 import org.vpda.common.util.Cancellable;
+import org.vpda.common.util.exceptions.VPDAConfigurationRuntimeException;
+import org.vpda.common.util.logging.LoggerMethodTracer;
 import org.vpda.internal.common.util.Assert;
 import org.vpda.internal.common.util.CacheKeyCreator;
 import org.vpda.internal.common.util.StaticCache;
@@ -38,7 +52,10 @@ import org.vpda.internal.common.util.StaticCache;
 /**
  * This executor will invoke execute (
  * {@link ExecutorService#submit(java.util.concurrent.Callable)} using created
- * thread pool.
+ * thread pool. Pool is created from {@link CommandExecutorThreadPoolConfig},
+ * so commands can run in virtual threads, in bounded work stealing pool or in
+ * bounded pool with queue and rejection policy. StaticCache key creator is
+ * propagated to every executed command.
  * 
  * @author kitko
  *
@@ -48,19 +65,42 @@ public final class CommandExecutorThreadPool extends AbstractCommandExecutorBase
      * 
      */
     private static final long serialVersionUID = -8904373434865734296L;
+    private static final LoggerMethodTracer LOGGER = LoggerMethodTracer.getLogger(CommandExecutorThreadPool.class);
     private final ExecutorService tpe;
     private final CommandExecutorRegistry callBackRegistry;
     private final CacheKeyCreator cacheKeyCreatorForCommandSubmit;
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
 
     /**
-     * Default constructor
+     * Default constructor, pool is configured from system properties
      * 
      * @param commandExecutorId
      * @param callBackRegistry
      * @param cacheKeyCreatorForCommandSubmit
      */
     public CommandExecutorThreadPool(String commandExecutorId, CommandExecutorRegistry callBackRegistry, CacheKeyCreator cacheKeyCreatorForCommandSubmit) {
-        this(commandExecutorId, Executors.newCachedThreadPool(), callBackRegistry, cacheKeyCreatorForCommandSubmit);
+        this(commandExecutorId, CommandExecutorThreadPoolConfig.createFromSystemProperties(), callBackRegistry, cacheKeyCreatorForCommandSubmit);
+    }
+
+    /**
+     * Will create CommandExecutorThreadPool with pool created from config
+     * 
+     * @param commandExecutorId
+     * @param config
+     * @param callBackRegistry
+     * @param cacheKeyCreatorForCommandSubmit
+     */
+    public CommandExecutorThreadPool(String commandExecutorId, CommandExecutorThreadPoolConfig config, CommandExecutorRegistry callBackRegistry,
+            CacheKeyCreator cacheKeyCreatorForCommandSubmit) {
+        super(commandExecutorId);
+        this.tpe = createExecutorService(commandExecutorId, Assert.isNotNullArgument(config, "config"));
+        this.callBackRegistry = Assert.isNotNullArgument(callBackRegistry, "callBackRegistry");
+        callBackRegistry.registerCommandExecutorIfAbsent(CommandCallback.COMMAND_ITSELF_EXECUTOR_ID, CommandExecutorBase.getDefaultInstance());
+        this.cacheKeyCreatorForCommandSubmit = cacheKeyCreatorForCommandSubmit;
     }
 
     /**
@@ -75,32 +115,130 @@ public final class CommandExecutorThreadPool extends AbstractCommandExecutorBase
         super(commandExecutorId);
         this.tpe = Assert.isNotNullArgument(tpe, "ExecutorService");
         this.callBackRegistry = Assert.isNotNullArgument(callBackRegistry, "callBackRegistry");
-        if (callBackRegistry.getRegisteredCommandExecutor(CommandCallback.COMMAND_ITSELF_EXECUTOR_ID) == null) {
-            callBackRegistry.registerCommandExecutor(CommandCallback.COMMAND_ITSELF_EXECUTOR_ID, CommandExecutorBase.getDefaultInstance());
-        }
+        callBackRegistry.registerCommandExecutorIfAbsent(CommandCallback.COMMAND_ITSELF_EXECUTOR_ID, CommandExecutorBase.getDefaultInstance());
         this.cacheKeyCreatorForCommandSubmit = cacheKeyCreatorForCommandSubmit;
     }
 
+    private ExecutorService createExecutorService(String commandExecutorId, CommandExecutorThreadPoolConfig config) {
+        ExecutorMode mode = config.getMode();
+        if (mode == ExecutorMode.VIRTUAL_THREAD) {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            }
+            catch (NoSuchMethodException e) {
+                LOGGER.warning("Virtual threads are not supported by this java runtime, will use work stealing pool for executor " + commandExecutorId);
+                mode = ExecutorMode.WORK_STEALING;
+            }
+            catch (ReflectiveOperationException e) {
+                throw new VPDAConfigurationRuntimeException("Cannot create virtual thread executor", e);
+            }
+        }
+        switch (mode) {
+        case WORK_STEALING:
+            return Executors.newWorkStealingPool(config.getMaxThreads());
+        case BOUNDED_QUEUE:
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(config.getMaxThreads(), config.getMaxThreads(), config.getKeepAlive(), TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(config.getQueueCapacity()), new CommandThreadFactory(commandExecutorId), createRejectionHandler(config.getRejectionPolicy()));
+            executor.allowCoreThreadTimeOut(config.getKeepAlive() > 0);
+            return executor;
+        case CACHED:
+        default:
+            return Executors.newCachedThreadPool(new CommandThreadFactory(commandExecutorId));
+        }
+    }
+
+    private RejectedExecutionHandler createRejectionHandler(RejectionPolicy policy) {
+        if (policy == RejectionPolicy.CALLER_RUNS) {
+            return (r, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Executor " + getExecutorId() + " is shut down");
+                }
+                callerRuns.increment();
+                r.run();
+            };
+        }
+        return new ThreadPoolExecutor.AbortPolicy();
+    }
+
+    private static final class CommandThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        private CommandThreadFactory(String commandExecutorId) {
+            this.prefix = "vpda-command-" + commandExecutorId + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        }
+    }
+
+    private <T> FutureExecutionResult<T> submit(Command<? extends T> command, Callable<T> task) {
+        CompletableFuture<T> completion = new CompletableFuture<>();
+        CommandExecutionMetrics.Execution execution = startExecution(command);
+        submitted.increment();
+        Future<T> future;
+        try {
+            future = tpe.submit(new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    started.increment();
+                    long start = execution != null ? execution.start() : 0;
+                    boolean failed = true;
+                    CacheKeyCreator old = StaticCache.setKeyCreator(cacheKeyCreatorForCommandSubmit);
+                    try {
+                        T result = task.call();
+                        failed = false;
+                        completion.complete(result);
+                        return result;
+                    }
+                    catch (Throwable e) {
+                        completion.completeExceptionally(e);
+                        throw e;
+                    }
+                    finally {
+                        StaticCache.setKeyCreator(old);
+                        if (execution != null) {
+                            execution.finish(start, failed);
+                        }
+                        completed.increment();
+                    }
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            if (e instanceof RejectedExecutionException) {
+                rejected.increment();
+            }
+            if (execution != null) {
+                execution.submitFailed();
+            }
+            throw e;
+        }
+        if (command instanceof Cancellable cancellable) {
+            return new FutureCancellable<>(future, completion, cancellable);
+        }
+        return new FutureExecutionResultBase<>(future, completion);
+    }
+
     @Override
     public <T> FutureExecutionResult<T> executeCommand(final Command<? extends T> command, final CommandExecutionEnv env, final CommandEvent event) throws Exception {
-        Future<T> submit = tpe.submit(new Callable<T>() {
+        return submit(command, new Callable<T>() {
             @Override
             public T call() throws Exception {
-                StaticCache.setKeyCreator(cacheKeyCreatorForCommandSubmit);
                 T result = command.execute(CommandExecutorThreadPool.this, env, event);
                 return result;
             }
 
         });
-        if (command instanceof Cancellable cancellable) {
-            return new FutureCancellable<>(submit, cancellable);
-        }
-        return new FutureExecutionResultBase<>(submit);
     }
 
     @Override
     public <T> FutureExecutionResult<T> executeCommandWithCallback(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event, CommandCallback<T> callback) throws Exception {
-        Future<T> submit = tpe.submit(new Callable<T>() {
+        return submit(command, new Callable<T>() {
             @Override
             public T call() throws Exception {
                 CommandWithCallback<T> commandWithCallback = new CommandWithCallback<>(command, callback, callBackRegistry);
@@ -108,25 +246,68 @@ public final class CommandExecutorThreadPool extends AbstractCommandExecutorBase
                 return result;
             }
         });
-        if (command instanceof Cancellable cancellable) {
-            return new FutureCancellable<>(submit, cancellable);
+    }
+
+    /**
+     * Reads queue of underlying executor, so commands cancelled while waiting
+     * are not counted once executor drops them. Executors without queue, like
+     * virtual thread per task executor, start commands right away.
+     * 
+     * @return number of commands waiting for thread
+     */
+    public int getQueueSize() {
+        if (tpe instanceof ThreadPoolExecutor pool) {
+            return pool.getQueue().size();
+        }
+        if (tpe instanceof ForkJoinPool pool) {
+            return (int) Math.min(Integer.MAX_VALUE, pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount());
         }
-        return new FutureExecutionResultBase<>(submit);
+        return 0;
     }
 
-    private static final class FutureCancellable<T> implements FutureExecutionResult<T> {
+    /**
+     * @return number of currently running commands
+     */
+    public int getActiveCount() {
+        return (int) Math.max(0, started.sum() - completed.sum());
+    }
+
+    /**
+     * @return number of commands refused by the pool
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return snapshot of pool counters
+     */
+    public CommandExecutorThreadPoolStatistics getStatistics() {
+        return new CommandExecutorThreadPoolStatistics(submitted.sum(), completed.sum(), rejected.sum(), callerRuns.sum(), getActiveCount(), getQueueSize());
+    }
+
+    private static final class FutureCancellable<T> implements CompletableExecutionResult<T> {
         private final Future<T> future;
+        private final CompletableFuture<T> completion;
         private final Cancellable cancelable;
 
-        private FutureCancellable(Future<T> future, Cancellable cancelable) {
+        private FutureCancellable(Future<T> future, CompletableFuture<T> completion, Cancellable cancelable) {
             this.future = future;
+            this.completion = completion;
             this.cancelable = cancelable;
         }
 
         @Override
         public boolean cancel(boolean mayInterruptIfRunning) {
             cancelable.cancel();
-            return future.cancel(mayInterruptIfRunning);
+            boolean cancelled = future.cancel(mayInterruptIfRunning);
+            completion.cancel(false);
+            return cancelled;
+        }
+
+        @Override
+        public CompletableFuture<T> toCompletableFuture() {
+            return completion;
         }
 
         @Override
@@ -0,0 +1,262 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.io.Serializable;
+
+import org.vpda.common.util.Builder;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Configuration of {@link CommandExecutorThreadPool}. Defines how commands are
+ * scheduled and how pool reacts when it is saturated.
+ * 
+ * @author kitko
+ *
+ */
+public final class CommandExecutorThreadPoolConfig implements Serializable {
+    private static final long serialVersionUID = 3379102185611626071L;
+
+    /** System property with default executor mode */
+    public static final String MODE_PROPERTY_NAME = "vpda.commandExecutor.mode";
+    /** System property with default max threads */
+    public static final String MAX_THREADS_PROPERTY_NAME = "vpda.commandExecutor.maxThreads";
+    /** System property with default queue capacity */
+    public static final String QUEUE_CAPACITY_PROPERTY_NAME = "vpda.commandExecutor.queueCapacity";
+    /** System property with default rejection policy */
+    public static final String REJECTION_POLICY_PROPERTY_NAME = "vpda.commandExecutor.rejectionPolicy";
+
+    /** Default queue capacity for {@link ExecutorMode#BOUNDED_QUEUE} */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    /** Default keep alive of idle threads in millis */
+    public static final long DEFAULT_KEEP_ALIVE = 60000L;
+
+    /** How commands are scheduled */
+    public static enum ExecutorMode {
+        /** New platform thread is created when no idle thread exists */
+        CACHED,
+        /** Each command runs in its own virtual thread, requires java 21+ */
+        VIRTUAL_THREAD,
+        /** Fork join work stealing pool limited to maxThreads */
+        WORK_STEALING,
+        /** Pool limited to maxThreads with bounded queue of waiting commands */
+        BOUNDED_QUEUE;
+    }
+
+    /** What to do with command when bounded pool and its queue are full */
+    public static enum RejectionPolicy {
+        /** Submit fails with RejectedExecutionException */
+        ABORT,
+        /** Submitting thread executes command itself, slowing producers down */
+        CALLER_RUNS;
+    }
+
+    private final ExecutorMode mode;
+    private final int maxThreads;
+    private final int queueCapacity;
+    private final long keepAlive;
+    private final RejectionPolicy rejectionPolicy;
+
+    private CommandExecutorThreadPoolConfig(CommandExecutorThreadPoolConfigBuilder builder) {
+        this.mode = builder.mode;
+        this.maxThreads = builder.maxThreads;
+        this.queueCapacity = builder.queueCapacity;
+        this.keepAlive = builder.keepAlive;
+        this.rejectionPolicy = builder.rejectionPolicy;
+    }
+
+    /**
+     * @return executor mode
+     */
+    public ExecutorMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return max threads for bounded modes
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    /**
+     * @return capacity of waiting queue for {@link ExecutorMode#BOUNDED_QUEUE}
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return keep alive of idle threads in millis
+     */
+    public long getKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * @return rejection policy for {@link ExecutorMode#BOUNDED_QUEUE}
+     */
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * @return config with values read from system properties
+     */
+    public static CommandExecutorThreadPoolConfig createFromSystemProperties() {
+        CommandExecutorThreadPoolConfigBuilder builder = new CommandExecutorThreadPoolConfigBuilder();
+        String mode = System.getProperty(MODE_PROPERTY_NAME);
+        if (mode != null) {
+            builder.setMode(ExecutorMode.valueOf(mode));
+        }
+        builder.setMaxThreads(Integer.getInteger(MAX_THREADS_PROPERTY_NAME, builder.getMaxThreads()));
+        builder.setQueueCapacity(Integer.getInteger(QUEUE_CAPACITY_PROPERTY_NAME, DEFAULT_QUEUE_CAPACITY));
+        String policy = System.getProperty(REJECTION_POLICY_PROPERTY_NAME);
+        if (policy != null) {
+            builder.setRejectionPolicy(RejectionPolicy.valueOf(policy));
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "CommandExecutorThreadPoolConfig [mode=" + mode + ", maxThreads=" + maxThreads + ", queueCapacity=" + queueCapacity + ", keepAlive=" + keepAlive
+                + ", rejectionPolicy=" + rejectionPolicy + "]";
+    }
+
+    /**
+     * Builder for CommandExecutorThreadPoolConfig
+     * 
+     * @author kitko
+     *
+     */
+    public static final class CommandExecutorThreadPoolConfigBuilder implements Builder<CommandExecutorThreadPoolConfig> {
+        private ExecutorMode mode = ExecutorMode.CACHED;
+        private int maxThreads = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+        private long keepAlive = DEFAULT_KEEP_ALIVE;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+        /**
+         * @return mode
+         */
+        public ExecutorMode getMode() {
+            return mode;
+        }
+
+        /**
+         * @param mode
+         * @return this
+         */
+        public CommandExecutorThreadPoolConfigBuilder setMode(ExecutorMode mode) {
+            this.mode = Assert.isNotNullArgument(mode, "mode");
+            return this;
+        }
+
+        /**
+         * @return max threads
+         */
+        public int getMaxThreads() {
+            return maxThreads;
+        }
+
+        /**
+         * @param maxThreads
+         * @return this
+         */
+        public CommandExecutorThreadPoolConfigBuilder setMaxThreads(int maxThreads) {
+            if (maxThreads <= 0) {
+                throw new IllegalArgumentException("MaxThreads must be positive");
+            }
+            this.maxThreads = maxThreads;
+            return this;
+        }
+
+        /**
+         * @return queue capacity
+         */
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        /**
+         * @param queueCapacity
+         * @return this
+         */
+        public CommandExecutorThreadPoolConfigBuilder setQueueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("QueueCapacity must be positive");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * @return keep alive
+         */
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        /**
+         * @param keepAlive keep alive of idle threads in millis
+         * @return this
+         */
+        public CommandExecutorThreadPoolConfigBuilder setKeepAlive(long keepAlive) {
+            if (keepAlive < 0) {
+                throw new IllegalArgumentException("KeepAlive must not be negative");
+            }
+            this.keepAlive = keepAlive;
+            return this;
+        }
+
+        /**
+         * @return rejection policy
+         */
+        public RejectionPolicy getRejectionPolicy() {
+            return rejectionPolicy;
+        }
+
+        /**
+         * @param rejectionPolicy
+         * @return this
+         */
+        public CommandExecutorThreadPoolConfigBuilder setRejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = Assert.isNotNullArgument(rejectionPolicy, "rejectionPolicy");
+            return this;
+        }
+
+        @Override
+        public CommandExecutorThreadPoolConfig build() {
+            return new CommandExecutorThreadPoolConfig(this);
+        }
+
+        @Override
+        public Class<? extends CommandExecutorThreadPoolConfig> getTargetClass() {
+            return CommandExecutorThreadPoolConfig.class;
+        }
+
+        @Override
+        public CommandExecutorThreadPoolConfigBuilder setValues(CommandExecutorThreadPoolConfig values) {
+            this.mode = values.mode;
+            this.maxThreads = values.maxThreads;
+            this.queueCapacity = values.queueCapacity;
+            this.keepAlive = values.keepAlive;
+            this.rejectionPolicy = values.rejectionPolicy;
+            return this;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of {@link CommandExecutorThreadPool} counters
+ * 
+ * @author kitko
+ *
+ */
+public final class CommandExecutorThreadPoolStatistics implements Serializable {
+    private static final long serialVersionUID = 6410297414722003128L;
+    private final long submitted;
+    private final long completed;
+    private final long rejected;
+    private final long callerRuns;
+    private final int active;
+    private final int queued;
+
+    /**
+     * Creates statistics
+     * 
+     * @param submitted
+     * @param completed
+     * @param rejected
+     * @param callerRuns
+     * @param active
+     * @param queued
+     */
+    public CommandExecutorThreadPoolStatistics(long submitted, long completed, long rejected, long callerRuns, int active, int queued) {
+        this.submitted = submitted;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.callerRuns = callerRuns;
+        this.active = active;
+        this.queued = queued;
+    }
+
+    /**
+     * @return number of submitted commands
+     */
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * @return number of finished commands, successful or not
+     */
+    public long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return number of commands refused by the pool
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return number of commands executed by submitting thread because pool
+     *         was saturated
+     */
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * @return number of currently running commands
+     */
+    public int getActive() {
+        return active;
+    }
+
+    /**
+     * @return number of commands waiting for thread
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandExecutorThreadPoolStatistics [submitted=" + submitted + ", completed=" + completed + ", rejected=" + rejected + ", callerRuns=" + callerRuns
+                + ", active=" + active + ", queued=" + queued + "]";
+    }
+
+}
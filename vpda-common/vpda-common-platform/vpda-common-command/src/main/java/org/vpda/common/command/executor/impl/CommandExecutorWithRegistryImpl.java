@@ -25,6 +25,7 @@ import org.vpda.common.command.CommandEvent;
 import org.vpda.common.command.CommandExecutionEnv;
 import org.vpda.common.command.CommandExecutor;
 import org.vpda.common.command.CommandExecutorRegistry;
+import org.vpda.common.command.CommandExecutorRoute;
 import org.vpda.common.command.CommandExecutorWithRegistry;
 import org.vpda.common.command.ExecutionResult;
 import org.vpda.internal.common.util.Assert;
@@ -83,6 +84,21 @@ public final class CommandExecutorWithRegistryImpl implements CommandExecutorWit
         registry.registerCommandExecutor(commandExecutor);
     }
 
+    @Override
+    public CommandExecutor registerCommandExecutorIfAbsent(String id, CommandExecutor commandExecutor) {
+        return registry.registerCommandExecutorIfAbsent(id, commandExecutor);
+    }
+
+    @Override
+    public boolean replaceCommandExecutor(String id, CommandExecutor expected, CommandExecutor commandExecutor) {
+        return registry.replaceCommandExecutor(id, expected, commandExecutor);
+    }
+
+    @Override
+    public CommandExecutorRoute getCommandExecutorRoute(String id) {
+        return registry.getCommandExecutorRoute(id);
+    }
+
     @Override
     public CommandExecutor getCommandExecutor() {
         return executor.getCommandExecutor();
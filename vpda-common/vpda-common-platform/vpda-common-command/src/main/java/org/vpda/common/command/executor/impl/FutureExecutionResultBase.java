@@ -17,12 +17,13 @@
  */
 package org.vpda.common.command.executor.impl;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
-import org.vpda.common.command.FutureExecutionResult;
+import org.vpda.common.command.CompletableExecutionResult;
 
 /**
  * Execution result as future object
@@ -31,8 +32,10 @@ import org.vpda.common.command.FutureExecutionResult;
  * @param <T>
  *
  */
-public final class FutureExecutionResultBase<T> implements FutureExecutionResult<T> {
+public final class FutureExecutionResultBase<T> implements CompletableExecutionResult<T> {
     private final Future<T> future;
+    private final CompletableFuture<T> completion;
+    private volatile CompletableFuture<T> adapted;
 
     /**
      * Creates FutureExecutionResultBase
@@ -40,12 +43,28 @@ public final class FutureExecutionResultBase<T> implements FutureExecutionResult
      * @param future
      */
     public FutureExecutionResultBase(Future<T> future) {
+        this(future, null);
+    }
+
+    /**
+     * Creates FutureExecutionResultBase with completion completed by the task
+     * running future
+     * 
+     * @param future
+     * @param completion
+     */
+    public FutureExecutionResultBase(Future<T> future, CompletableFuture<T> completion) {
         this.future = future;
+        this.completion = completion;
     }
 
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
-        return future.cancel(mayInterruptIfRunning);
+        boolean cancelled = future.cancel(mayInterruptIfRunning);
+        if (completion != null) {
+            completion.cancel(false);
+        }
+        return cancelled;
     }
 
     @Override
@@ -68,4 +87,25 @@ public final class FutureExecutionResultBase<T> implements FutureExecutionResult
         return future.isDone();
     }
 
+    @Override
+    public CompletableFuture<T> toCompletableFuture() {
+        if (completion != null) {
+            return completion;
+        }
+        if (future instanceof CompletableFuture<T> completableFuture) {
+            return completableFuture;
+        }
+        CompletableFuture<T> result = adapted;
+        if (result == null) {
+            synchronized (this) {
+                result = adapted;
+                if (result == null) {
+                    result = CompletableExecutionResult.awaitInCommonPool(future);
+                    adapted = result;
+                }
+            }
+        }
+        return result;
+    }
+
 }
@@ -0,0 +1,83 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import org.vpda.common.command.Command;
+import org.vpda.common.command.CommandCallback;
+import org.vpda.common.command.CommandEvent;
+import org.vpda.common.command.CommandExecutionEnv;
+import org.vpda.common.command.CommandExecutor;
+import org.vpda.common.command.ExecutionResult;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Executor that records commands executed by real executor to
+ * {@link CommandExecutionMetrics}. Used for executors that cannot record
+ * commands themselves, nested commands executed directly by real executor are
+ * not recorded.
+ * 
+ * @author kitko
+ *
+ */
+public final class InstrumentedCommandExecutor extends CommandExecutorDelegate {
+    private final CommandExecutionMetrics metrics;
+
+    /**
+     * @param realExecutor
+     * @param metrics
+     */
+    public InstrumentedCommandExecutor(CommandExecutor realExecutor, CommandExecutionMetrics metrics) {
+        super(realExecutor);
+        this.metrics = Assert.isNotNullArgument(metrics, "metrics");
+    }
+
+    @Override
+    public <T> ExecutionResult<T> executeCommand(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event) throws Exception {
+        CommandExecutionMetrics.Execution execution = metrics.submit(command);
+        long start = execution.start();
+        boolean failed = true;
+        try {
+            ExecutionResult<T> result = getDelegatedObject().executeCommand(command, env, event);
+            failed = false;
+            return result;
+        }
+        finally {
+            execution.finish(start, failed);
+        }
+    }
+
+    @Override
+    public <T> ExecutionResult<T> executeCommandWithCallback(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event, CommandCallback<T> callback) throws Exception {
+        CommandExecutionMetrics.Execution execution = metrics.submit(command);
+        long start = execution.start();
+        boolean failed = true;
+        try {
+            ExecutionResult<T> result = getDelegatedObject().executeCommandWithCallback(command, env, event, callback);
+            failed = false;
+            return result;
+        }
+        finally {
+            execution.finish(start, failed);
+        }
+    }
+
+    /**
+     * @return metrics commands are recorded to
+     */
+    public CommandExecutionMetrics getMetrics() {
+        return metrics;
+    }
+
+}
@@ -0,0 +1,90 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.executor.impl;
+
+import org.vpda.common.command.Command;
+import org.vpda.common.command.CommandCallback;
+import org.vpda.common.command.CommandEvent;
+import org.vpda.common.command.CommandExecutionEnv;
+import org.vpda.common.command.CompletableExecutionResult;
+import org.vpda.common.command.FutureCommandExecutor;
+import org.vpda.common.command.FutureExecutionResult;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Future executor that records commands executed by real executor to
+ * {@link CommandExecutionMetrics}. Used for executors that cannot record
+ * commands themselves. Start of execution is not known here, so time between
+ * submit and completion of {@link CompletableExecutionResult} is recorded as
+ * latency, nested commands executed directly by real executor are not recorded.
+ * 
+ * @author kitko
+ *
+ */
+public final class InstrumentedFutureCommandExecutor extends CommandExecutorDelegate implements FutureCommandExecutor {
+    private final FutureCommandExecutor realExecutor;
+    private final CommandExecutionMetrics metrics;
+
+    /**
+     * @param realExecutor
+     * @param metrics
+     */
+    public InstrumentedFutureCommandExecutor(FutureCommandExecutor realExecutor, CommandExecutionMetrics metrics) {
+        super(realExecutor);
+        this.realExecutor = realExecutor;
+        this.metrics = Assert.isNotNullArgument(metrics, "metrics");
+    }
+
+    @Override
+    public <T> FutureExecutionResult<T> executeCommand(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event) throws Exception {
+        CommandExecutionMetrics.Execution execution = metrics.submit(command);
+        try {
+            return track(realExecutor.executeCommand(command, env, event), execution);
+        }
+        catch (Exception e) {
+            execution.submitFailed();
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> FutureExecutionResult<T> executeCommandWithCallback(Command<? extends T> command, CommandExecutionEnv env, CommandEvent event, CommandCallback<T> callback)
+            throws Exception {
+        CommandExecutionMetrics.Execution execution = metrics.submit(command);
+        try {
+            return track(realExecutor.executeCommandWithCallback(command, env, event, callback), execution);
+        }
+        catch (Exception e) {
+            execution.submitFailed();
+            throw e;
+        }
+    }
+
+    private static <T> FutureExecutionResult<T> track(FutureExecutionResult<T> result, CommandExecutionMetrics.Execution execution) {
+        if (result instanceof CompletableExecutionResult<T> completable) {
+            long start = execution.start();
+            completable.toCompletableFuture().whenComplete((value, e) -> execution.finish(start, e != null));
+        }
+        return result;
+    }
+
+    /**
+     * @return metrics commands are recorded to
+     */
+    public CommandExecutionMetrics getMetrics() {
+        return metrics;
+    }
+
+}
@@ -14,12 +14,18 @@
  */
 package org.vpda.common.command.request;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
 import org.vpda.common.command.AbstractProgressCommand;
 import org.vpda.common.command.Command;
 import org.vpda.common.command.CommandEvent;
 import org.vpda.common.command.CommandExecutionEnv;
 import org.vpda.common.command.CommandExecutor;
 import org.vpda.common.command.CommandExecutorRegistry;
+import org.vpda.common.command.CompletableExecutionResult;
 import org.vpda.common.command.ExecutionResult;
 import org.vpda.common.command.ResultWithCommands;
 import org.vpda.common.util.exceptions.DefaultLoggingExceptionHandler;
@@ -33,6 +39,10 @@ import org.vpda.internal.common.util.Assert;
  * this commands makes interaction between client and server. They are executed
  * first at client side, then passed to server and executed there. After again
  * executed on server with result from server
+ * <p>
+ * Besides blocking {@link #execute(CommandExecutor, CommandExecutionEnv, CommandEvent)}
+ * the lifecycle can be run by {@link #executeAsync(CommandExecutionEnv, CommandEvent)}
+ * as composed stages, so no thread waits for results of future executors.
  * 
  * @author kitko
  * @param <T>
@@ -150,27 +160,40 @@ public abstract class AbstractRequestCommand<T> extends AbstractProgressCommand<
      * @param requestCommandExecutor
      */
     protected AbstractRequestCommand(CommandExecutorRegistry registry, CommandExecutor requestCommandExecutor) {
+        this(Assert.isNotNull(registry, "Registry argument is null"),
+                requestCommandExecutor != null ? requestCommandExecutor : registry.getRegisteredCommandExecutor(RequestCommandBaseConst.REQUEST_COMMAND_EXECUTOR),
+                registry.getRegisteredCommandExecutor(RequestCommandBaseConst.BEFORE_REQUEST_COMMAND_EXECUTOR),
+                registry.getRegisteredCommandExecutor(RequestCommandBaseConst.AFTER_REQUEST_COMMAND_EXECUTOR),
+                registry.getRegisteredCommandExecutor(RequestCommandBaseConst.EXCEPTION_HANDLING_COMMAND_EXECUTOR));
+    }
+
+    /**
+     * Creates RequestComamndBase using precomputed routes, routes can be shared
+     * by all request commands using the same registry
+     * 
+     * @param routes
+     * @param requestCommandExecutor request executor or null to use routed one
+     */
+    protected AbstractRequestCommand(RequestCommandRoutes routes, CommandExecutor requestCommandExecutor) {
+        this(Assert.isNotNull(routes, "Routes argument is null").getRegistry(), requestCommandExecutor != null ? requestCommandExecutor : routes.getRequestExecutor(),
+                routes.getBeforeRequestExecutor(), routes.getAfterRequestExecutor(), routes.getExceptionHandlingExecutor());
+    }
+
+    /**
+     * Creates command with resolved executors, missing executors are replaced by
+     * request executor
+     */
+    private AbstractRequestCommand(CommandExecutorRegistry registry, CommandExecutor requestCommandExecutor, CommandExecutor beforeRequestExecutor,
+            CommandExecutor afterRequestExecutor, CommandExecutor excHandlingExecutor) {
         super();
-        this.registry = Assert.isNotNull(registry, "Registry argument is null");
-        this.requestCommandExecutor = requestCommandExecutor;
-        if (this.requestCommandExecutor == null) {
-            this.requestCommandExecutor = registry.getRegisteredCommandExecutor(RequestCommandBaseConst.REQUEST_COMMAND_EXECUTOR);
-        }
-        if (this.requestCommandExecutor == null) {
+        if (requestCommandExecutor == null) {
             throw new IllegalArgumentException("RequestCommandExecutor not registered in CommandExecutorRegistry");
         }
-        beforeRequestExecutor = registry.getRegisteredCommandExecutor(RequestCommandBaseConst.BEFORE_REQUEST_COMMAND_EXECUTOR);
-        if (beforeRequestExecutor == null) {
-            beforeRequestExecutor = this.requestCommandExecutor;
-        }
-        afterRequestExecutor = registry.getRegisteredCommandExecutor(RequestCommandBaseConst.AFTER_REQUEST_COMMAND_EXECUTOR);
-        if (afterRequestExecutor == null) {
-            afterRequestExecutor = this.requestCommandExecutor;
-        }
-        excHandlingExecutor = registry.getRegisteredCommandExecutor(RequestCommandBaseConst.EXCEPTION_HANDLING_COMMAND_EXECUTOR);
-        if (excHandlingExecutor == null) {
-            excHandlingExecutor = this.requestCommandExecutor;
-        }
+        this.registry = registry;
+        this.requestCommandExecutor = requestCommandExecutor;
+        this.beforeRequestExecutor = beforeRequestExecutor != null ? beforeRequestExecutor : requestCommandExecutor;
+        this.afterRequestExecutor = afterRequestExecutor != null ? afterRequestExecutor : requestCommandExecutor;
+        this.excHandlingExecutor = excHandlingExecutor != null ? excHandlingExecutor : requestCommandExecutor;
     }
 
     @Override
@@ -212,6 +235,94 @@ public abstract class AbstractRequestCommand<T> extends AbstractProgressCommand<
         return requestResult.get();
     }
 
+    /**
+     * Executes before request, request, after request and exception handling
+     * commands as chain of stages. Next stage is submitted by thread that
+     * completed previous one, so with {@link CompletableExecutionResult} results
+     * no thread is blocked. Exception handling follows
+     * {@link RequestCommandExceptionExecutionPolicy} same way as blocking
+     * execution.
+     * 
+     * @param env
+     * @param event
+     * @return future with request result, null when execution was aborted
+     */
+    public final CompletableFuture<T> executeAsync(CommandExecutionEnv env, CommandEvent event) {
+        CompletableFuture<Boolean> beforeStage = submitStage(beforeRequestExecutor, new BeforeRequestCommand<T>(this), env, event);
+        CompletableFuture<T> result = continueOrAbort(beforeStage, Boolean.TRUE::equals, env, event).thenCompose(proceed -> {
+            if (!proceed) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return executeRequestStage(env, event);
+        });
+        return result.whenComplete((res, e) -> {
+            if (e != null) {
+                Throwable cause = unwrap(e);
+                getProgressNotifier().notifyExecutionFinished(null, cause instanceof Exception ex ? ex : new CompletionException(cause));
+            }
+        });
+    }
+
+    private CompletableFuture<T> executeRequestStage(CommandExecutionEnv env, CommandEvent event) {
+        ExecutionResult<T> requestResult;
+        try {
+            requestResult = requestCommandExecutor.executeCommand(new RequestCommandInternal<T>(this), env, event);
+        }
+        catch (Exception e) {
+            return handleExceptionStage(e, env, event).thenCompose(policy -> {
+                if (policy == null || policy == RequestCommandExceptionExecutionPolicy.ABORT) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return executeAfterRequestStage(null, null, env, event);
+            });
+        }
+        CompletableFuture<T> requestStage = CompletableExecutionResult.toCompletableFuture(requestResult);
+        return requestStage.handle((res, e) -> requestResult).thenCompose(finished -> executeAfterRequestStage(finished, requestStage, env, event));
+    }
+
+    private CompletableFuture<T> executeAfterRequestStage(ExecutionResult<T> requestResult, CompletableFuture<T> requestStage, CommandExecutionEnv env, CommandEvent event) {
+        CompletableFuture<Object> afterStage = submitStage(afterRequestExecutor, new AfterRequestCommand<T>(this, requestResult), env, event);
+        return continueOrAbort(afterStage, res -> true, env, event).thenCompose(proceed -> {
+            if (!proceed || requestStage == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return requestStage;
+        });
+    }
+
+    private <R> CompletableFuture<Boolean> continueOrAbort(CompletableFuture<R> stage, Predicate<R> proceedOnSuccess, CommandExecutionEnv env, CommandEvent event) {
+        return stage.handle((res, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(proceedOnSuccess.test(res));
+            }
+            return handleExceptionStage(e, env, event).thenApply(policy -> policy != RequestCommandExceptionExecutionPolicy.ABORT);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<RequestCommandExceptionExecutionPolicy> handleExceptionStage(Throwable e, CommandExecutionEnv env, CommandEvent event) {
+        Throwable cause = unwrap(e);
+        if (!(cause instanceof Exception exception)) {
+            return CompletableFuture.failedFuture(cause);
+        }
+        return submitStage(excHandlingExecutor, new ExceptionHandlingCommand<T>(this, exception), env, event);
+    }
+
+    private static <R> CompletableFuture<R> submitStage(CommandExecutor executor, Command<R> command, CommandExecutionEnv env, CommandEvent event) {
+        try {
+            return CompletableExecutionResult.toCompletableFuture(executor.executeCommand(command, env, event));
+        }
+        catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
     @Override
     protected boolean canNotifyOnExecutionFinished() {
         return false;
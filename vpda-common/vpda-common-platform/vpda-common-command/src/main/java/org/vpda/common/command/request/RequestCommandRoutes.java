@@ -0,0 +1,90 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.command.request;
+
+import org.vpda.common.command.CommandExecutor;
+import org.vpda.common.command.CommandExecutorRegistry;
+import org.vpda.common.command.CommandExecutorRoute;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Precomputed routes to executors used by {@link AbstractRequestCommand}.
+ * Routes can be created once per registry and shared by all request commands,
+ * so construction of request command does not look up executors by id.
+ * 
+ * @author kitko
+ *
+ */
+public final class RequestCommandRoutes {
+    private final CommandExecutorRegistry registry;
+    private final CommandExecutorRoute requestRoute;
+    private final CommandExecutorRoute beforeRequestRoute;
+    private final CommandExecutorRoute afterRequestRoute;
+    private final CommandExecutorRoute excHandlingRoute;
+
+    private RequestCommandRoutes(CommandExecutorRegistry registry) {
+        this.registry = registry;
+        this.requestRoute = registry.getCommandExecutorRoute(RequestCommandBaseConst.REQUEST_COMMAND_EXECUTOR);
+        this.beforeRequestRoute = registry.getCommandExecutorRoute(RequestCommandBaseConst.BEFORE_REQUEST_COMMAND_EXECUTOR);
+        this.afterRequestRoute = registry.getCommandExecutorRoute(RequestCommandBaseConst.AFTER_REQUEST_COMMAND_EXECUTOR);
+        this.excHandlingRoute = registry.getCommandExecutorRoute(RequestCommandBaseConst.EXCEPTION_HANDLING_COMMAND_EXECUTOR);
+    }
+
+    /**
+     * Creates routes for registry
+     * 
+     * @param registry
+     * @return routes
+     */
+    public static RequestCommandRoutes create(CommandExecutorRegistry registry) {
+        return new RequestCommandRoutes(Assert.isNotNull(registry, "Registry argument is null"));
+    }
+
+    /**
+     * @return registry routes were created for
+     */
+    public CommandExecutorRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return request executor or null if not registered
+     */
+    public CommandExecutor getRequestExecutor() {
+        return requestRoute.getCommandExecutor();
+    }
+
+    /**
+     * @return before request executor or null if not registered
+     */
+    public CommandExecutor getBeforeRequestExecutor() {
+        return beforeRequestRoute.getCommandExecutor();
+    }
+
+    /**
+     * @return after request executor or null if not registered
+     */
+    public CommandExecutor getAfterRequestExecutor() {
+        return afterRequestRoute.getCommandExecutor();
+    }
+
+    /**
+     * @return exception handling executor or null if not registered
+     */
+    public CommandExecutor getExceptionHandlingExecutor() {
+        return excHandlingRoute.getCommandExecutor();
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package org.vpda.common.context;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
@@ -44,6 +45,8 @@ public final class ApplContext implements Serializable, NamedCode {
     private final String name;
     private final String code;
     private final String description;
+    private transient int hash;
+    private transient volatile long canonicalId;
 
     ApplContext(ApplContextBuilder builder) {
         this.id = builder.getId();
@@ -51,13 +54,12 @@ public final class ApplContext implements Serializable, NamedCode {
         this.name = builder.getName();
         this.description = builder.getDescription();
         ApplContext parent = builder.getParent();
-        this.items = new OrderedMap<ContextItemKey, ContextItem<?>>(parent != null ? parent.size() : 0 + builder.getInternalItems().size());
+        OrderedMap<ContextItemKey, ContextItem<?>> allItems = new OrderedMap<ContextItemKey, ContextItem<?>>((parent != null ? parent.size() : 0) + builder.getInternalItems().size());
         if (parent != null) {
-            for (ContextItem<?> item : parent.items.values()) {
-                this.items.put(item.getKey(), item);
-            }
+            allItems.putAll(parent.items);
         }
-        this.items.putAll(builder.getInternalItems());
+        allItems.putAll(builder.getInternalItems());
+        this.items = allItems.freeze();
     }
 
     /**
@@ -174,12 +176,39 @@ public final class ApplContext implements Serializable, NamedCode {
         return builder.toString();
     }
 
+    /**
+     * @return id assigned by {@link ContextCanonicalizer} or 0 if context is
+     *         not canonical instance
+     */
+    public long getCanonicalId() {
+        return canonicalId;
+    }
+
+    /**
+     * @return true if this is canonical instance
+     */
+    public boolean isCanonical() {
+        return canonicalId != 0;
+    }
+
+    void setCanonicalId(long canonicalId) {
+        this.canonicalId = canonicalId;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return ContextCanonicalizer.getInstance().canonicalize(this);
+    }
+
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + (int) (id ^ (id >>> 32));
-        result = prime * result + ((items == null) ? 0 : items.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + (int) (id ^ (id >>> 32));
+            result = prime * result + ((items == null) ? 0 : items.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -198,6 +227,15 @@ public final class ApplContext implements Serializable, NamedCode {
         if (id != other.id) {
             return false;
         }
+        if (hashCode() != other.hashCode()) {
+            return false;
+        }
+        long canonical = canonicalId;
+        long otherCanonical = other.canonicalId;
+        if (canonical != 0 && otherCanonical != 0) {
+            // Equal canonical contexts are identical
+            return canonical == otherCanonical;
+        }
         if (items == null) {
             if (other.items != null) {
                 return false;
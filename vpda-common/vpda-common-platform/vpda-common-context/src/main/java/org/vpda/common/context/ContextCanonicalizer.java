@@ -0,0 +1,174 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.context;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Interns {@link ApplContext} and {@link TenementalContext} instances. Each
+ * distinct context gets one canonical instance with unique canonical id, so
+ * equal canonical contexts are identical and keys holding them compare in
+ * constant time. Two canonical contexts with different ids are never equal,
+ * new equal instance gets an id only after the previous one was garbage
+ * collected. Canonical instances are held weakly in concurrent maps and are
+ * forgotten when they are no longer used. Contexts should be canonicalized
+ * once where they are created, see
+ * {@link TenementalContext#create(ApplContext, java.util.Locale, DateContext)},
+ * deserialized contexts are canonicalized when they are resolved.
+ * 
+ * @author kitko
+ *
+ */
+public final class ContextCanonicalizer {
+
+    private static final ContextCanonicalizer INSTANCE = new ContextCanonicalizer();
+
+    private final AtomicLong ids;
+    private final Interner<ApplContext> applContexts;
+    private final Interner<TenementalContext> tenementalContexts;
+
+    private ContextCanonicalizer() {
+        this.ids = new AtomicLong();
+        this.applContexts = new Interner<>();
+        this.tenementalContexts = new Interner<>();
+    }
+
+    /**
+     * Concurrent set of weakly held canonical instances
+     * 
+     * @param <T>
+     */
+    private static final class Interner<T> {
+        private final ConcurrentMap<Ref<T>, Ref<T>> refs = new ConcurrentHashMap<>();
+        private final ReferenceQueue<T> queue = new ReferenceQueue<>();
+
+        /**
+         * Weak reference equal to other reference with equal referent. Cleared
+         * reference is equal only to itself, so it can be removed but not found.
+         */
+        private static final class Ref<T> extends WeakReference<T> {
+            private final int hash;
+
+            private Ref(T referent, ReferenceQueue<T> queue) {
+                super(referent, queue);
+                this.hash = referent.hashCode();
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+
+            @Override
+            public boolean equals(Object obj) {
+                if (this == obj) {
+                    return true;
+                }
+                if (!(obj instanceof Ref<?> other) || hash != other.hash) {
+                    return false;
+                }
+                Object referent = get();
+                return referent != null && referent.equals(other.get());
+            }
+        }
+
+        private T intern(T candidate, Consumer<T> onNew) {
+            expunge();
+            Ref<T> ref = new Ref<>(candidate, queue);
+            while (true) {
+                @SuppressWarnings("unchecked")
+                T[] result = (T[]) new Object[1];
+                refs.compute(ref, (key, old) -> {
+                    T canonical = old != null ? old.get() : null;
+                    if (canonical != null) {
+                        result[0] = canonical;
+                        return old;
+                    }
+                    if (old != null) {
+                        return null;
+                    }
+                    onNew.accept(candidate);
+                    result[0] = candidate;
+                    return ref;
+                });
+                if (result[0] != null) {
+                    return result[0];
+                }
+            }
+        }
+
+        private void expunge() {
+            Reference<? extends T> cleared;
+            while ((cleared = queue.poll()) != null) {
+                refs.remove(cleared);
+            }
+        }
+
+        private int size() {
+            expunge();
+            return refs.size();
+        }
+    }
+
+    /**
+     * @return shared canonicalizer
+     */
+    public static ContextCanonicalizer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param context
+     * @return canonical instance equal to context
+     */
+    public ApplContext canonicalize(ApplContext context) {
+        Assert.isNotNullArgument(context, "context");
+        if (context.isCanonical()) {
+            return context;
+        }
+        return applContexts.intern(context, c -> c.setCanonicalId(ids.incrementAndGet()));
+    }
+
+    /**
+     * @param context
+     * @return canonical instance equal to context, with canonical
+     *         {@link ApplContext}
+     */
+    public TenementalContext canonicalize(TenementalContext context) {
+        Assert.isNotNullArgument(context, "context");
+        if (context.isCanonical()) {
+            return context;
+        }
+        ApplContext applContext = canonicalize(context.getApplContext());
+        TenementalContext candidate = applContext == context.getApplContext() ? context : new TenementalContext(applContext, context.getLocale(), context.getDateContext());
+        return tenementalContexts.intern(candidate, c -> c.setCanonicalId(ids.incrementAndGet()));
+    }
+
+    /**
+     * @return number of interned contexts still in use
+     */
+    public int size() {
+        return applContexts.size() + tenementalContexts.size();
+    }
+
+}
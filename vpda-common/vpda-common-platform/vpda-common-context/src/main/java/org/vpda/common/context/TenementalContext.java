@@ -14,6 +14,7 @@
  */
 package org.vpda.common.context;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.Locale;
@@ -26,6 +27,8 @@ public final class TenementalContext implements Serializable {
     private final Locale locale;
     private final ApplContext applContext;
     private final DateContext dateContext;
+    private transient int hash;
+    private transient volatile long canonicalId;
 
     public TenementalContext(ApplContext applContext, Locale locale, DateContext dateContext) {
         this.applContext = Assert.isNotNullArgument(applContext, "applContext");
@@ -33,16 +36,31 @@ public final class TenementalContext implements Serializable {
         this.dateContext = Assert.isNotNullArgument(dateContext, "dateContext");
     }
 
+    /**
+     * @param applContext
+     * @return canonical context, see {@link ContextCanonicalizer}
+     */
     public static TenementalContext create(ApplContext applContext) {
-        return new TenementalContext(applContext, new Locale("en", "US"), new DateContext.DateContextBuilder().setYear(LocalDate.now().getYear()).build());
+        return create(applContext, new Locale("en", "US"), new DateContext.DateContextBuilder().setYear(LocalDate.now().getYear()).build());
     }
 
+    /**
+     * @param applContext
+     * @param locale
+     * @return canonical context, see {@link ContextCanonicalizer}
+     */
     public static TenementalContext create(ApplContext applContext, Locale locale) {
-        return new TenementalContext(applContext, locale, new DateContext.DateContextBuilder().setYear(LocalDate.now().getYear()).build());
+        return create(applContext, locale, new DateContext.DateContextBuilder().setYear(LocalDate.now().getYear()).build());
     }
 
+    /**
+     * @param applContext
+     * @param locale
+     * @param dateContext
+     * @return canonical context, see {@link ContextCanonicalizer}
+     */
     public static TenementalContext create(ApplContext applContext, Locale locale, DateContext dateContext) {
-        return new TenementalContext(applContext, locale, dateContext);
+        return ContextCanonicalizer.getInstance().canonicalize(new TenementalContext(applContext, locale, dateContext));
     }
 
     public Locale getLocale() {
@@ -57,9 +75,37 @@ public final class TenementalContext implements Serializable {
         return dateContext;
     }
 
+    /**
+     * @return id assigned by {@link ContextCanonicalizer} or 0 if context is
+     *         not canonical instance
+     */
+    public long getCanonicalId() {
+        return canonicalId;
+    }
+
+    /**
+     * @return true if this is canonical instance
+     */
+    public boolean isCanonical() {
+        return canonicalId != 0;
+    }
+
+    void setCanonicalId(long canonicalId) {
+        this.canonicalId = canonicalId;
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        return ContextCanonicalizer.getInstance().canonicalize(this);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(applContext, dateContext, locale);
+        int result = hash;
+        if (result == 0) {
+            result = Objects.hash(applContext, dateContext, locale);
+            hash = result;
+        }
+        return result;
     }
 
     @Override
@@ -71,10 +117,23 @@ public final class TenementalContext implements Serializable {
         if (getClass() != obj.getClass())
             return false;
         TenementalContext other = (TenementalContext) obj;
+        if (hashCode() != other.hashCode()) {
+            return false;
+        }
+        long canonical = canonicalId;
+        long otherCanonical = other.canonicalId;
+        if (canonical != 0 && otherCanonical != 0) {
+            // Equal canonical contexts are identical
+            return canonical == otherCanonical;
+        }
         return Objects.equals(applContext, other.applContext) && Objects.equals(dateContext, other.dateContext) && Objects.equals(locale, other.locale);
     }
 
+    /**
+     * @param locale
+     * @return canonical context with same application and date context
+     */
     public TenementalContext createWithLocale(Locale locale) {
-        return new TenementalContext(applContext, locale, dateContext);
+        return create(applContext, locale, dateContext);
     }
 }
\ No newline at end of file
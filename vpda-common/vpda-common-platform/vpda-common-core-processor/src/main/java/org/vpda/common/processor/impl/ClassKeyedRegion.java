@@ -0,0 +1,73 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.processor.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache region keyed by class. Values are attached to key class using
+ * {@link ClassValue}, so they do not keep class loader reachable and go away
+ * together with redeployed classes. Clear is done by switching generation,
+ * values of older generation are ignored and replaced lazily.
+ * 
+ * @author kitko
+ *
+ * @param <V>
+ */
+final class ClassKeyedRegion<V> {
+    private final ClassValue<Slot<V>> slots = new ClassValue<Slot<V>>() {
+        @Override
+        protected Slot<V> computeValue(Class<?> type) {
+            return new Slot<>();
+        }
+    };
+    private volatile int generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    V get(Class<?> key) {
+        Slot<V> slot = slots.get(key);
+        V v = slot.generation == generation ? slot.value : null;
+        if (v != null) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+        }
+        return v;
+    }
+
+    void put(Class<?> key, V value) {
+        Slot<V> slot = slots.get(key);
+        synchronized (slot) {
+            slot.value = value;
+            slot.generation = generation;
+        }
+    }
+
+    synchronized void clear() {
+        generation++;
+    }
+
+    ProcessingCacheStatistics.RegionStatistics getStatistics() {
+        return new ProcessingCacheStatistics.RegionStatistics(hits.sum(), misses.sum(), 0, -1, 0);
+    }
+
+    private static final class Slot<V> {
+        volatile V value;
+        volatile int generation = -1;
+    }
+
+}
@@ -0,0 +1,240 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.processor.impl;
+
+import java.io.Serializable;
+
+import org.vpda.common.util.Builder;
+
+/**
+ * Limits of regions of {@link ProcessingCacheImpl}. Regions keyed by processing
+ * contexts are size bounded, zero means unbounded. Regions keyed by class are
+ * not bounded, they are weakly bound to key classes.
+ * 
+ * @author kitko
+ *
+ */
+public final class ProcessingCacheConfig implements Serializable {
+    private static final long serialVersionUID = -3527413962518720311L;
+
+    /** System property with max number of processed objects */
+    public static final String MAX_PROCESSED_OBJECTS_PROPERTY_NAME = "vpda.processingCache.maxProcessedObjects";
+    /** System property with max number of built field objects */
+    public static final String MAX_BUILT_OBJECTS_PROPERTY_NAME = "vpda.processingCache.maxBuiltObjects";
+    /** System property with max number of processors by context */
+    public static final String MAX_PROCESSORS_BY_CONTEXT_PROPERTY_NAME = "vpda.processingCache.maxProcessorsByContext";
+    /** System property with max number of builders by context */
+    public static final String MAX_BUILDERS_BY_CONTEXT_PROPERTY_NAME = "vpda.processingCache.maxBuildersByContext";
+    /** System property with max number of field filters by context */
+    public static final String MAX_FIELD_FILTERS_PROPERTY_NAME = "vpda.processingCache.maxFieldFilters";
+
+    /** Default max number of entries in context region */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private final int maxProcessedObjects;
+    private final int maxBuiltObjects;
+    private final int maxProcessorsByContext;
+    private final int maxBuildersByContext;
+    private final int maxFieldFilters;
+
+    private ProcessingCacheConfig(ProcessingCacheConfigBuilder builder) {
+        this.maxProcessedObjects = builder.maxProcessedObjects;
+        this.maxBuiltObjects = builder.maxBuiltObjects;
+        this.maxProcessorsByContext = builder.maxProcessorsByContext;
+        this.maxBuildersByContext = builder.maxBuildersByContext;
+        this.maxFieldFilters = builder.maxFieldFilters;
+    }
+
+    /**
+     * @return max number of processed objects, 0 means unbounded
+     */
+    public int getMaxProcessedObjects() {
+        return maxProcessedObjects;
+    }
+
+    /**
+     * @return max number of built field objects, 0 means unbounded
+     */
+    public int getMaxBuiltObjects() {
+        return maxBuiltObjects;
+    }
+
+    /**
+     * @return max number of processors by context, 0 means unbounded
+     */
+    public int getMaxProcessorsByContext() {
+        return maxProcessorsByContext;
+    }
+
+    /**
+     * @return max number of builders by context, 0 means unbounded
+     */
+    public int getMaxBuildersByContext() {
+        return maxBuildersByContext;
+    }
+
+    /**
+     * @return max number of field filters by context, 0 means unbounded
+     */
+    public int getMaxFieldFilters() {
+        return maxFieldFilters;
+    }
+
+    /**
+     * @return config with values read from system properties
+     */
+    public static ProcessingCacheConfig createFromSystemProperties() {
+        ProcessingCacheConfigBuilder builder = new ProcessingCacheConfigBuilder();
+        builder.setMaxProcessedObjects(Integer.getInteger(MAX_PROCESSED_OBJECTS_PROPERTY_NAME, DEFAULT_MAX_ENTRIES));
+        builder.setMaxBuiltObjects(Integer.getInteger(MAX_BUILT_OBJECTS_PROPERTY_NAME, DEFAULT_MAX_ENTRIES));
+        builder.setMaxProcessorsByContext(Integer.getInteger(MAX_PROCESSORS_BY_CONTEXT_PROPERTY_NAME, DEFAULT_MAX_ENTRIES));
+        builder.setMaxBuildersByContext(Integer.getInteger(MAX_BUILDERS_BY_CONTEXT_PROPERTY_NAME, DEFAULT_MAX_ENTRIES));
+        builder.setMaxFieldFilters(Integer.getInteger(MAX_FIELD_FILTERS_PROPERTY_NAME, DEFAULT_MAX_ENTRIES));
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessingCacheConfig [maxProcessedObjects=" + maxProcessedObjects + ", maxBuiltObjects=" + maxBuiltObjects + ", maxProcessorsByContext=" + maxProcessorsByContext
+                + ", maxBuildersByContext=" + maxBuildersByContext + ", maxFieldFilters=" + maxFieldFilters + "]";
+    }
+
+    private static int checkMax(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return value;
+    }
+
+    /**
+     * Builder for ProcessingCacheConfig
+     * 
+     * @author kitko
+     *
+     */
+    public static final class ProcessingCacheConfigBuilder implements Builder<ProcessingCacheConfig> {
+        private int maxProcessedObjects = DEFAULT_MAX_ENTRIES;
+        private int maxBuiltObjects = DEFAULT_MAX_ENTRIES;
+        private int maxProcessorsByContext = DEFAULT_MAX_ENTRIES;
+        private int maxBuildersByContext = DEFAULT_MAX_ENTRIES;
+        private int maxFieldFilters = DEFAULT_MAX_ENTRIES;
+
+        /**
+         * @return max processed objects
+         */
+        public int getMaxProcessedObjects() {
+            return maxProcessedObjects;
+        }
+
+        /**
+         * @param maxProcessedObjects max number of processed objects, 0 means
+         *                            unbounded
+         * @return this
+         */
+        public ProcessingCacheConfigBuilder setMaxProcessedObjects(int maxProcessedObjects) {
+            this.maxProcessedObjects = checkMax(maxProcessedObjects, "MaxProcessedObjects");
+            return this;
+        }
+
+        /**
+         * @return max built objects
+         */
+        public int getMaxBuiltObjects() {
+            return maxBuiltObjects;
+        }
+
+        /**
+         * @param maxBuiltObjects max number of built field objects, 0 means
+         *                        unbounded
+         * @return this
+         */
+        public ProcessingCacheConfigBuilder setMaxBuiltObjects(int maxBuiltObjects) {
+            this.maxBuiltObjects = checkMax(maxBuiltObjects, "MaxBuiltObjects");
+            return this;
+        }
+
+        /**
+         * @return max processors by context
+         */
+        public int getMaxProcessorsByContext() {
+            return maxProcessorsByContext;
+        }
+
+        /**
+         * @param maxProcessorsByContext max number of processors by context, 0 means
+         *                               unbounded
+         * @return this
+         */
+        public ProcessingCacheConfigBuilder setMaxProcessorsByContext(int maxProcessorsByContext) {
+            this.maxProcessorsByContext = checkMax(maxProcessorsByContext, "MaxProcessorsByContext");
+            return this;
+        }
+
+        /**
+         * @return max builders by context
+         */
+        public int getMaxBuildersByContext() {
+            return maxBuildersByContext;
+        }
+
+        /**
+         * @param maxBuildersByContext max number of builders by context, 0 means
+         *                             unbounded
+         * @return this
+         */
+        public ProcessingCacheConfigBuilder setMaxBuildersByContext(int maxBuildersByContext) {
+            this.maxBuildersByContext = checkMax(maxBuildersByContext, "MaxBuildersByContext");
+            return this;
+        }
+
+        /**
+         * @return max field filters
+         */
+        public int getMaxFieldFilters() {
+            return maxFieldFilters;
+        }
+
+        /**
+         * @param maxFieldFilters max number of field filters by context, 0 means
+         *                        unbounded
+         * @return this
+         */
+        public ProcessingCacheConfigBuilder setMaxFieldFilters(int maxFieldFilters) {
+            this.maxFieldFilters = checkMax(maxFieldFilters, "MaxFieldFilters");
+            return this;
+        }
+
+        @Override
+        public ProcessingCacheConfig build() {
+            return new ProcessingCacheConfig(this);
+        }
+
+        @Override
+        public Class<? extends ProcessingCacheConfig> getTargetClass() {
+            return ProcessingCacheConfig.class;
+        }
+
+        @Override
+        public ProcessingCacheConfigBuilder setValues(ProcessingCacheConfig values) {
+            this.maxProcessedObjects = values.maxProcessedObjects;
+            this.maxBuiltObjects = values.maxBuiltObjects;
+            this.maxProcessorsByContext = values.maxProcessorsByContext;
+            this.maxBuildersByContext = values.maxBuildersByContext;
+            this.maxFieldFilters = values.maxFieldFilters;
+            return this;
+        }
+    }
+
+}
@@ -14,9 +14,10 @@
  */
 package org.vpda.common.processor.impl;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.EnumMap;
+import java.util.Map;
 
+import org.picocontainer.Disposable;
 import org.vpda.common.ioc.objectresolver.ObjectResolver;
 import org.vpda.common.processor.ClassProcessor;
 import org.vpda.common.processor.FieldBuilder;
@@ -24,35 +25,61 @@ import org.vpda.common.processor.ProcessingCache;
 import org.vpda.common.processor.ProcessingFieldFilter;
 import org.vpda.common.processor.ctx.ClassContext;
 import org.vpda.common.processor.ctx.FieldContext;
+import org.vpda.common.processor.ctx.ProcessingContext;
+import org.vpda.common.processor.impl.ProcessingCacheStatistics.Region;
+import org.vpda.internal.common.util.Assert;
 
 /**
  * Default implementation of {@link ProcessingCache} that stores processors and
- * generated objects in memory
+ * generated objects in memory. Regions keyed by contexts are size bounded with
+ * segmented LRU eviction, regions keyed by class are weakly bound to the key
+ * class, see {@link ProcessingCacheConfig}. Context keyed entries hold their
+ * classes strongly, so they are evicted when container holding the cache or
+ * eviction component of class loader is disposed, see
+ * {@link #createClassLoaderEviction(ClassLoader)}.
  * 
  * @author kitko
  *
  */
-public final class ProcessingCacheImpl implements ProcessingCache {
+public final class ProcessingCacheImpl implements ProcessingCache, Disposable {
 
-    private final ConcurrentMap<ClassContext<?>, Object> instanceCache;
-    private final ConcurrentMap<Class<? extends ClassProcessor>, ClassProcessor> processors;
-    private final ConcurrentMap<ClassContext<?>, ClassProcessor> processorsByContext;
-    private final ConcurrentMap<Class<? extends FieldBuilder>, FieldBuilder> builders;
-    private final ConcurrentMap<FieldContext<?>, FieldBuilder> buildersByContext;
-    private final ConcurrentMap<FieldContext<?>, Object> fieldValuesCache;
-    private final ConcurrentMap<ClassContext<?>, ProcessingFieldFilter> processingFieldFilters;
+    private final ProcessingCacheConfig config;
+    private final SegmentedLruRegion<ClassContext<?>, Object> instanceCache;
+    private final ClassKeyedRegion<ClassProcessor> processors;
+    private final SegmentedLruRegion<ClassContext<?>, ClassProcessor> processorsByContext;
+    private final ClassKeyedRegion<FieldBuilder> builders;
+    private final SegmentedLruRegion<FieldContext<?>, FieldBuilder> buildersByContext;
+    private final SegmentedLruRegion<FieldContext<?>, Object> fieldValuesCache;
+    private final SegmentedLruRegion<ClassContext<?>, ProcessingFieldFilter> processingFieldFilters;
 
     /**
-     * Creates cache
+     * Creates cache with limits read from system properties
      */
     public ProcessingCacheImpl() {
-        instanceCache = new ConcurrentHashMap<>();
-        processors = new ConcurrentHashMap<>();
-        builders = new ConcurrentHashMap<>();
-        fieldValuesCache = new ConcurrentHashMap<>();
-        processorsByContext = new ConcurrentHashMap<>();
-        buildersByContext = new ConcurrentHashMap<>();
-        processingFieldFilters = new ConcurrentHashMap<>();
+        this(ProcessingCacheConfig.createFromSystemProperties());
+    }
+
+    /**
+     * Creates cache with limits
+     * 
+     * @param config
+     */
+    public ProcessingCacheImpl(ProcessingCacheConfig config) {
+        this.config = Assert.isNotNullArgument(config, "config");
+        instanceCache = new SegmentedLruRegion<>(config.getMaxProcessedObjects());
+        processors = new ClassKeyedRegion<>();
+        builders = new ClassKeyedRegion<>();
+        fieldValuesCache = new SegmentedLruRegion<>(config.getMaxBuiltObjects());
+        processorsByContext = new SegmentedLruRegion<>(config.getMaxProcessorsByContext());
+        buildersByContext = new SegmentedLruRegion<>(config.getMaxBuildersByContext());
+        processingFieldFilters = new SegmentedLruRegion<>(config.getMaxFieldFilters());
+    }
+
+    /**
+     * @return the config
+     */
+    public ProcessingCacheConfig getConfig() {
+        return config;
     }
 
     @Override
@@ -92,11 +119,93 @@ public final class ProcessingCacheImpl implements ProcessingCache {
     public ProcessingCache clear() {
         this.instanceCache.clear();
         this.processors.clear();
+        this.processorsByContext.clear();
         this.builders.clear();
+        this.buildersByContext.clear();
         this.fieldValuesCache.clear();
+        this.processingFieldFilters.clear();
+        return this;
+    }
+
+    /**
+     * Removes all context keyed entries that reference class loaded by passed class
+     * loader or its descendant. Class keyed entries need no eviction, they are
+     * released together with their classes.
+     * 
+     * @param classLoader
+     * @return this
+     */
+    public ProcessingCacheImpl evictClassLoader(ClassLoader classLoader) {
+        Assert.isNotNullArgument(classLoader, "classLoader");
+        instanceCache.removeIf(c -> isLoadedBy(c, classLoader));
+        processorsByContext.removeIf(c -> isLoadedBy(c, classLoader));
+        buildersByContext.removeIf(c -> isLoadedBy(c, classLoader));
+        fieldValuesCache.removeIf(c -> isLoadedBy(c, classLoader));
+        processingFieldFilters.removeIf(c -> isLoadedBy(c, classLoader));
         return this;
     }
 
+    /**
+     * Creates component evicting entries of classes loaded by passed class
+     * loader when it is disposed. Register it in container of module loaded by
+     * that class loader, so module classes are released from cache when module
+     * container is disposed.
+     * 
+     * @param classLoader
+     * @return eviction component
+     */
+    public Disposable createClassLoaderEviction(ClassLoader classLoader) {
+        Assert.isNotNullArgument(classLoader, "classLoader");
+        return () -> evictClassLoader(classLoader);
+    }
+
+    /**
+     * Clears the cache when owning container is disposed
+     */
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    private static boolean isLoadedBy(ProcessingContext<?> ctx, ClassLoader classLoader) {
+        for (ProcessingContext<?> c = ctx; c != null; c = c.getParent()) {
+            if (isLoadedBy(c.getTargetClass(), classLoader)) {
+                return true;
+            }
+            if (c instanceof ClassContext && isLoadedBy(((ClassContext<?>) c).getProcessedClass(), classLoader)) {
+                return true;
+            }
+            if (c instanceof FieldContext && isLoadedBy(((FieldContext<?>) c).getField().getDeclaringClass(), classLoader)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLoadedBy(Class<?> clazz, ClassLoader classLoader) {
+        for (ClassLoader cl = clazz.getClassLoader(); cl != null; cl = cl.getParent()) {
+            if (cl == classLoader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return snapshot of cache counters
+     */
+    public ProcessingCacheStatistics getStatistics() {
+        Map<Region, ProcessingCacheStatistics.RegionStatistics> regions = new EnumMap<>(Region.class);
+        regions.put(Region.PROCESSED_OBJECTS, instanceCache.getStatistics());
+        regions.put(Region.BUILT_OBJECTS, fieldValuesCache.getStatistics());
+        regions.put(Region.PROCESSORS_BY_CLASS, processors.getStatistics());
+        regions.put(Region.PROCESSORS_BY_CONTEXT, processorsByContext.getStatistics());
+        regions.put(Region.BUILDERS_BY_CLASS, builders.getStatistics());
+        regions.put(Region.BUILDERS_BY_CONTEXT, buildersByContext.getStatistics());
+        regions.put(Region.FIELD_FILTERS, processingFieldFilters.getStatistics());
+        return new ProcessingCacheStatistics(regions);
+    }
+
     @Override
     public <T> ProcessingCache putBuiltObject(FieldContext<T> fieldContext, T o, ObjectResolver context) {
         fieldValuesCache.putIfAbsent(fieldContext, o);
@@ -0,0 +1,179 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.processor.impl;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Snapshot of {@link ProcessingCacheImpl} counters per region
+ * 
+ * @author kitko
+ *
+ */
+public final class ProcessingCacheStatistics implements Serializable {
+    private static final long serialVersionUID = 6254093347216498320L;
+
+    /**
+     * Regions of processing cache
+     * 
+     * @author kitko
+     *
+     */
+    public enum Region {
+        /** Processed objects by class context */
+        PROCESSED_OBJECTS,
+        /** Built objects by field context */
+        BUILT_OBJECTS,
+        /** Processors by processor class */
+        PROCESSORS_BY_CLASS,
+        /** Processors by class context */
+        PROCESSORS_BY_CONTEXT,
+        /** Builders by builder class */
+        BUILDERS_BY_CLASS,
+        /** Builders by field context */
+        BUILDERS_BY_CONTEXT,
+        /** Field filters by class context */
+        FIELD_FILTERS
+    }
+
+    private final Map<Region, RegionStatistics> regions;
+
+    /**
+     * Creates statistics
+     * 
+     * @param regions
+     */
+    public ProcessingCacheStatistics(Map<Region, RegionStatistics> regions) {
+        this.regions = Collections.unmodifiableMap(new EnumMap<>(regions));
+    }
+
+    /**
+     * @param region
+     * @return statistics of region
+     */
+    public RegionStatistics getRegion(Region region) {
+        return regions.get(region);
+    }
+
+    /**
+     * @return statistics of all regions
+     */
+    public Map<Region, RegionStatistics> getRegions() {
+        return regions;
+    }
+
+    /**
+     * @return hit rate over all regions
+     */
+    public double getHitRate() {
+        long hits = 0;
+        long misses = 0;
+        for (RegionStatistics r : regions.values()) {
+            hits += r.getHits();
+            misses += r.getMisses();
+        }
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessingCacheStatistics [regions=" + regions + "]";
+    }
+
+    /**
+     * Counters of one region
+     * 
+     * @author kitko
+     *
+     */
+    public static final class RegionStatistics implements Serializable {
+        private static final long serialVersionUID = -4316920675829410561L;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+        private final int maxSize;
+
+        /**
+         * Creates region statistics
+         * 
+         * @param hits
+         * @param misses
+         * @param evictions
+         * @param size
+         * @param maxSize
+         */
+        public RegionStatistics(long hits, long misses, long evictions, int size, int maxSize) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * @return number of lookups that found value
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * @return number of lookups that did not find value
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return number of entries removed because region exceeded max size
+         */
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return number of entries, -1 when not tracked for class keyed region
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return max number of entries, 0 means unbounded
+         */
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * @return hits / (hits + misses) or 0 when there was no lookup
+         */
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "RegionStatistics [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size + ", maxSize=" + maxSize + "]";
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.processor.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.vpda.common.ioc.objectresolver.ObjectResolver;
+import org.vpda.common.ioc.objectresolver.SingleObjectResolver;
+import org.vpda.common.processor.annotation.ProcessingInfo;
+import org.vpda.common.processor.annotation.eval.ProcessingContextEvalAnn;
+import org.vpda.common.processor.ctx.ClassItemContext;
+import org.vpda.common.processor.ctx.FieldContext;
+import org.vpda.internal.common.util.ClassMetadata;
+
+/**
+ * Precompiled plan for processing annotated fields of one class. Plan holds
+ * ordered fields and the annotation resolved for each field, so repeated
+ * processing of the same class does not scan class hierarchy nor evaluate
+ * annotations again. Plans are cached per processed class, target item class,
+ * groups and annotation classes.
+ * 
+ * Field filters and builders are not part of the plan, they depend on
+ * processing resolver and context and are resolved per call.
+ * 
+ * @author kitko
+ *
+ */
+final class ProcessingPlan {
+
+    private static final ClassValue<ConcurrentMap<Key, ProcessingPlan>> PLANS = new ClassValue<ConcurrentMap<Key, ProcessingPlan>>() {
+        @Override
+        protected ConcurrentMap<Key, ProcessingPlan> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    private final List<FieldPlan> fields;
+
+    private ProcessingPlan(List<FieldPlan> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @return ordered field plans
+     */
+    List<FieldPlan> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets or compiles plan for item context
+     * 
+     * @param itemContext
+     * @param context
+     * @param annClasses
+     * @return processing plan
+     */
+    static ProcessingPlan getPlan(ClassItemContext<?> itemContext, ObjectResolver context, List<Class<? extends Annotation>> annClasses) {
+        ConcurrentMap<Key, ProcessingPlan> plans = PLANS.get(itemContext.getProcessedClass());
+        Key key = new Key(itemContext.getTargetItemClass(), itemContext.getGroups(), annClasses);
+        ProcessingPlan plan = plans.get(key);
+        if (plan == null) {
+            plan = compile(itemContext, context, annClasses);
+            ProcessingPlan old = plans.putIfAbsent(key, plan);
+            if (old != null) {
+                plan = old;
+            }
+        }
+        return plan;
+    }
+
+    private static ProcessingPlan compile(ClassItemContext<?> itemContext, ObjectResolver context, List<Class<? extends Annotation>> annClasses) {
+        Class<?> processedClass = itemContext.getProcessedClass();
+        ProcessingInfo processingInfo = processedClass.getAnnotation(ProcessingInfo.class);
+        List<Field> classFields = null;
+        if (processingInfo != null && !processingInfo.processSuper()) {
+            classFields = ClassMetadata.forClass(processedClass).getDeclaredFields();
+        }
+        else {
+            classFields = ClassMetadata.forClass(processedClass).getDeclaredAndInheritedFields();
+        }
+        List<FieldPlan> fieldPlans = new ArrayList<FieldPlan>(classFields.size());
+        for (Field field : classFields) {
+            // Annotation evaluation depends only on field, groups and target class
+            FieldContext<?> fieldContext = FieldContext.createFieldContext(itemContext, field, itemContext.getTargetItemClass());
+            List<ObjectResolver> annotationResolvers = null;
+            for (Class<? extends Annotation> annClazz : annClasses) {
+                Annotation annotation = ProcessingContextEvalAnn.evalAnnotation(annClazz, context, fieldContext);
+                if (annotation == null) {
+                    annotation = ProcessingContextEvalAnn.evalAnnotation(field.getType(), annClazz, context, fieldContext);
+                }
+                if (annotation != null) {
+                    if (annotationResolvers == null) {
+                        annotationResolvers = new ArrayList<ObjectResolver>(annClasses.size());
+                    }
+                    annotationResolvers.add(new SingleObjectResolver<Annotation>(Annotation.class, annotation));
+                }
+            }
+            fieldPlans.add(new FieldPlan(field, annotationResolvers != null ? Collections.unmodifiableList(annotationResolvers) : Collections.<ObjectResolver>emptyList()));
+        }
+        return new ProcessingPlan(Collections.unmodifiableList(fieldPlans));
+    }
+
+    /**
+     * Plan for single field
+     * 
+     * @author kitko
+     *
+     */
+    static final class FieldPlan {
+        private final Field field;
+        private final List<ObjectResolver> annotationResolvers;
+
+        FieldPlan(Field field, List<ObjectResolver> annotationResolvers) {
+            this.field = field;
+            this.annotationResolvers = annotationResolvers;
+        }
+
+        /**
+         * @return the field
+         */
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * @return resolvers of annotations resolved on field or field type in order of
+         *         annotation classes, empty list if none
+         */
+        List<ObjectResolver> getAnnotationResolvers() {
+            return annotationResolvers;
+        }
+    }
+
+    private static final class Key {
+        private final Class<?> targetItemClass;
+        private final Class<?>[] groups;
+        private final List<Class<? extends Annotation>> annClasses;
+        private final int hash;
+
+        Key(Class<?> targetItemClass, Class<?>[] groups, List<Class<? extends Annotation>> annClasses) {
+            this.targetItemClass = targetItemClass;
+            this.groups = groups.clone();
+            this.annClasses = new ArrayList<Class<? extends Annotation>>(annClasses);
+            this.hash = 31 * (31 * targetItemClass.hashCode() + Arrays.hashCode(this.groups)) + this.annClasses.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash && targetItemClass.equals(other.targetItemClass) && Arrays.equals(groups, other.groups) && annClasses.equals(other.annClasses);
+        }
+    }
+
+}
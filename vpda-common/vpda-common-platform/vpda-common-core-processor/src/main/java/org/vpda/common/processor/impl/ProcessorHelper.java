@@ -18,7 +18,6 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -39,7 +38,7 @@ import org.vpda.common.processor.annotation.eval.ProcessingContextEvalAnn;
 import org.vpda.common.processor.ctx.ClassContext;
 import org.vpda.common.processor.ctx.ClassItemContext;
 import org.vpda.common.processor.ctx.FieldContext;
-import org.vpda.internal.common.util.ClassUtil;
+import org.vpda.internal.common.util.ClassMetadata;
 
 /**
  * Helper class for class processing
@@ -117,34 +116,18 @@ public final class ProcessorHelper {
      * @return list of built objects
      */
     public static <T> List<T> processAnnotatedFields(ClassItemContext<T> itemContext, ProcessorResolver processorResolver, ObjectResolver context, List<Class<? extends Annotation>> annClasses) {
-        ProcessingInfo processingInfo = itemContext.getProcessedClass().getAnnotation(ProcessingInfo.class);
-        List<Field> fields = null;
-        if (processingInfo != null && !processingInfo.processSuper()) {
-            fields = Arrays.asList(itemContext.getProcessedClass().getDeclaredFields());
-        }
-        else {
-            fields = ClassUtil.getDeclaredAndInheritedFields(itemContext.getProcessedClass());
-        }
+        ProcessingPlan plan = ProcessingPlan.getPlan(itemContext, context, annClasses);
         List<T> objects = new ArrayList<T>();
         ProcessingFieldFilter processingFieldFilter = processorResolver.createFieldFilter(itemContext, context);
-        for (Field field : fields) {
+        for (ProcessingPlan.FieldPlan fieldPlan : plan.getFields()) {
+            Field field = fieldPlan.getField();
             if (!processingFieldFilter.accept(itemContext, field, context)) {
                 continue;
             }
             FieldBuilder<T> builder = null;
             FieldContext<T> fieldContext = FieldContext.createFieldContext(itemContext, field, itemContext.getTargetItemClass());
-            for (Class<? extends Annotation> annClazz : annClasses) {
-                Annotation a = ProcessingContextEvalAnn.evalAnnotation(annClazz, context, fieldContext);
-                if (a != null) {
-                    builder = processorResolver.resolveTargetFieldBuilder(fieldContext, new MacroObjectResolverImpl(new SingleObjectResolver<Annotation>(Annotation.class, a), context));
-                }
-                else {
-                    a = ProcessingContextEvalAnn.evalAnnotation(field.getType(), annClazz, context, fieldContext);
-                    if (a != null) {
-                        builder = processorResolver.resolveTargetFieldBuilder(fieldContext, new MacroObjectResolverImpl(new SingleObjectResolver<Annotation>(Annotation.class, a), context));
-
-                    }
-                }
+            for (ObjectResolver annotationResolver : fieldPlan.getAnnotationResolvers()) {
+                builder = processorResolver.resolveTargetFieldBuilder(fieldContext, new MacroObjectResolverImpl(annotationResolver, context));
                 if (builder != null) {
                     break;
                 }
@@ -175,10 +158,10 @@ public final class ProcessorHelper {
         ProcessingInfo processingInfo = ProcessingInfoHelper.resolveActiveProcessingInfo(classContext, context);
         List<Class<?>> classes = null;
         if (processingInfo != null && !processingInfo.processSuper()) {
-            classes = Arrays.asList(classContext.getProcessedClass().getDeclaredClasses());
+            classes = ClassMetadata.forClass(classContext.getProcessedClass()).getDeclaredClasses();
         }
         else {
-            classes = ClassUtil.getDeclaredAndInheritedClasses(classContext.getProcessedClass());
+            classes = ClassMetadata.forClass(classContext.getProcessedClass()).getDeclaredAndInheritedClasses();
         }
         List<Class<?>> result = new ArrayList<Class<?>>();
         for (Class<?> i : classes) {
@@ -201,10 +184,10 @@ public final class ProcessorHelper {
         ProcessingInfo processingInfo = ProcessingInfoHelper.resolveActiveProcessingInfo(classContext, context);
         List<Field> fields = null;
         if (processingInfo != null && !processingInfo.processSuper()) {
-            fields = Arrays.asList(classContext.getProcessedClass().getDeclaredFields());
+            fields = ClassMetadata.forClass(classContext.getProcessedClass()).getDeclaredFields();
         }
         else {
-            fields = ClassUtil.getDeclaredAndInheritedFields(classContext.getProcessedClass());
+            fields = ClassMetadata.forClass(classContext.getProcessedClass()).getDeclaredAndInheritedFields();
         }
         List<Field> result = new ArrayList<Field>();
         for (Field i : fields) {
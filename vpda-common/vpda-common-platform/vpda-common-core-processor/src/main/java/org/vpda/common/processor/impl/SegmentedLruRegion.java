@@ -0,0 +1,224 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.processor.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Size bounded cache region with segmented LRU eviction. Entries are read from
+ * {@link ConcurrentHashMap} without locking, read only marks entry as
+ * accessed. Writes are spread over lock striped segments, every segment keeps
+ * probation and protected queues. New entries go to probation, entries
+ * accessed while in probation are promoted to protected when they reach its
+ * head, so one time keys are evicted before frequently used ones. Keys are
+ * held strongly, entries referencing unloaded classes must be removed by
+ * {@link #removeIf(Predicate)}.
+ * 
+ * @author kitko
+ *
+ * @param <K>
+ * @param <V>
+ */
+final class SegmentedLruRegion<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates region
+     * 
+     * @param maxSize max number of entries, 0 means unbounded
+     */
+    @SuppressWarnings("unchecked")
+    SegmentedLruRegion(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("MaxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+        this.map = new ConcurrentHashMap<>();
+        int count = 1;
+        while (count < MAX_SEGMENTS && (maxSize == 0 || maxSize / (count * 2) >= MIN_SEGMENT_SIZE)) {
+            count <<= 1;
+        }
+        int segmentSize = maxSize == 0 ? Integer.MAX_VALUE : (maxSize + count - 1) / count;
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>(map, segmentSize);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    private Segment<K, V> segmentFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & segmentMask];
+    }
+
+    V get(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (!node.accessed) {
+            node.accessed = true;
+        }
+        hits.increment();
+        return node.value;
+    }
+
+    void put(K key, V value) {
+        evictions.add(segmentFor(key).put(key, value, false));
+    }
+
+    void putIfAbsent(K key, V value) {
+        evictions.add(segmentFor(key).put(key, value, true));
+    }
+
+    void removeIf(Predicate<? super K> predicate) {
+        for (Segment<K, V> s : segments) {
+            s.removeIf(predicate);
+        }
+    }
+
+    void clear() {
+        for (Segment<K, V> s : segments) {
+            s.clear();
+        }
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    ProcessingCacheStatistics.RegionStatistics getStatistics() {
+        return new ProcessingCacheStatistics.RegionStatistics(hits.sum(), misses.sum(), evictions.sum(), size(), maxSize);
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private volatile boolean accessed;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final ConcurrentHashMap<K, Node<K, V>> map;
+        private final int maxSize;
+        private final int maxProtectedSize;
+        private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<K, Node<K, V>> protectedMap = new LinkedHashMap<>();
+
+        Segment(ConcurrentHashMap<K, Node<K, V>> map, int maxSize) {
+            this.map = map;
+            this.maxSize = maxSize;
+            this.maxProtectedSize = maxSize == Integer.MAX_VALUE ? maxSize : Math.max(1, (int) ((long) maxSize * PROTECTED_PERCENT / 100));
+        }
+
+        /**
+         * @return number of evicted entries
+         */
+        synchronized int put(K key, V value, boolean onlyIfAbsent) {
+            Node<K, V> node = map.get(key);
+            if (node != null) {
+                if (!onlyIfAbsent) {
+                    node.value = value;
+                }
+                return 0;
+            }
+            node = new Node<>(key, value);
+            map.put(key, node);
+            probation.put(key, node);
+            return evict();
+        }
+
+        private int evict() {
+            int evicted = 0;
+            int chances = probation.size() + protectedMap.size();
+            while (probation.size() + protectedMap.size() > maxSize) {
+                if (probation.isEmpty()) {
+                    demote();
+                    continue;
+                }
+                Iterator<Node<K, V>> it = probation.values().iterator();
+                Node<K, V> eldest = it.next();
+                it.remove();
+                if (eldest.accessed && chances-- > 0) {
+                    eldest.accessed = false;
+                    protectedMap.put(eldest.key, eldest);
+                    if (protectedMap.size() > maxProtectedSize) {
+                        demote();
+                    }
+                }
+                else {
+                    map.remove(eldest.key, eldest);
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        private void demote() {
+            Iterator<Node<K, V>> it = protectedMap.values().iterator();
+            Node<K, V> eldest = it.next();
+            it.remove();
+            probation.put(eldest.key, eldest);
+        }
+
+        synchronized void removeIf(Predicate<? super K> predicate) {
+            removeIf(probation, predicate);
+            removeIf(protectedMap, predicate);
+        }
+
+        private void removeIf(LinkedHashMap<K, Node<K, V>> queue, Predicate<? super K> predicate) {
+            for (Iterator<Map.Entry<K, Node<K, V>>> it = queue.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<K, Node<K, V>> e = it.next();
+                if (predicate.test(e.getKey())) {
+                    it.remove();
+                    map.remove(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        synchronized void clear() {
+            for (Node<K, V> node : probation.values()) {
+                map.remove(node.key, node);
+            }
+            for (Node<K, V> node : protectedMap.values()) {
+                map.remove(node.key, node);
+            }
+            probation.clear();
+            protectedMap.clear();
+        }
+    }
+
+}
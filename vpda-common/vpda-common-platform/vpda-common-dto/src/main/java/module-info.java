@@ -14,6 +14,7 @@ open module org.vpda.common.dto {
     exports org.vpda.common.dto;
     exports org.vpda.common.dto.abstracttypes;
     exports org.vpda.common.dto.annotations;
+    exports org.vpda.common.dto.codec;
     exports org.vpda.common.dto.factory;
     exports org.vpda.common.dto.model;
     exports org.vpda.common.dto.model.gen;
@@ -23,6 +24,7 @@ open module org.vpda.common.dto {
     exports org.vpda.common.dto.runtime.impl;
     exports org.vpda.common.dto.runtime.spi;
     exports org.vpda.common.dto.runtime.spi.impl;
+    exports org.vpda.common.dto.tracking;
 
     uses org.vpda.common.dto.runtime.spi.DTORuntimeProvider;
 
@@ -14,69 +14,204 @@
  */
 package org.vpda.common.dto;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Path of property. Paths built by model using {@link #createRoot(String)} and
+ * {@link #createChild(String)} are interned, so they return same instance for
+ * same path. {@link #parse(String)} and deserialization only look up interned
+ * paths and never add new ones. Hash code, full id and path list are computed
+ * once.
+ */
 public final class PropertyPath implements Serializable {
     private static final long serialVersionUID = -1821241671227598826L;
+    private static final ConcurrentMap<String, PropertyPath> ROOTS = new ConcurrentHashMap<>();
+
     private final String localId;
     private final PropertyPath parent;
+    private transient int hash;
+    private transient int depth;
+    private transient volatile String fullId;
+    private transient volatile List<String> path;
+    private transient volatile ConcurrentMap<String, PropertyPath> children;
 
     private PropertyPath(PropertyPath parent, String localId) {
         this.localId = localId;
         this.parent = parent;
+        init();
+    }
+
+    private void init() {
+        int parentHash = parent == null ? 0 : parent.hash;
+        this.hash = 31 * (31 + (localId == null ? 0 : localId.hashCode())) + parentHash;
+        this.depth = parent == null ? 1 : parent.depth + 1;
     }
 
     public List<String> getPath() {
-        if (parent == null) {
-            return Collections.singletonList(localId);
-        }
-        PropertyPath p = this;
-        LinkedList<String> path = new LinkedList<>();
-        while (p != null) {
-            path.addFirst(p.localId);
-            p = p.parent;
+        List<String> result = path;
+        if (result == null) {
+            String[] ids = new String[depth];
+            PropertyPath p = this;
+            for (int i = depth - 1; i >= 0; i--) {
+                ids[i] = p.localId;
+                p = p.parent;
+            }
+            result = Collections.unmodifiableList(Arrays.asList(ids));
+            path = result;
         }
-        return path;
+        return result;
     }
 
     public String getLocalId() {
         return localId;
     }
 
+    /**
+     * @return number of path elements, root path has depth 1
+     */
+    public int getDepth() {
+        return depth;
+    }
+
     public String getFullId() {
-        return getFullId('.');
+        String result = fullId;
+        if (result == null) {
+            result = parent == null ? localId : buildFullId('.');
+            fullId = result;
+        }
+        return result;
     }
 
     public String getFullId(char separator) {
-        if (parent == null) {
-            return localId;
+        if (separator == '.' || parent == null) {
+            return getFullId();
         }
-        PropertyPath p = this;
+        return buildFullId(separator);
+    }
+
+    private String buildFullId(char separator) {
         StringBuilder builder = new StringBuilder();
-        while (p != null) {
+        for (String id : getPath()) {
             if (builder.length() > 0) {
-                builder.insert(0, separator);
+                builder.append(separator);
             }
-            builder.insert(0, p.localId);
-            p = p.parent;
+            builder.append(id);
         }
         return builder.toString();
-
     }
 
     public PropertyPath getParent() {
         return parent;
     }
 
+    /**
+     * Creates interned child path. Intended for model building, use
+     * {@link #parse(String)} for paths from other sources.
+     * 
+     * @param localId
+     * @return interned child path
+     */
     public PropertyPath createChild(String localId) {
-        return new PropertyPath(this, localId);
+        if (localId == null) {
+            return new PropertyPath(this, null);
+        }
+        ConcurrentMap<String, PropertyPath> map = children;
+        if (map == null) {
+            synchronized (this) {
+                map = children;
+                if (map == null) {
+                    map = new ConcurrentHashMap<>(4);
+                    children = map;
+                }
+            }
+        }
+        PropertyPath child = map.get(localId);
+        if (child == null) {
+            child = new PropertyPath(this, localId);
+            PropertyPath old = map.putIfAbsent(localId, child);
+            if (old != null) {
+                child = old;
+            }
+        }
+        return child;
     }
 
+    /**
+     * Creates interned root path. Intended for model building, use
+     * {@link #parse(String)} for paths from other sources.
+     * 
+     * @param localId
+     * @return interned root path
+     */
     public static PropertyPath createRoot(String localId) {
-        return new PropertyPath(null, localId);
+        if (localId == null) {
+            return new PropertyPath(null, null);
+        }
+        PropertyPath root = ROOTS.get(localId);
+        if (root == null) {
+            root = new PropertyPath(null, localId);
+            PropertyPath old = ROOTS.putIfAbsent(localId, root);
+            if (old != null) {
+                root = old;
+            }
+        }
+        return root;
+    }
+
+    private PropertyPath findChild(String localId) {
+        ConcurrentMap<String, PropertyPath> map = children;
+        return map != null ? map.get(localId) : null;
+    }
+
+    private static PropertyPath findInterned(PropertyPath parent, String localId) {
+        if (localId == null) {
+            return null;
+        }
+        return parent == null ? ROOTS.get(localId) : parent.findChild(localId);
+    }
+
+    private static PropertyPath find(PropertyPath parent, String localId) {
+        PropertyPath path = findInterned(parent, localId);
+        return path != null ? path : new PropertyPath(parent, localId);
+    }
+
+    /**
+     * Creates path from full id. Returns interned path if model created it,
+     * otherwise new not interned path, so parsing cannot grow intern tables.
+     * 
+     * @param fullId path elements separated by dot
+     * @return path
+     */
+    public static PropertyPath parse(String fullId) {
+        PropertyPath result = null;
+        int start = 0;
+        while (true) {
+            int end = fullId.indexOf('.', start);
+            String id = end < 0 ? fullId.substring(start) : fullId.substring(start, end);
+            result = find(result, id);
+            if (end < 0) {
+                return result;
+            }
+            start = end + 1;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        PropertyPath interned = findInterned(parent, localId);
+        return interned != null ? interned : this;
     }
 
     @Override
@@ -86,11 +221,7 @@ public final class PropertyPath implements Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((localId == null) ? 0 : localId.hashCode());
-        result = prime * result + ((parent == null) ? 0 : parent.hashCode());
-        return result;
+        return hash;
     }
 
     @Override
@@ -104,22 +235,20 @@ public final class PropertyPath implements Serializable {
         if (getClass() != obj.getClass()) {
             return false;
         }
-        PropertyPath other = (PropertyPath) obj;
-        if (localId == null) {
-            if (other.localId != null) {
-                return false;
-            }
-        }
-        else if (!localId.equals(other.localId)) {
+        PropertyPath p1 = this;
+        PropertyPath p2 = (PropertyPath) obj;
+        if (p1.hash != p2.hash || p1.depth != p2.depth) {
             return false;
         }
-        if (parent == null) {
-            if (other.parent != null) {
+        while (p1 != null) {
+            if (p1 == p2) {
+                return true;
+            }
+            if (p1.localId == null ? p2.localId != null : !p1.localId.equals(p2.localId)) {
                 return false;
             }
-        }
-        else if (!parent.equals(other.parent)) {
-            return false;
+            p1 = p1.parent;
+            p2 = p2.parent;
         }
         return true;
     }
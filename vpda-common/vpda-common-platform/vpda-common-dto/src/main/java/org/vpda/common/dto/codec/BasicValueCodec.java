@@ -0,0 +1,293 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Codecs of basic DTO types. Ordinal of constant is used as type tag in
+ * tagged values, so new constants must be added at the end.
+ * 
+ * @author kitko
+ *
+ */
+enum BasicValueCodec implements ValueCodec {
+    STRING(String.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeString((String) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return in.readString();
+        }
+    },
+    LONG(Long.class, long.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong((Long) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return in.readZigZagLong();
+        }
+    },
+    INTEGER(Integer.class, int.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong((Integer) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return (int) in.readZigZagLong();
+        }
+    },
+    SHORT(Short.class, short.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong((Short) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return (short) in.readZigZagLong();
+        }
+    },
+    BYTE(Byte.class, byte.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeByte((Byte) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return (byte) in.readByte();
+        }
+    },
+    BOOLEAN(Boolean.class, boolean.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeByte((Boolean) value ? 1 : 0);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return in.readByte() != 0;
+        }
+    },
+    CHARACTER(Character.class, char.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeVarInt((Character) value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return (char) in.readVarInt();
+        }
+    },
+    DOUBLE(Double.class, double.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeFixedLong(Double.doubleToRawLongBits((Double) value));
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return Double.longBitsToDouble(in.readFixedLong());
+        }
+    },
+    FLOAT(Float.class, float.class) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeVarInt(Float.floatToRawIntBits((Float) value));
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return Float.intBitsToFloat(in.readVarInt());
+        }
+    },
+    BIG_DECIMAL(BigDecimal.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            BigDecimal decimal = (BigDecimal) value;
+            out.writeZigZagLong(decimal.scale());
+            BigInteger unscaled = decimal.unscaledValue();
+            if (unscaled.bitLength() < 63) {
+                out.writeByte(0);
+                out.writeZigZagLong(unscaled.longValue());
+            }
+            else {
+                out.writeByte(1);
+                out.writeBytes(unscaled.toByteArray());
+            }
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            int scale = (int) in.readZigZagLong();
+            BigInteger unscaled = in.readByte() == 0 ? BigInteger.valueOf(in.readZigZagLong()) : new BigInteger(in.readBytes());
+            return new BigDecimal(unscaled, scale);
+        }
+    },
+    UUID_VALUE(UUID.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeFixedLong(((UUID) value).getMostSignificantBits());
+            out.writeFixedLong(((UUID) value).getLeastSignificantBits());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return new UUID(in.readFixedLong(), in.readFixedLong());
+        }
+    },
+    DATE(Date.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((Date) value).getTime());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return new Date(in.readZigZagLong());
+        }
+    },
+    SQL_DATE(java.sql.Date.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((java.sql.Date) value).getTime());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return new java.sql.Date(in.readZigZagLong());
+        }
+    },
+    TIMESTAMP(Timestamp.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((Timestamp) value).getTime());
+            out.writeVarInt(((Timestamp) value).getNanos());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            Timestamp timestamp = new Timestamp(in.readZigZagLong());
+            timestamp.setNanos(in.readVarInt());
+            return timestamp;
+        }
+    },
+    LOCAL_DATE(LocalDate.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((LocalDate) value).toEpochDay());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return LocalDate.ofEpochDay(in.readZigZagLong());
+        }
+    },
+    LOCAL_DATE_TIME(LocalDateTime.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((LocalDateTime) value).toEpochSecond(ZoneOffset.UTC));
+            out.writeVarInt(((LocalDateTime) value).getNano());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return LocalDateTime.ofEpochSecond(in.readZigZagLong(), in.readVarInt(), ZoneOffset.UTC);
+        }
+    },
+    INSTANT(Instant.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeZigZagLong(((Instant) value).getEpochSecond());
+            out.writeVarInt(((Instant) value).getNano());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return Instant.ofEpochSecond(in.readZigZagLong(), in.readVarInt());
+        }
+    },
+    LOCALE(Locale.class, null) {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeString(((Locale) value).getLanguage());
+            out.writeString(((Locale) value).getCountry());
+            out.writeString(((Locale) value).getVariant());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return new Locale(in.readString(), in.readString(), in.readString());
+        }
+    };
+
+    private static final BasicValueCodec[] BY_TAG = values();
+    private static final Map<Class<?>, BasicValueCodec> BY_CLASS = new HashMap<>();
+
+    static {
+        for (BasicValueCodec codec : BY_TAG) {
+            BY_CLASS.put(codec.type, codec);
+            if (codec.primitiveType != null) {
+                BY_CLASS.put(codec.primitiveType, codec);
+            }
+        }
+    }
+
+    private final Class<?> type;
+    private final Class<?> primitiveType;
+
+    private BasicValueCodec(Class<?> type, Class<?> primitiveType) {
+        this.type = type;
+        this.primitiveType = primitiveType;
+    }
+
+    /**
+     * @param type
+     * @return codec for exactly this type or null
+     */
+    static BasicValueCodec forClass(Class<?> type) {
+        return BY_CLASS.get(type);
+    }
+
+    /**
+     * @param tag
+     * @return codec for tag or null
+     */
+    static BasicValueCodec forTag(int tag) {
+        return tag >= 0 && tag < BY_TAG.length ? BY_TAG[tag] : null;
+    }
+}
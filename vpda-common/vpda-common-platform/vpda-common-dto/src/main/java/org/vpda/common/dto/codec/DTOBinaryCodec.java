@@ -0,0 +1,171 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.vpda.common.dto.model.DTOMetaModel;
+import org.vpda.common.dto.model.ManagedType;
+import org.vpda.common.dto.model.ValueManagedType;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Binary codec of DTOs driven by {@link DTOMetaModel}. Attributes of managed
+ * types are written positionally with null bitmap, numbers as varints,
+ * strings and classes through per stream dictionary and repeated DTO
+ * instances as handles. {@link org.vpda.common.dto.tracking.DTODelta}s have
+ * compact form too. Values outside of model are written using java
+ * serialization. Writer and reader must use same model.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTOBinaryCodec {
+
+    private final ClassLoader classLoader;
+    private final Map<String, ManagedType<?>> managedTypes;
+    private final ConcurrentMap<Class<?>, Optional<TypeSchema>> schemas;
+
+    /**
+     * Creates codec using thread context class loader
+     * 
+     * @param model
+     */
+    public DTOBinaryCodec(DTOMetaModel model) {
+        this(model, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * @param model
+     * @param classLoader loader used to resolve non DTO classes while reading
+     */
+    public DTOBinaryCodec(DTOMetaModel model, ClassLoader classLoader) {
+        Assert.isNotNullArgument(model, "model");
+        this.classLoader = classLoader != null ? classLoader : DTOBinaryCodec.class.getClassLoader();
+        this.managedTypes = new HashMap<>();
+        for (ManagedType<?> type : model.getManagedTypes()) {
+            if (!(type instanceof ValueManagedType)) {
+                managedTypes.put(type.getJavaType().getName(), type);
+            }
+        }
+        this.schemas = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param out
+     * @return new writer to stream
+     * @throws IOException
+     */
+    public DTOBinaryWriter newWriter(OutputStream out) throws IOException {
+        return new DTOBinaryWriter(this, Assert.isNotNullArgument(out, "out"));
+    }
+
+    /**
+     * @param in
+     * @return new reader from stream
+     * @throws IOException
+     */
+    public DTOBinaryReader newReader(InputStream in) throws IOException {
+        return new DTOBinaryReader(this, Assert.isNotNullArgument(in, "in"));
+    }
+
+    /**
+     * Writes all values to stream and closes it
+     * 
+     * @param values
+     * @param out
+     * @throws IOException
+     */
+    public void writeAll(Collection<?> values, OutputStream out) throws IOException {
+        try (DTOBinaryWriter writer = newWriter(out)) {
+            writer.writeAll(values);
+        }
+    }
+
+    /**
+     * Reads all values from stream and closes it
+     * 
+     * @param <T>
+     * @param type
+     * @param in
+     * @return values
+     * @throws IOException
+     */
+    public <T> List<T> readAll(Class<T> type, InputStream in) throws IOException {
+        try (DTOBinaryReader reader = newReader(in)) {
+            return reader.readAll(type);
+        }
+    }
+
+    /**
+     * @param values
+     * @return encoded values
+     * @throws IOException
+     */
+    public byte[] encode(Collection<?> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeAll(values, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * @param <T>
+     * @param type
+     * @param bytes
+     * @return decoded values
+     * @throws IOException
+     */
+    public <T> List<T> decode(Class<T> type, byte[] bytes) throws IOException {
+        return readAll(type, new ByteArrayInputStream(bytes));
+    }
+
+    ClassLoader getClassLoader() {
+        return classLoader;
+    }
+
+    /**
+     * @param type
+     * @return schema of managed type or null if type is not managed
+     */
+    TypeSchema getSchema(Class<?> type) {
+        Optional<TypeSchema> schema = schemas.get(type);
+        if (schema == null) {
+            ManagedType<?> managedType = managedTypes.get(type.getName());
+            schema = managedType != null && managedType.getJavaType() == type ? Optional.of(new TypeSchema(managedType)) : Optional.empty();
+            Optional<TypeSchema> old = schemas.putIfAbsent(type, schema);
+            if (old != null) {
+                schema = old;
+            }
+        }
+        return schema.orElse(null);
+    }
+
+    TypeSchema getSchema(String className) {
+        ManagedType<?> managedType = managedTypes.get(className);
+        return managedType != null ? getSchema(managedType.getJavaType()) : null;
+    }
+
+}
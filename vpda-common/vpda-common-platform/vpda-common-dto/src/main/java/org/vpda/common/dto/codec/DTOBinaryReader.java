@@ -0,0 +1,323 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.vpda.common.dto.PersistentDTO;
+import org.vpda.common.dto.PersistentDTOReference;
+import org.vpda.common.dto.tracking.DTODelta;
+import org.vpda.common.types.BaseIdentifiedObjectReference;
+import org.vpda.common.types.IdentifiedObject;
+import org.vpda.internal.common.util.JavaSerializationUtil;
+
+/**
+ * Reads stream of DTOs written by {@link DTOBinaryWriter}. Handles of read DTOs
+ * are forgotten when writer was reset.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTOBinaryReader implements Closeable {
+
+    private final DTOBinaryCodec codec;
+    private final DataInputStream in;
+    private final List<String> strings;
+    private final List<Class<?>> classes;
+    private final List<TypeSchema> managedClasses;
+    private final List<Object> objects;
+    private int nextTag;
+
+    DTOBinaryReader(DTOBinaryCodec codec, InputStream in) throws IOException {
+        this.codec = codec;
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.strings = new ArrayList<>();
+        this.classes = new ArrayList<>();
+        this.managedClasses = new ArrayList<>();
+        this.objects = new ArrayList<>();
+        this.nextTag = -1;
+        if (this.in.readInt() != DTOBinaryWriter.MAGIC) {
+            throw new StreamCorruptedException("Not a DTO binary stream");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != DTOBinaryWriter.VERSION) {
+            throw new StreamCorruptedException("Unsupported DTO binary stream version : " + version);
+        }
+    }
+
+    /**
+     * @return true if there is next value in stream
+     * @throws IOException
+     */
+    public boolean hasNext() throws IOException {
+        if (nextTag < 0) {
+            nextTag = in.readUnsignedByte();
+            while (nextTag == DTOBinaryWriter.TAG_RESET) {
+                objects.clear();
+                nextTag = in.readUnsignedByte();
+            }
+        }
+        return nextTag != DTOBinaryWriter.TAG_END;
+    }
+
+    /**
+     * Reads next value
+     * 
+     * @return value
+     * @throws IOException
+     */
+    public Object readObject() throws IOException {
+        if (!hasNext()) {
+            throw new IOException("End of DTO stream");
+        }
+        int tag = nextTag;
+        nextTag = -1;
+        return readTagged(tag);
+    }
+
+    /**
+     * Reads all remaining values
+     * 
+     * @param <T>
+     * @param type
+     * @return list of values
+     * @throws IOException
+     */
+    public <T> List<T> readAll(Class<T> type) throws IOException {
+        List<T> result = new ArrayList<>();
+        while (hasNext()) {
+            Object value = readObject();
+            if (value != null && !type.isInstance(value)) {
+                throw new InvalidClassException(value.getClass().getName(), "Expected " + type.getName());
+            }
+            result.add(type.cast(value));
+        }
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    Object readAny() throws IOException {
+        return readTagged(in.readUnsignedByte());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Object readTagged(int tag) throws IOException {
+        BasicValueCodec basic = BasicValueCodec.forTag(tag);
+        if (basic != null) {
+            return basic.read(this);
+        }
+        switch (tag) {
+        case DTOBinaryWriter.TAG_NULL:
+            return null;
+        case DTOBinaryWriter.TAG_ENUM: {
+            Class<?> enumClass = readClass();
+            Object[] constants = enumClass.getEnumConstants();
+            int ordinal = readVarInt();
+            if (constants == null || ordinal < 0 || ordinal >= constants.length) {
+                throw new StreamCorruptedException("Invalid enum constant " + enumClass.getName() + "#" + ordinal);
+            }
+            return constants[ordinal];
+        }
+        case DTOBinaryWriter.TAG_MANAGED:
+            return readManaged();
+        case DTOBinaryWriter.TAG_LIST: {
+            int size = readVarInt();
+            List<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readAny());
+            }
+            return list;
+        }
+        case DTOBinaryWriter.TAG_SET: {
+            int size = readVarInt();
+            Set<Object> set = new LinkedHashSet<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                set.add(readAny());
+            }
+            return set;
+        }
+        case DTOBinaryWriter.TAG_MAP: {
+            int size = readVarInt();
+            Map<Object, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                map.put(readAny(), readAny());
+            }
+            return map;
+        }
+        case DTOBinaryWriter.TAG_PERSISTENT_REFERENCE: {
+            Class type = readClass();
+            Object id = readAny();
+            UUID externalId = (UUID) readAny();
+            String display = (String) readAny();
+            PersistentDTO value = (PersistentDTO) readAny();
+            return new PersistentDTOReference(type, id, externalId, display, value);
+        }
+        case DTOBinaryWriter.TAG_REFERENCE: {
+            Class type = readClass();
+            Object id = readAny();
+            UUID externalId = (UUID) readAny();
+            IdentifiedObject value = (IdentifiedObject) readAny();
+            return BaseIdentifiedObjectReference.createWithValue(type, id, externalId, value);
+        }
+        case DTOBinaryWriter.TAG_DELTA: {
+            Class<?> type = readClass();
+            Object id = readAny();
+            UUID externalId = (UUID) readAny();
+            Object baseStamp = readAny();
+            int size = readVarInt();
+            Map<String, Object> changes = new LinkedHashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                changes.put(readString(), readAny());
+            }
+            return new DTODelta(type, id, externalId, baseStamp, changes);
+        }
+        case DTOBinaryWriter.TAG_SERIALIZED:
+            try {
+                return JavaSerializationUtil.readObjectFromByteArray(readBytes(), codec.getClassLoader());
+            }
+            catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        default:
+            throw new StreamCorruptedException("Invalid tag " + tag);
+        }
+    }
+
+    Object readManaged() throws IOException {
+        int handle = readVarInt();
+        if (handle > 0) {
+            if (handle > objects.size()) {
+                throw new StreamCorruptedException("Invalid object handle " + handle);
+            }
+            return objects.get(handle - 1);
+        }
+        TypeSchema schema;
+        int index = readVarInt();
+        if (index > 0) {
+            if (index > managedClasses.size()) {
+                throw new StreamCorruptedException("Invalid managed class index " + index);
+            }
+            schema = managedClasses.get(index - 1);
+        }
+        else {
+            String name = readString();
+            int fingerprint = in.readInt();
+            schema = codec.getSchema(name);
+            if (schema == null) {
+                throw new InvalidClassException(name, "Not a managed DTO type");
+            }
+            if (schema.getFingerprint() != fingerprint) {
+                throw new InvalidClassException(name, "DTO model of reader differs from model of writer");
+            }
+            managedClasses.add(schema);
+        }
+        Object dto = schema.newInstance();
+        objects.add(dto);
+        schema.read(this, dto);
+        return dto;
+    }
+
+    Class<?> readClass() throws IOException {
+        int index = readVarInt();
+        if (index > 0) {
+            if (index > classes.size()) {
+                throw new StreamCorruptedException("Invalid class index " + index);
+            }
+            return classes.get(index - 1);
+        }
+        String name = readString();
+        try {
+            Class<?> type = Class.forName(name, false, codec.getClassLoader());
+            classes.add(type);
+            return type;
+        }
+        catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    String readString() throws IOException {
+        int index = readVarInt();
+        if (index > 0) {
+            if (index > strings.size()) {
+                throw new StreamCorruptedException("Invalid string index " + index);
+            }
+            return strings.get(index - 1);
+        }
+        String value = new String(readBytes(), StandardCharsets.UTF_8);
+        if (value.length() <= DTOBinaryWriter.MAX_DICTIONARY_STRING) {
+            strings.add(value);
+        }
+        return value;
+    }
+
+    byte[] readBytes() throws IOException {
+        return readRawBytes(readVarInt());
+    }
+
+    byte[] readRawBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    int readByte() throws IOException {
+        return in.readByte();
+    }
+
+    long readFixedLong() throws IOException {
+        return in.readLong();
+    }
+
+    int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    long readZigZagLong() throws IOException {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -0,0 +1,325 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.vpda.common.dto.PersistentDTOReference;
+import org.vpda.common.dto.tracking.DTODelta;
+import org.vpda.common.types.BaseIdentifiedObjectReference;
+import org.vpda.internal.common.util.JavaSerializationUtil;
+
+/**
+ * Writes stream of DTOs in binary format of {@link DTOBinaryCodec}. Strings
+ * and classes are written once and then referenced by index, DTO instances
+ * written more times are referenced by handle. Handles are kept until
+ * {@link #reset()}, long streams should reset after each page. Only
+ * {@link ArrayList}, {@link HashSet}, {@link LinkedHashSet}, {@link HashMap}
+ * and {@link LinkedHashMap} are written in compact form, other serializable
+ * collections keep their type using java serialization.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTOBinaryWriter implements Closeable, Flushable {
+
+    static final int MAGIC = 0x56444243;
+    static final int VERSION = 2;
+    static final int MAX_DICTIONARY_STRING = 256;
+
+    static final int TAG_NULL = 0x40;
+    static final int TAG_END = 0x41;
+    static final int TAG_ENUM = 0x42;
+    static final int TAG_MANAGED = 0x43;
+    static final int TAG_LIST = 0x44;
+    static final int TAG_SET = 0x45;
+    static final int TAG_MAP = 0x46;
+    static final int TAG_PERSISTENT_REFERENCE = 0x47;
+    static final int TAG_REFERENCE = 0x48;
+    static final int TAG_SERIALIZED = 0x49;
+    static final int TAG_DELTA = 0x4A;
+    static final int TAG_RESET = 0x4B;
+
+    private final DTOBinaryCodec codec;
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings;
+    private final Map<Class<?>, Integer> classes;
+    private final Map<Class<?>, Integer> managedClasses;
+    private final Map<Object, Integer> objects;
+    private boolean closed;
+
+    DTOBinaryWriter(DTOBinaryCodec codec, OutputStream out) throws IOException {
+        this.codec = codec;
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.strings = new HashMap<>();
+        this.classes = new HashMap<>();
+        this.managedClasses = new HashMap<>();
+        this.objects = new IdentityHashMap<>();
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    /**
+     * Writes DTO or any supported value
+     * 
+     * @param value
+     * @throws IOException
+     */
+    public void writeObject(Object value) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        writeAny(value);
+    }
+
+    /**
+     * Writes all values
+     * 
+     * @param values
+     * @throws IOException
+     */
+    public void writeAll(Collection<?> values) throws IOException {
+        for (Object value : values) {
+            writeObject(value);
+        }
+    }
+
+    /**
+     * Forgets handles of all written DTOs, so they can be garbage collected.
+     * DTOs written after reset are written again in full even if written
+     * before. Reader forgets its handles at same point.
+     * 
+     * @throws IOException
+     */
+    public void reset() throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        out.writeByte(TAG_RESET);
+        objects.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes end of stream mark and closes underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            out.writeByte(TAG_END);
+            out.close();
+        }
+    }
+
+    void writeAny(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        Class<?> type = value.getClass();
+        BasicValueCodec basic = BasicValueCodec.forClass(type);
+        if (basic != null) {
+            out.writeByte(basic.ordinal());
+            basic.write(this, value);
+        }
+        else if (value instanceof Enum) {
+            out.writeByte(TAG_ENUM);
+            writeClass(((Enum<?>) value).getDeclaringClass());
+            writeVarInt(((Enum<?>) value).ordinal());
+        }
+        else if (codec.getSchema(type) != null) {
+            out.writeByte(TAG_MANAGED);
+            writeManaged(value);
+        }
+        else if (value instanceof List && isCompactCollection(value, type == ArrayList.class)) {
+            out.writeByte(TAG_LIST);
+            writeElements((List<?>) value);
+        }
+        else if (value instanceof Set && isCompactCollection(value, type == HashSet.class || type == LinkedHashSet.class)) {
+            out.writeByte(TAG_SET);
+            writeElements((Set<?>) value);
+        }
+        else if (value instanceof Map && isCompactCollection(value, type == HashMap.class || type == LinkedHashMap.class)) {
+            out.writeByte(TAG_MAP);
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeVarInt(map.size());
+            for (Map.Entry<?, ?> e : map.entrySet()) {
+                writeAny(e.getKey());
+                writeAny(e.getValue());
+            }
+        }
+        else if (type == PersistentDTOReference.class) {
+            PersistentDTOReference<?> ref = (PersistentDTOReference<?>) value;
+            out.writeByte(TAG_PERSISTENT_REFERENCE);
+            writeClass(ref.getType());
+            writeAny(ref.getId());
+            writeAny(ref.getExternalId());
+            writeAny(ref.getDisplay());
+            writeAny(ref.getValue());
+        }
+        else if (type == BaseIdentifiedObjectReference.class) {
+            BaseIdentifiedObjectReference<?> ref = (BaseIdentifiedObjectReference<?>) value;
+            out.writeByte(TAG_REFERENCE);
+            writeClass(ref.getType());
+            writeAny(ref.getId());
+            writeAny(ref.getExternalId());
+            writeAny(ref.getValue());
+        }
+        else if (type == DTODelta.class) {
+            DTODelta delta = (DTODelta) value;
+            out.writeByte(TAG_DELTA);
+            writeClass(delta.getType());
+            writeAny(delta.getId());
+            writeAny(delta.getExternalId());
+            writeAny(delta.getBaseStamp());
+            writeVarInt(delta.getChanges().size());
+            for (Map.Entry<String, Object> e : delta.getChanges().entrySet()) {
+                writeString(e.getKey());
+                writeAny(e.getValue());
+            }
+        }
+        else if (value instanceof Serializable) {
+            out.writeByte(TAG_SERIALIZED);
+            writeBytes(JavaSerializationUtil.serializeObjectToByteArray(value));
+        }
+        else {
+            throw new NotSerializableException(type.getName());
+        }
+    }
+
+    /**
+     * Other collection types would be decoded as default type and lose their
+     * ordering or fail to be assigned to field of concrete type, so they are
+     * written compact only when they cannot be serialized
+     */
+    private static boolean isCompactCollection(Object value, boolean defaultType) {
+        return defaultType || !(value instanceof Serializable);
+    }
+
+    private void writeElements(Collection<?> values) throws IOException {
+        writeVarInt(values.size());
+        for (Object value : values) {
+            writeAny(value);
+        }
+    }
+
+    void writeManaged(Object value) throws IOException {
+        Integer handle = objects.get(value);
+        if (handle != null) {
+            writeVarInt(handle + 1);
+            return;
+        }
+        writeVarInt(0);
+        objects.put(value, objects.size());
+        TypeSchema schema = codec.getSchema(value.getClass());
+        Integer index = managedClasses.get(schema.getType());
+        if (index != null) {
+            writeVarInt(index + 1);
+        }
+        else {
+            writeVarInt(0);
+            managedClasses.put(schema.getType(), managedClasses.size());
+            writeString(schema.getType().getName());
+            out.writeInt(schema.getFingerprint());
+        }
+        schema.write(this, value);
+    }
+
+    void writeClass(Class<?> type) throws IOException {
+        Integer index = classes.get(type);
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+        writeVarInt(0);
+        classes.put(type, classes.size());
+        writeString(type.getName());
+    }
+
+    void writeString(String value) throws IOException {
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarInt(index + 1);
+            return;
+        }
+        writeVarInt(0);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeBytes(bytes);
+        if (value.length() <= MAX_DICTIONARY_STRING) {
+            strings.put(value, strings.size());
+        }
+    }
+
+    void writeBytes(byte[] bytes) throws IOException {
+        writeVarInt(bytes.length);
+        out.write(bytes);
+    }
+
+    void writeRawBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+    }
+
+    void writeByte(int value) throws IOException {
+        out.writeByte(value);
+    }
+
+    void writeFixedLong(long value) throws IOException {
+        out.writeLong(value);
+    }
+
+    void writeVarInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    void writeZigZagLong(long value) throws IOException {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.vpda.common.dto.model.Attribute;
+import org.vpda.common.dto.model.AttributeAccessor;
+import org.vpda.common.dto.model.ManagedType;
+import org.vpda.common.dto.model.SingleAttribute;
+import org.vpda.common.util.exceptions.VPDARuntimeException;
+
+/**
+ * Binary layout of one managed class. Attributes are written positionally in
+ * stable order, null values are marked in bitmap in front of record.
+ * 
+ * @author kitko
+ *
+ */
+final class TypeSchema {
+    private final Class<?> type;
+    private final AttributeAccessor<Object, Object>[] accessors;
+    private final ValueCodec[] codecs;
+    private final boolean[] nullable;
+    private final int bitmapSize;
+    private final int fingerprint;
+    private final MethodHandle constructor;
+
+    @SuppressWarnings("unchecked")
+    TypeSchema(ManagedType<?> managedType) {
+        this.type = managedType.getJavaType();
+        List<Attribute<?, ?>> attributes = new ArrayList<>(managedType.getAttributes());
+        attributes.sort(Comparator.comparing((Attribute<?, ?> a) -> ((Field) a.getJavaMember()).getDeclaringClass().getName()).thenComparing(Attribute::getName));
+        int size = attributes.size();
+        this.accessors = new AttributeAccessor[size];
+        this.codecs = new ValueCodec[size];
+        this.nullable = new boolean[size];
+        int nullableCount = 0;
+        int hash = type.getName().hashCode();
+        for (int i = 0; i < size; i++) {
+            Attribute<?, ?> attribute = attributes.get(i);
+            Class<?> fieldType = ((Field) attribute.getJavaMember()).getType();
+            accessors[i] = (AttributeAccessor<Object, Object>) attribute.getAccessor();
+            codecs[i] = createCodec(attribute, fieldType);
+            nullable[i] = !fieldType.isPrimitive();
+            if (nullable[i]) {
+                nullableCount++;
+            }
+            hash = 31 * hash + attribute.getName().hashCode();
+            hash = 31 * hash + fieldType.getName().hashCode();
+        }
+        this.bitmapSize = (nullableCount + 7) >>> 3;
+        this.fingerprint = hash;
+        this.constructor = findConstructor(type);
+    }
+
+    private static ValueCodec createCodec(Attribute<?, ?> attribute, Class<?> fieldType) {
+        if (attribute instanceof SingleAttribute) {
+            BasicValueCodec basic = BasicValueCodec.forClass(fieldType);
+            if (basic != null && (fieldType.isPrimitive() || Modifier.isFinal(fieldType.getModifiers()))) {
+                return basic;
+            }
+            if (basic != null) {
+                // Value can be subclass like Timestamp in Date field, write it with its own tag
+                return ValueCodec.ANY;
+            }
+            if (fieldType.isEnum()) {
+                return new ValueCodec.EnumCodec(fieldType);
+            }
+        }
+        return ValueCodec.ANY;
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        try {
+            Constructor<?> c = type.getDeclaredConstructor();
+            c.trySetAccessible();
+            return MethodHandles.lookup().unreflectConstructor(c).asType(MethodType.methodType(Object.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            // Type can still be written, only reading fails
+            return null;
+        }
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    int getFingerprint() {
+        return fingerprint;
+    }
+
+    void write(DTOBinaryWriter out, Object dto) throws IOException {
+        int size = accessors.length;
+        Object[] values = new Object[size];
+        byte[] bitmap = new byte[bitmapSize];
+        int bit = 0;
+        for (int i = 0; i < size; i++) {
+            values[i] = accessors[i].get(dto);
+            if (nullable[i]) {
+                if (values[i] != null) {
+                    bitmap[bit >>> 3] |= 1 << (bit & 7);
+                }
+                bit++;
+            }
+        }
+        out.writeRawBytes(bitmap);
+        for (int i = 0; i < size; i++) {
+            if (values[i] != null) {
+                codecs[i].write(out, values[i]);
+            }
+        }
+    }
+
+    Object newInstance() throws IOException {
+        if (constructor == null) {
+            throw new IOException("Class " + type.getName() + " has no default constructor");
+        }
+        try {
+            return constructor.invokeExact();
+        }
+        catch (Throwable e) {
+            throw new IOException("Cannot create instance of " + type.getName(), e);
+        }
+    }
+
+    void read(DTOBinaryReader in, Object dto) throws IOException {
+        byte[] bitmap = in.readRawBytes(bitmapSize);
+        int bit = 0;
+        for (int i = 0; i < accessors.length; i++) {
+            boolean present = true;
+            if (nullable[i]) {
+                present = (bitmap[bit >>> 3] & (1 << (bit & 7))) != 0;
+                bit++;
+            }
+            try {
+                accessors[i].set(dto, present ? codecs[i].read(in) : null);
+            }
+            catch (VPDARuntimeException | ClassCastException e) {
+                throw new IOException("Cannot set attribute of " + type.getName(), e);
+            }
+        }
+    }
+
+}
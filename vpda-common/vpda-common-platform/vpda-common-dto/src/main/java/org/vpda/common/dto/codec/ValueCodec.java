@@ -0,0 +1,70 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.codec;
+
+import java.io.IOException;
+
+/**
+ * Encodes values of one attribute
+ * 
+ * @author kitko
+ *
+ */
+interface ValueCodec {
+
+    void write(DTOBinaryWriter out, Object value) throws IOException;
+
+    Object read(DTOBinaryReader in) throws IOException;
+
+    /**
+     * Codec that writes value with type tag
+     */
+    static final ValueCodec ANY = new ValueCodec() {
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeAny(value);
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            return in.readAny();
+        }
+    };
+
+    /**
+     * Codec of enum attribute, writes ordinal
+     */
+    static final class EnumCodec implements ValueCodec {
+        private final Object[] constants;
+
+        EnumCodec(Class<?> enumClass) {
+            this.constants = enumClass.getEnumConstants();
+        }
+
+        @Override
+        public void write(DTOBinaryWriter out, Object value) throws IOException {
+            out.writeVarInt(((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        public Object read(DTOBinaryReader in) throws IOException {
+            int ordinal = in.readVarInt();
+            if (ordinal < 0 || ordinal >= constants.length) {
+                throw new IOException("Invalid enum ordinal " + ordinal);
+            }
+            return constants[ordinal];
+        }
+    }
+}
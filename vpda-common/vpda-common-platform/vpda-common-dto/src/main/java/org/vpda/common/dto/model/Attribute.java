@@ -35,4 +35,27 @@ public interface Attribute<X, Y> {
     boolean isAssociation();
 
     boolean isCollection();
+
+    /**
+     * @return accessor to value of this attribute in DTO instances
+     */
+    public AttributeAccessor<X, Y> getAccessor();
+
+    /**
+     * @param instance
+     * @return value of this attribute in instance
+     */
+    public default Y getValue(X instance) {
+        return getAccessor().get(instance);
+    }
+
+    /**
+     * Sets value of this attribute in instance
+     * 
+     * @param instance
+     * @param value
+     */
+    public default void setValue(X instance, Y value) {
+        getAccessor().set(instance, value);
+    }
 }
@@ -0,0 +1,40 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.model;
+
+/**
+ * Typed access to value of attribute in DTO instance.
+ * 
+ * @author kitko
+ *
+ * @param <X> DTO type
+ * @param <Y> attribute type
+ */
+public interface AttributeAccessor<X, Y> {
+
+    /**
+     * @param instance
+     * @return value of attribute in instance
+     */
+    public Y get(X instance);
+
+    /**
+     * Sets value of attribute in instance
+     * 
+     * @param instance
+     * @param value
+     */
+    public void set(X instance, Y value);
+}
@@ -16,6 +16,8 @@ package org.vpda.common.dto.model;
 
 import java.util.Collection;
 
+import org.vpda.common.dto.PropertyPath;
+
 public interface DTOMetaModel {
     /**
      * Return the metamodel entity type representing the entity.
@@ -91,4 +93,16 @@ public interface DTOMetaModel {
     <X,M> Class<M> getModelClassForManagedType(ManagedType<X> managedType);
     
     <X,M> Class<M> getModelClass(Class<X> dtoClass);
+
+    /**
+     * Resolves attribute by path relative to managed type. First element of path
+     * is attribute of root type, next elements are attributes of managed type of
+     * previous attribute.
+     * 
+     * @param rootType class of managed type where path starts
+     * @param path relative path
+     * @return resolved attribute
+     * @throws IllegalArgumentException if path cannot be resolved
+     */
+    Attribute<?, ?> resolveAttribute(Class<?> rootType, PropertyPath path);
 }
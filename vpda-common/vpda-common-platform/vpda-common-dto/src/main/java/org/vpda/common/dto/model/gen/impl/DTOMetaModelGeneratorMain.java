@@ -23,6 +23,7 @@ import org.vpda.common.dto.model.gen.MetaClassGeneratorConfiguration;
 import org.vpda.common.dto.model.gen.MetaClassesGeneratorLogger;
 import org.vpda.common.dto.model.gen.MetaClassesGeneratorLogger.PrintStreamMetaClassesGeneratorLogger;
 import org.vpda.common.dto.model.gen.MetaClassesgenerationResult;
+import org.vpda.common.dto.runtime.DTOModelIndex;
 import org.vpda.common.dto.runtime.DTORuntime;
 import org.vpda.common.dto.runtime.DTORuntimeConfigurationInput;
 import org.vpda.common.dto.runtime.DTORuntimeConfigurationInputFactory;
@@ -50,6 +51,9 @@ public final class DTOMetaModelGeneratorMain {
         @Option(names = { "-f", "--factory" }, required = true, description = "Classname of DTORuntimeConfigurationInputFactory factory", converter = FactoryConverter.class)
         private DTORuntimeConfigurationInputFactory factory;
 
+        @Option(names = { "-i", "--indexdir" }, description = "Where to write DTO model index resources, usually classes output dir")
+        private File indexDir;
+
         @Option(names = { "-h", "--help" }, usageHelp = true, description = "display this help message")
         boolean usageHelpRequested;
 
@@ -85,6 +89,14 @@ public final class DTOMetaModelGeneratorMain {
             this.factory = factory;
         }
 
+        public File getIndexDir() {
+            return indexDir;
+        }
+
+        public void setIndexDir(File indexDir) {
+            this.indexDir = indexDir;
+        }
+
         public boolean isUsageHelpRequested() {
             return usageHelpRequested;
         }
@@ -135,6 +147,9 @@ public final class DTOMetaModelGeneratorMain {
             MetaClassGeneratorConfiguration genCfg = new MetaClassGeneratorConfigurationImpl(model.outputDir, input.getClassesForUnitName(unitName));
             MetaClassesgenerationResult generationResult = generator.generateMetaClassesForModel(metaModel, genCfg, DTOMetaModelGeneratorMain.class.getClassLoader());
             generator.writeGenerationResult(generationResult, genCfg);
+            if (model.indexDir != null) {
+                DTOModelIndex.create(runtime).write(model.indexDir.toPath());
+            }
         }
     }
 
@@ -14,10 +14,12 @@
  */
 package org.vpda.common.dto.model.impl;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 
 import org.vpda.common.dto.PropertyPath;
 import org.vpda.common.dto.model.Attribute;
+import org.vpda.common.dto.model.AttributeAccessor;
 import org.vpda.common.dto.model.AttributeType;
 import org.vpda.common.dto.model.ManagedType;
 
@@ -31,6 +33,7 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
     private final ManagedType<X> declaringType;
     private final boolean isAssociation;
     private final boolean isCollection;
+    private volatile AttributeAccessor<X, Y> accessor;
 
     protected AbstractAttribute(AbstractAttributeBuilder<X, Y, AbstractAttribute<X, Y>> builder) {
         this.name = builder.getName();
@@ -83,6 +86,20 @@ public abstract class AbstractAttribute<X, Y> implements Attribute<X, Y> {
         return isCollection;
     }
 
+    @Override
+    public AttributeAccessor<X, Y> getAccessor() {
+        AttributeAccessor<X, Y> result = accessor;
+        if (result == null) {
+            if (!(javaMember instanceof Field)) {
+                throw new UnsupportedOperationException("Attribute " + name + " has no field member");
+            }
+            // Racy but idempotent, accessor is stateless
+            result = new FieldAttributeAccessor<>((Field) javaMember);
+            accessor = result;
+        }
+        return result;
+    }
+
     public abstract <A extends AbstractAttribute<X, Y>> AbstractAttributeBuilder<X, Y, ? extends A> createBuilder();
 
     public static abstract class AbstractAttributeBuilder<X, Y, A extends AbstractAttribute<X, Y>> implements org.vpda.common.util.Builder<A> {
@@ -19,7 +19,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.vpda.common.dto.PropertyPath;
+import org.vpda.common.dto.model.Attribute;
 import org.vpda.common.dto.model.ConcreteManagedType;
 import org.vpda.common.dto.model.DTOMetaModel;
 import org.vpda.common.dto.model.DTOMetaModelRegistry;
@@ -27,6 +31,9 @@ import org.vpda.common.dto.model.EmbeddableType;
 import org.vpda.common.dto.model.EntityType;
 import org.vpda.common.dto.model.ManagedType;
 import org.vpda.common.dto.model.MappedSuperIdentifiedType;
+import org.vpda.common.dto.model.PluralAttribute;
+import org.vpda.common.dto.model.SingleAttribute;
+import org.vpda.common.dto.model.Type;
 
 public final class DTOMetaModelImpl implements DTOMetaModel, DTOMetaModelRegistry {
     private final Map<String, ManagedType<?>> allManagedTypes;
@@ -35,6 +42,7 @@ public final class DTOMetaModelImpl implements DTOMetaModel, DTOMetaModelRegistr
     private final Map<String, MappedSuperIdentifiedType<?>> mappedSuperIdentifiedClasses;
     private final Map<String, ConcreteManagedType<?>> concretes;
     private final Map<ManagedType<?>, Class<?>> typeToModelClass;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<PropertyPath, Attribute<?, ?>>> resolvedAttributes;
 
     private DTOMetaModelImpl(DTOMetaModelBuilder dtoMetaModelBuilder) {
         this.allManagedTypes = new HashMap<>(dtoMetaModelBuilder.allManagedTypes);
@@ -43,6 +51,7 @@ public final class DTOMetaModelImpl implements DTOMetaModel, DTOMetaModelRegistr
         this.mappedSuperIdentifiedClasses = this.filterManagedTypes(allManagedTypes, new HashMap<String, MappedSuperIdentifiedType<?>>(), MappedSuperIdentifiedType.class);
         this.concretes = this.filterManagedTypes(allManagedTypes, new HashMap<String, ConcreteManagedType<?>>(), ConcreteManagedType.class);
         this.typeToModelClass = new IdentityHashMap<>();
+        this.resolvedAttributes = new ConcurrentHashMap<>();
     }
 
     @SuppressWarnings("unchecked")
@@ -181,6 +190,44 @@ public final class DTOMetaModelImpl implements DTOMetaModel, DTOMetaModelRegistr
         return getModelClassForManagedType(managedType);
     }
 
+    @Override
+    public Attribute<?, ?> resolveAttribute(Class<?> rootType, PropertyPath path) {
+        ConcurrentMap<PropertyPath, Attribute<?, ?>> attributes = resolvedAttributes.get(rootType);
+        if (attributes == null) {
+            getRequiredManagedType(rootType, allManagedTypes);
+            attributes = resolvedAttributes.computeIfAbsent(rootType, c -> new ConcurrentHashMap<>());
+        }
+        Attribute<?, ?> attribute = attributes.get(path);
+        if (attribute == null) {
+            attribute = resolveAttribute(managedType(rootType), path);
+            attributes.putIfAbsent(path, attribute);
+        }
+        return attribute;
+    }
+
+    private Attribute<?, ?> resolveAttribute(ManagedType<?> rootType, PropertyPath path) {
+        ManagedType<?> type = rootType;
+        Attribute<?, ?> attribute = null;
+        for (String id : path.getPath()) {
+            if (type == null) {
+                throw new IllegalArgumentException("Cannot resolve path " + path + " from " + rootType.getJavaType().getName() + ", " + attribute.getName() + " is not managed type");
+            }
+            attribute = type.getAttribute(id);
+            if (attribute == null) {
+                throw new IllegalArgumentException("Cannot resolve path " + path + " from " + rootType.getJavaType().getName() + ", no attribute " + id);
+            }
+            Type<?> attributeType = null;
+            if (attribute instanceof SingleAttribute) {
+                attributeType = ((SingleAttribute<?, ?>) attribute).getType();
+            }
+            else if (attribute instanceof PluralAttribute) {
+                attributeType = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+            }
+            type = attributeType instanceof ManagedType ? (ManagedType<?>) attributeType : null;
+        }
+        return attribute;
+    }
+
     public static final class DTOMetaModelBuilder implements org.vpda.common.util.Builder<DTOMetaModel> {
 
         private Map<String, ManagedType<?>> allManagedTypes = new HashMap<>();
@@ -0,0 +1,116 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.model.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+import org.vpda.common.dto.model.AttributeAccessor;
+import org.vpda.common.util.exceptions.VPDARuntimeException;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * {@link AttributeAccessor} backed by method handles to field getter and
+ * setter. Handles are resolved once, so access does not go through reflection.
+ * Setter is resolved on first set, so final fields (records, hidden classes)
+ * can still be read.
+ * 
+ * @author kitko
+ *
+ * @param <X>
+ * @param <Y>
+ */
+final class FieldAttributeAccessor<X, Y> implements AttributeAccessor<X, Y> {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandles.Lookup lookup;
+    private final MethodHandle getter;
+    private volatile MethodHandle setter;
+
+    FieldAttributeAccessor(Field field) {
+        this.field = Assert.isNotNullArgument(field, "field");
+        this.lookup = createLookup(field);
+        try {
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            throw new VPDARuntimeException("Cannot create accessor for field " + field, e);
+        }
+    }
+
+    private MethodHandle getSetter() {
+        MethodHandle result = setter;
+        if (result == null) {
+            try {
+                result = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+            catch (IllegalAccessException e) {
+                throw new VPDARuntimeException("Cannot set value of read only field " + field, e);
+            }
+            setter = result;
+        }
+        return result;
+    }
+
+    private static MethodHandles.Lookup createLookup(Field field) {
+        if (field.trySetAccessible()) {
+            return MethodHandles.lookup();
+        }
+        try {
+            return MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+        }
+        catch (IllegalAccessException e) {
+            throw new VPDARuntimeException("Field " + field + " is not accessible, open its package to dto module", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Y get(X instance) {
+        try {
+            return (Y) (Object) getter.invokeExact((Object) instance);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new VPDARuntimeException("Cannot get value of field " + field, e);
+        }
+    }
+
+    @Override
+    public void set(X instance, Y value) {
+        try {
+            getSetter().invokeExact((Object) instance, (Object) value);
+        }
+        catch (RuntimeException | Error e) {
+            throw e;
+        }
+        catch (Throwable e) {
+            throw new VPDARuntimeException("Cannot set value of field " + field, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAttributeAccessor [field=" + field + "]";
+    }
+
+}
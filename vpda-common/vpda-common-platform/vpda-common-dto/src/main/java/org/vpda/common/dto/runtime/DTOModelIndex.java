@@ -0,0 +1,302 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Compact index of DTO model of one unit. For every registered class it
+ * holds fingerprint of declared fields and positions of model fields among
+ * them. It is written by build time generator and loaded at runtime, so
+ * model builder does not need to evaluate field filter on declared fields.
+ * Fingerprint is computed from names, types, modifiers and annotation types of
+ * fields already loaded in memory. Classes whose fingerprint does not match
+ * are introspected by reflection, whole index is ignored when it was created
+ * with different class of {@link DTOModelConfiguration}.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTOModelIndex {
+
+    /** Folder of index resources */
+    public static final String RESOURCE_FOLDER = "META-INF/vpda/dto-model/";
+    /** Index file suffix */
+    public static final String RESOURCE_SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x5644544F;
+    private static final int VERSION = 3;
+
+    private final String unitName;
+    private final String configurationName;
+    private final Map<String, Entry> entries;
+
+    private static final class Entry {
+        private final long fingerprint;
+        private final int[] positions;
+
+        private Entry(long fingerprint, int[] positions) {
+            this.fingerprint = fingerprint;
+            this.positions = positions;
+        }
+    }
+
+    private DTOModelIndex(String unitName, String configurationName, Map<String, Entry> entries) {
+        this.unitName = unitName;
+        this.configurationName = configurationName;
+        this.entries = entries;
+    }
+
+    /**
+     * @return unit name
+     */
+    public String getUnitName() {
+        return unitName;
+    }
+
+    /**
+     * @return class name of model configuration index was created with
+     */
+    public String getConfigurationName() {
+        return configurationName;
+    }
+
+    /**
+     * @param configuration
+     * @return true if index was created with configuration of same class
+     */
+    public boolean isCreatedWith(DTOModelConfiguration configuration) {
+        return configuration != null && configuration.getClass().getName().equals(configurationName);
+    }
+
+    /**
+     * @return number of indexed classes
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Resolves model fields of class from single call of
+     * {@link Class#getDeclaredFields()}
+     * 
+     * @param clazz
+     * @return model fields of class in declaration order or null if class is
+     *         not indexed or its fields changed since index was created
+     */
+    public List<Field> getModelFields(Class<?> clazz) {
+        Entry entry = entries.get(clazz.getName());
+        if (entry == null) {
+            return null;
+        }
+        Field[] declaredFields = clazz.getDeclaredFields();
+        if (entry.fingerprint != fingerprint(declaredFields)) {
+            return null;
+        }
+        List<Field> fields = new ArrayList<>(entry.positions.length);
+        for (int position : entry.positions) {
+            if (position >= declaredFields.length) {
+                return null;
+            }
+            fields.add(declaredFields[position]);
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Creates index for runtime
+     * 
+     * @param runtime
+     * @return index
+     */
+    public static DTOModelIndex create(DTORuntime runtime) {
+        Assert.isNotNullArgument(runtime, "runtime");
+        DTOModelConfiguration configuration = runtime.getModelConfiguration();
+        Predicate<Field> fieldFilter = configuration.getFieldFilter();
+        Map<String, Entry> entries = new HashMap<>();
+        for (Class<?> clazz : runtime.getDTORepository().getRegisteredClasses()) {
+            addClass(clazz, fieldFilter, entries);
+        }
+        return new DTOModelIndex(runtime.getUnitName(), configuration.getClass().getName(), entries);
+    }
+
+    private static void addClass(Class<?> clazz, Predicate<Field> fieldFilter, Map<String, Entry> entries) {
+        if (clazz == null || clazz == Object.class || entries.containsKey(clazz.getName())) {
+            return;
+        }
+        Field[] declaredFields = clazz.getDeclaredFields();
+        int[] positions = new int[declaredFields.length];
+        int count = 0;
+        for (int i = 0; i < declaredFields.length; i++) {
+            if (fieldFilter.test(declaredFields[i])) {
+                positions[count++] = i;
+            }
+        }
+        entries.put(clazz.getName(), new Entry(fingerprint(declaredFields), Arrays.copyOf(positions, count)));
+        addClass(clazz.getSuperclass(), fieldFilter, entries);
+    }
+
+    /**
+     * Writes index into stream
+     * 
+     * @param out
+     * @throws IOException
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeUTF(unitName);
+        data.writeUTF(configurationName);
+        data.writeInt(entries.size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            data.writeUTF(e.getKey());
+            data.writeLong(e.getValue().fingerprint);
+            data.writeShort(e.getValue().positions.length);
+            for (int position : e.getValue().positions) {
+                data.writeShort(position);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Writes index into resource folder under root directory
+     * 
+     * @param rootDir
+     * @return written file
+     * @throws IOException
+     */
+    public Path write(Path rootDir) throws IOException {
+        Path file = rootDir.resolve(getResourceName(unitName));
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(out);
+        }
+        return file;
+    }
+
+    /**
+     * Reads index from stream
+     * 
+     * @param in
+     * @return index
+     * @throws IOException if stream does not contain valid index
+     */
+    public static DTOModelIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a DTO model index");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported DTO model index version : " + version);
+        }
+        String unitName = data.readUTF();
+        String configurationName = data.readUTF();
+        int size = data.readInt();
+        Map<String, Entry> entries = new HashMap<>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            String className = data.readUTF();
+            long fingerprint = data.readLong();
+            int count = data.readUnsignedShort();
+            int[] positions = new int[count];
+            for (int j = 0; j < count; j++) {
+                positions[j] = data.readUnsignedShort();
+            }
+            entries.put(className, new Entry(fingerprint, positions));
+        }
+        return new DTOModelIndex(unitName, configurationName, entries);
+    }
+
+    /**
+     * Loads index of unit from class loader resources
+     * 
+     * @param unitName
+     * @param loader
+     * @param configuration configuration model will be built with
+     * @return index or null if there is no valid index for unit and
+     *         configuration
+     */
+    public static DTOModelIndex load(String unitName, ClassLoader loader, DTOModelConfiguration configuration) {
+        if (unitName == null || loader == null || configuration == null) {
+            return null;
+        }
+        try (InputStream in = loader.getResourceAsStream(getResourceName(unitName))) {
+            if (in == null) {
+                return null;
+            }
+            DTOModelIndex index = read(in);
+            return unitName.equals(index.getUnitName()) && index.isCreatedWith(configuration) ? index : null;
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param unitName
+     * @return name of index resource for unit
+     */
+    public static String getResourceName(String unitName) {
+        return RESOURCE_FOLDER + unitName + RESOURCE_SUFFIX;
+    }
+
+    /**
+     * Computes fingerprint of declared fields from their order, names, types,
+     * modifiers and annotation types, so adding or removing annotation used by
+     * field filter invalidates the entry
+     * 
+     * @param declaredFields
+     * @return fingerprint
+     */
+    public static long fingerprint(Field[] declaredFields) {
+        long hash = declaredFields.length;
+        for (Field f : declaredFields) {
+            hash = 31 * hash + f.getName().hashCode();
+            hash = 31 * hash + f.getType().getName().hashCode();
+            hash = 31 * hash + f.getModifiers();
+            for (Annotation annotation : f.getDeclaredAnnotations()) {
+                hash = 31 * hash + annotation.annotationType().getName().hashCode();
+            }
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "DTOModelIndex [unitName=" + unitName + ", classes=" + entries.size() + "]";
+    }
+
+}
@@ -14,6 +14,8 @@
  */
 package org.vpda.common.dto.runtime;
 
+import java.util.Collection;
+
 import org.vpda.common.dto.model.DTOMetaModel;
 
 /**
@@ -22,6 +24,15 @@ import org.vpda.common.dto.model.DTOMetaModel;
 public interface DTOModelManager {
     public DTOMetaModel getMetaModel();
 
+    /**
+     * Extends current model with managed types for passed classes. Types
+     * already in model are reused, only new classes are introspected.
+     * 
+     * @param classes
+     * @return new model
+     */
+    public DTOMetaModel addManagedClasses(Collection<Class<?>> classes);
+
     public DTORepository getRepository();
 
     public DTOModelConfiguration getModelConfiguration();
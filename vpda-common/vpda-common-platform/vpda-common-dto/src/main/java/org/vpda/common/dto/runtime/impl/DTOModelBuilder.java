@@ -15,12 +15,16 @@
 package org.vpda.common.dto.runtime.impl;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,6 +33,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
 
 import org.vpda.common.dto.PropertyPath;
 import org.vpda.common.dto.annotations.DTOConcrete;
@@ -42,18 +50,35 @@ import org.vpda.common.dto.model.ConcreteManagedType;
 import org.vpda.common.dto.model.DTOMetaModel;
 import org.vpda.common.dto.model.EmbeddableType;
 import org.vpda.common.dto.model.EntityType;
+import org.vpda.common.dto.model.DTOMetaModelRegistry;
 import org.vpda.common.dto.model.ManagedType;
 import org.vpda.common.dto.model.MappedSuperIdentifiedType;
+import org.vpda.common.dto.model.PluralAttribute;
+import org.vpda.common.dto.model.SingleAttribute;
+import org.vpda.common.dto.model.Type;
 import org.vpda.common.dto.model.ValueManagedType;
 import org.vpda.common.dto.model.impl.DTOMetaModelImpl;
 import org.vpda.common.dto.runtime.DTOModelConfiguration;
+import org.vpda.common.dto.runtime.DTOModelIndex;
 import org.vpda.common.dto.runtime.DTORepository;
 import org.vpda.common.types.ExternalId;
 import org.vpda.common.types.Id;
 import org.vpda.common.types.IdentifiedObjectReference;
 
+/**
+ * Builds {@link DTOMetaModel} from registered classes. Reflective
+ * introspection of classes is done in parallel over the type graph, assembly
+ * of managed types is done on calling thread. When {@link DTOModelIndex} is
+ * available, model fields of unchanged classes are taken from it.
+ * 
+ * @author kitko
+ *
+ */
 final class DTOModelBuilder {
 
+    /** Min number of classes for which introspection runs in parallel */
+    private static final int PARALLEL_THRESHOLD = 8;
+
     private static final Set<Class<?>> BASIC_TYPES = new HashSet<>(Arrays.asList(Boolean.class, String.class, BigDecimal.class, Long.class, Integer.class, Short.class, Double.class, Date.class,
             java.sql.Date.class, Timestamp.class, LocalDate.class, LocalDateTime.class, Instant.class, Locale.class, UUID.class));
 
@@ -72,8 +97,15 @@ final class DTOModelBuilder {
     private final SingleAttributeBuilder singleAttributeBuilder;
     private final CollectionAttributeBuilder collectionAttributeBuilder;
     private final DTOModelConfiguration modelConfiguration;
+    private final ConcurrentHashMap<Class<?>, List<Field>> modelFields = new ConcurrentHashMap<>();
+    private final DTOModelIndex modelIndex;
 
     DTOModelBuilder(DTORepository repository, DTOModelConfiguration modelConfiguration) {
+        this(repository, modelConfiguration, null);
+    }
+
+    DTOModelBuilder(DTORepository repository, DTOModelConfiguration modelConfiguration, DTOModelIndex modelIndex) {
+        this.modelIndex = modelIndex;
         this.repository = repository;
         this.modelConfiguration = modelConfiguration;
         this.managedTypeBuilder = new ManagedTypeBuilder(this);
@@ -86,18 +118,206 @@ final class DTOModelBuilder {
     }
 
     DTOMetaModel buildModel() {
+        Collection<Class<?>> classes = repository.getRegisteredClasses();
+        introspect(classes);
         Map<Class<?>, ManagedType<?>> managedClassesMap = new HashMap<>();
-        for (Class<?> clazz : repository.getRegisteredClasses()) {
+        for (Class<?> clazz : classes) {
             managedClassesMap.put(clazz, null);
         }
         DTOMetaModelImpl.DTOMetaModelBuilder dTOMetaModelBuilder = new DTOMetaModelImpl.DTOMetaModelBuilder();
-        for (Class<?> clazz : repository.getRegisteredClasses()) {
+        for (Class<?> clazz : classes) {
             ManagedType<?> managedType = createManagedType(clazz, managedClassesMap);
             dTOMetaModelBuilder.addManagedType(managedType);
         }
         return dTOMetaModelBuilder.build();
     }
 
+    /**
+     * Creates new model that contains all types of existing model and types for
+     * added classes. Types of existing model are reused, only added classes and
+     * their not yet known dependencies are introspected.
+     * 
+     * @param existing
+     * @param addedClasses
+     * @return new model
+     */
+    DTOMetaModel buildModel(DTOMetaModel existing, Collection<Class<?>> addedClasses) {
+        Map<Class<?>, ManagedType<?>> managedClassesMap = new HashMap<>();
+        Set<Class<?>> modelClasses = new HashSet<>();
+        for (ManagedType<?> type : existing.getManagedTypes()) {
+            modelClasses.add(type.getJavaType());
+            collectKnownTypes(type, managedClassesMap);
+        }
+        List<Class<?>> newClasses = new ArrayList<>(addedClasses.size());
+        for (Class<?> clazz : addedClasses) {
+            if (modelClasses.add(clazz)) {
+                newClasses.add(clazz);
+            }
+        }
+        List<Class<?>> unknownClasses = new ArrayList<>(newClasses.size());
+        for (Class<?> clazz : newClasses) {
+            if (!managedClassesMap.containsKey(clazz)) {
+                unknownClasses.add(clazz);
+                managedClassesMap.put(clazz, null);
+            }
+        }
+        introspect(unknownClasses);
+        DTOMetaModelImpl.DTOMetaModelBuilder dTOMetaModelBuilder = new DTOMetaModelImpl.DTOMetaModelBuilder();
+        for (ManagedType<?> type : existing.getManagedTypes()) {
+            dTOMetaModelBuilder.addManagedType(type);
+        }
+        for (Class<?> clazz : newClasses) {
+            ManagedType<?> managedType = managedClassesMap.get(clazz);
+            if (managedType == null) {
+                managedType = createManagedType(clazz, managedClassesMap);
+            }
+            dTOMetaModelBuilder.addManagedType(managedType);
+        }
+        DTOMetaModel model = dTOMetaModelBuilder.build();
+        if (existing instanceof DTOMetaModelRegistry && model instanceof DTOMetaModelRegistry) {
+            DTOMetaModelRegistry from = (DTOMetaModelRegistry) existing;
+            for (ManagedType<?> type : existing.getManagedTypes()) {
+                Class<?> modelClass = from.getModelClassForManagedType(type);
+                if (modelClass != null) {
+                    ((DTOMetaModelRegistry) model).registerMetaModelClassForManagedType(type, modelClass);
+                }
+            }
+        }
+        return model;
+    }
+
+    private static void collectKnownTypes(ManagedType<?> type, Map<Class<?>, ManagedType<?>> managedClassesMap) {
+        if (type == null || managedClassesMap.get(type.getJavaType()) != null) {
+            return;
+        }
+        managedClassesMap.put(type.getJavaType(), type);
+        collectKnownTypes(type.getSuperType(), managedClassesMap);
+        for (Attribute<?, ?> attr : type.getDeclaredAttributes()) {
+            Type<?> attrType = null;
+            if (attr instanceof SingleAttribute) {
+                attrType = ((SingleAttribute<?, ?>) attr).getType();
+            }
+            else if (attr instanceof PluralAttribute) {
+                attrType = ((PluralAttribute<?, ?, ?>) attr).getElementType();
+            }
+            if (attrType instanceof ManagedType) {
+                collectKnownTypes((ManagedType<?>) attrType, managedClassesMap);
+            }
+        }
+    }
+
+    /**
+     * @param clazz
+     * @return declared fields of class accepted by field filter of model
+     *         configuration
+     */
+    List<Field> getModelFields(Class<?> clazz) {
+        List<Field> fields = modelFields.get(clazz);
+        if (fields == null) {
+            fields = introspectFields(clazz);
+            List<Field> old = modelFields.putIfAbsent(clazz, fields);
+            if (old != null) {
+                fields = old;
+            }
+        }
+        return fields;
+    }
+
+    private List<Field> introspectFields(Class<?> clazz) {
+        List<Field> indexedFields = getIndexedFields(clazz);
+        if (indexedFields != null) {
+            return indexedFields;
+        }
+        Predicate<Field> fieldFilter = modelConfiguration.getFieldFilter();
+        List<Field> fields = new ArrayList<>();
+        for (Field f : clazz.getDeclaredFields()) {
+            if (!fieldFilter.test(f)) {
+                continue;
+            }
+            // Parse annotations and generic signature now, possibly in parallel
+            f.getDeclaredAnnotations();
+            f.getGenericType();
+            fields.add(f);
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private List<Field> getIndexedFields(Class<?> clazz) {
+        return modelIndex != null ? modelIndex.getModelFields(clazz) : null;
+    }
+
+    /**
+     * Introspects classes and classes reachable from them in parallel
+     * 
+     * @param classes
+     */
+    private void introspect(Collection<Class<?>> classes) {
+        if (classes.size() < PARALLEL_THRESHOLD) {
+            return;
+        }
+        Set<Class<?>> visited = ConcurrentHashMap.newKeySet();
+        List<IntrospectTask> tasks = new ArrayList<>(classes.size());
+        for (Class<?> clazz : classes) {
+            tasks.add(new IntrospectTask(clazz, visited));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static boolean isModelClass(Class<?> clazz) {
+        return clazz.isAnnotationPresent(DTOEntity.class) || clazz.isAnnotationPresent(DTOEmbeddable.class) || clazz.isAnnotationPresent(DTOMappedSuperIdentifiableClass.class)
+                || clazz.isAnnotationPresent(DTOConcrete.class) || clazz.isAnnotationPresent(DTOValue.class);
+    }
+
+    /**
+     * Introspects one class and forks introspection of its super class and
+     * managed field types
+     */
+    private final class IntrospectTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Class<?> clazz;
+        private final Set<Class<?>> visited;
+
+        IntrospectTask(Class<?> clazz, Set<Class<?>> visited) {
+            this.clazz = clazz;
+            this.visited = visited;
+        }
+
+        @Override
+        protected void compute() {
+            if (!visited.add(clazz)) {
+                return;
+            }
+            List<IntrospectTask> subTasks = new ArrayList<>();
+            Class<?> superClass = clazz.getSuperclass();
+            if (superClass != null && superClass != Object.class) {
+                subTasks.add(new IntrospectTask(superClass, visited));
+            }
+            for (Field f : getModelFields(clazz)) {
+                forkIfModelClass(f.getType(), subTasks);
+                if (f.getGenericType() instanceof ParameterizedType) {
+                    for (java.lang.reflect.Type arg : ((ParameterizedType) f.getGenericType()).getActualTypeArguments()) {
+                        if (arg instanceof Class) {
+                            forkIfModelClass((Class<?>) arg, subTasks);
+                        }
+                    }
+                }
+            }
+            invokeAll(subTasks);
+        }
+
+        private void forkIfModelClass(Class<?> type, List<IntrospectTask> subTasks) {
+            if (!visited.contains(type) && isModelClass(type)) {
+                subTasks.add(new IntrospectTask(type, visited));
+            }
+        }
+    }
 
     ManagedType<?> createManagedType(Class<?> clazz, Map<Class<?>, ManagedType<?>> managedClassesMap) {
         ManagedType<?> result = null;
@@ -14,8 +14,11 @@
  */
 package org.vpda.common.dto.runtime.impl;
 
+import java.util.Collection;
+
 import org.vpda.common.dto.model.DTOMetaModel;
 import org.vpda.common.dto.runtime.DTOModelConfiguration;
+import org.vpda.common.dto.runtime.DTOModelIndex;
 import org.vpda.common.dto.runtime.DTOModelManager;
 import org.vpda.common.dto.runtime.DTORepository;
 
@@ -23,20 +26,47 @@ final class DTOModelManagerImpl implements DTOModelManager {
 
     private final DTORepository repository;
     private final DTOModelConfiguration modelConfiguration;
+    private final String unitName;
     private volatile DTOMetaModel metaModel;
 
     DTOModelManagerImpl(DTORepository repository, DTOModelConfiguration modelConfiguration) {
+        this(null, repository, modelConfiguration);
+    }
+
+    DTOModelManagerImpl(String unitName, DTORepository repository, DTOModelConfiguration modelConfiguration) {
+        this.unitName = unitName;
         this.repository = repository;
         this.modelConfiguration = modelConfiguration;
     }
 
+    private DTOModelIndex loadModelIndex() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = DTOModelManagerImpl.class.getClassLoader();
+        }
+        return DTOModelIndex.load(unitName, loader, modelConfiguration);
+    }
+
     @Override
     public DTOMetaModel getMetaModel() {
-        if (metaModel != null) {
-            return metaModel;
+        DTOMetaModel model = metaModel;
+        if (model == null) {
+            synchronized (this) {
+                model = metaModel;
+                if (model == null) {
+                    model = new DTOModelBuilder(this.repository, this.modelConfiguration, loadModelIndex()).buildModel();
+                    metaModel = model;
+                }
+            }
         }
-        metaModel = new DTOModelBuilder(this.repository, this.modelConfiguration).buildModel();
-        return metaModel;
+        return model;
+    }
+
+    @Override
+    public synchronized DTOMetaModel addManagedClasses(Collection<Class<?>> classes) {
+        DTOMetaModel model = new DTOModelBuilder(this.repository, this.modelConfiguration, loadModelIndex()).buildModel(getMetaModel(), classes);
+        metaModel = model;
+        return model;
     }
 
     @Override
@@ -38,7 +38,7 @@ final class DTORuntimeImpl implements DTORuntime {
         this.unitName = Assert.isNotEmptyArgument(unitName, "unitName");
         this.repository = repository;
         this.modelConfiguration = modelConfiguration;
-        this.modelManager = new DTOModelManagerImpl(getDTORepository(), modelConfiguration);
+        this.modelManager = new DTOModelManagerImpl(unitName, getDTORepository(), modelConfiguration);
     }
 
     @Override
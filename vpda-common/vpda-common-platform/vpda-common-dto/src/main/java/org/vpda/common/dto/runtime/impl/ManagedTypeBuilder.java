@@ -16,7 +16,6 @@ package org.vpda.common.dto.runtime.impl;
 
 import java.lang.reflect.Field;
 import java.util.Map;
-import java.util.function.Predicate;
 
 import org.vpda.common.dto.model.Attribute;
 import org.vpda.common.dto.model.ConcreteManagedType;
@@ -48,7 +47,6 @@ final class ManagedTypeBuilder {
             return EntityType.class.cast((managedClassesMap.get(clazz)));
         }
 
-        Predicate<Field> fieldFilter = modelBuilder.getModelConfiguration().getFieldFilter();
         EntityTypeImpl.EntityTypeImplTypeBuilder<?> builder = new EntityTypeImpl.EntityTypeImplTypeBuilder<>();
         if (clazz.getSuperclass() != null && clazz.getSuperclass() != Object.class) {
             ManagedType superType = modelBuilder.createManagedType(clazz.getSuperclass(), managedClassesMap);
@@ -61,10 +59,7 @@ final class ManagedTypeBuilder {
         builder.setJavaClass((Class) clazz);
         EntityType tempManagedType = builder.build();
         managedClassesMap.put(clazz, tempManagedType);
-        for (Field f : clazz.getDeclaredFields()) {
-            if (!fieldFilter.test(f)) {
-                continue;
-            }
+        for (Field f : modelBuilder.getModelFields(clazz)) {
             Attribute<?, ?> attr = modelBuilder.createAttribute(f, tempManagedType, managedClassesMap);
             builder.addDeclaredAttribute((Attribute) attr);
             if (attr instanceof SingleAttribute && ((SingleAttribute) attr).isId()) {
@@ -84,7 +79,6 @@ final class ManagedTypeBuilder {
         if (managedClassesMap.get(clazz) != null) {
             return MappedSuperIdentifiedType.class.cast(managedClassesMap.get(clazz));
         }
-        Predicate<Field> fieldFilter = modelBuilder.getModelConfiguration().getFieldFilter();
         MappedSuperIdentifiedTypeImpl.MappedSuperIdentifiedTypeImplTypeBuilder<?> builder = new MappedSuperIdentifiedTypeImpl.MappedSuperIdentifiedTypeImplTypeBuilder<>();
         if (clazz.getSuperclass() != null && clazz.getSuperclass() != Object.class) {
             ManagedType superType = modelBuilder.createManagedType(clazz.getSuperclass(), managedClassesMap);
@@ -98,10 +92,7 @@ final class ManagedTypeBuilder {
         builder.setJavaClass((Class) clazz);
         MappedSuperIdentifiedType tempManagedType = builder.build();
         managedClassesMap.put(clazz, tempManagedType);
-        for (Field f : clazz.getDeclaredFields()) {
-            if (!fieldFilter.test(f)) {
-                continue;
-            }
+        for (Field f : modelBuilder.getModelFields(clazz)) {
             Attribute<?, ?> attr = modelBuilder.createAttribute(f, tempManagedType, managedClassesMap);
             builder.addDeclaredAttribute((Attribute) attr);
             if (attr instanceof SingleAttribute && ((SingleAttribute) attr).isId()) {
@@ -121,15 +112,11 @@ final class ManagedTypeBuilder {
         if (managedClassesMap.get(clazz) != null) {
             return EmbeddableType.class.cast((managedClassesMap.get(clazz)));
         }
-        Predicate<Field> fieldFilter = modelBuilder.getModelConfiguration().getFieldFilter();
         EmbeddableTypeImpl.EntityTypeImplTypeBuilder builder = new EmbeddableTypeImpl.EntityTypeImplTypeBuilder();
         builder.setJavaClass(clazz);
         EmbeddableType tempManagedType = builder.build();
         managedClassesMap.put(clazz, tempManagedType);
-        for (Field f : clazz.getDeclaredFields()) {
-            if (!fieldFilter.test(f)) {
-                continue;
-            }
+        for (Field f : modelBuilder.getModelFields(clazz)) {
             Attribute<?, ?> attr = modelBuilder.createAttribute(f, tempManagedType, managedClassesMap);
             builder.addDeclaredAttribute(attr);
         }
@@ -152,11 +139,7 @@ final class ManagedTypeBuilder {
         builder.setJavaClass((Class) clazz);
         ConcreteManagedType tempManagedType = builder.build();
         managedClassesMap.put(clazz, tempManagedType);
-        Predicate<Field> fieldFilter = modelBuilder.getModelConfiguration().getFieldFilter();
-        for (Field f : clazz.getDeclaredFields()) {
-            if (!fieldFilter.test(f)) {
-                continue;
-            }
+        for (Field f : modelBuilder.getModelFields(clazz)) {
             Attribute<?, ?> attr = modelBuilder.createAttribute(f, tempManagedType, managedClassesMap);
             builder.addDeclaredAttribute((Attribute) attr);
         }
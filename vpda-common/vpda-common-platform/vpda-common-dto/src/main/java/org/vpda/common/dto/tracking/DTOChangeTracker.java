@@ -0,0 +1,135 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.tracking;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.vpda.common.dto.model.Attribute;
+import org.vpda.common.dto.model.DTOMetaModel;
+import org.vpda.common.dto.model.ManagedType;
+import org.vpda.common.types.IdentifiedObject;
+import org.vpda.common.types.StampedObject;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Tracks changes of DTOs using {@link DTOMetaModel} and applies
+ * {@link DTODelta}s with optimistic stamp check.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTOChangeTracker {
+
+    private final DTOMetaModel model;
+    private final ConcurrentHashMap<Class<?>, TrackingSchema> schemas;
+
+    /**
+     * @param model
+     */
+    public DTOChangeTracker(DTOMetaModel model) {
+        this.model = Assert.isNotNullArgument(model, "model");
+        this.schemas = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts tracking of DTO by taking snapshot of its attributes
+     * 
+     * @param <T>
+     * @param dto
+     * @return tracked DTO
+     */
+    public <T> TrackedDTO<T> track(T dto) {
+        Assert.isNotNullArgument(dto, "dto");
+        return new TrackedDTO<>(dto, getSchema(dto.getClass()));
+    }
+
+    /**
+     * Applies delta to target. Target must be of delta type, have same identity
+     * and if it is {@link StampedObject}, its stamp must be equal to base stamp
+     * of delta. Caller must guard target against concurrent modification.
+     * 
+     * @param <T>
+     * @param delta
+     * @param target
+     * @return target
+     * @throws DTODeltaConflictException if target is different object or was
+     *                                   changed since delta base
+     */
+    public <T> T apply(DTODelta delta, T target) {
+        Assert.isNotNullArgument(delta, "delta");
+        Assert.isNotNullArgument(target, "target");
+        if (!delta.getType().isInstance(target)) {
+            throw new DTODeltaConflictException("Delta of " + delta.getType().getName() + " cannot be applied to " + target.getClass().getName());
+        }
+        if (target instanceof IdentifiedObject) {
+            IdentifiedObject<?> identified = (IdentifiedObject<?>) target;
+            if (delta.getId() != null && !delta.getId().equals(identified.getId())) {
+                throw new DTODeltaConflictException("Delta id " + delta.getId() + " does not match target id " + identified.getId());
+            }
+            if (delta.getExternalId() != null && identified.getExternalId() != null && !delta.getExternalId().equals(identified.getExternalId())) {
+                throw new DTODeltaConflictException("Delta external id " + delta.getExternalId() + " does not match target external id " + identified.getExternalId());
+            }
+        }
+        if (delta.getBaseStamp() != null && target instanceof StampedObject) {
+            Object stamp = ((StampedObject<?>) target).getStamp();
+            if (!Objects.equals(delta.getBaseStamp(), stamp)) {
+                throw new DTODeltaConflictException("Target " + target.getClass().getName() + " was changed, stamp is " + stamp + ", delta base stamp is " + delta.getBaseStamp());
+            }
+        }
+        ManagedType<?> managedType = model.managedType(target.getClass());
+        for (Map.Entry<String, Object> change : delta.getChanges().entrySet()) {
+            @SuppressWarnings("unchecked")
+            Attribute<Object, Object> attribute = (Attribute<Object, Object>) managedType.getAttribute(change.getKey());
+            if (attribute == null) {
+                throw new IllegalArgumentException("No attribute " + change.getKey() + " in " + target.getClass().getName());
+            }
+            attribute.setValue(target, change.getValue());
+        }
+        return target;
+    }
+
+    /**
+     * Applies delta and sets new stamp to target
+     * 
+     * @param <T>
+     * @param <S>
+     * @param delta
+     * @param target
+     * @param newStamp
+     * @return target
+     * @throws DTODeltaConflictException if target is different object or was
+     *                                   changed since delta base
+     */
+    public <S, T extends StampedObject<S>> T apply(DTODelta delta, T target, S newStamp) {
+        apply(delta, target);
+        target.setStamp(newStamp);
+        return target;
+    }
+
+    TrackingSchema getSchema(Class<?> type) {
+        TrackingSchema schema = schemas.get(type);
+        if (schema == null) {
+            schema = new TrackingSchema(this, model.managedType(type));
+            TrackingSchema old = schemas.putIfAbsent(type, schema);
+            if (old != null) {
+                schema = old;
+            }
+        }
+        return schema;
+    }
+
+}
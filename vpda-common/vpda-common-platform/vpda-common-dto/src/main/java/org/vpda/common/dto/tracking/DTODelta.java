@@ -0,0 +1,104 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.tracking;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Changes of one DTO. Holds identity of DTO, stamp of version the changes
+ * were made on and new values of modified attributes.
+ * 
+ * @author kitko
+ *
+ */
+public final class DTODelta implements Serializable {
+
+    private static final long serialVersionUID = -2381693370285874217L;
+
+    private final Class<?> type;
+    private final Object id;
+    private final UUID externalId;
+    private final Object baseStamp;
+    private final Map<String, Object> changes;
+
+    /**
+     * @param type       DTO class
+     * @param id         id of DTO
+     * @param externalId external id of DTO
+     * @param baseStamp  stamp of DTO when tracking started
+     * @param changes    new values by attribute name
+     */
+    public DTODelta(Class<?> type, Object id, UUID externalId, Object baseStamp, Map<String, ?> changes) {
+        this.type = Assert.isNotNullArgument(type, "type");
+        this.id = id;
+        this.externalId = externalId;
+        this.baseStamp = baseStamp;
+        this.changes = Collections.unmodifiableMap(new LinkedHashMap<>(Assert.isNotNullArgument(changes, "changes")));
+    }
+
+    /**
+     * @return DTO class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return id of DTO
+     */
+    public Object getId() {
+        return id;
+    }
+
+    /**
+     * @return external id of DTO
+     */
+    public UUID getExternalId() {
+        return externalId;
+    }
+
+    /**
+     * @return stamp of DTO when tracking started
+     */
+    public Object getBaseStamp() {
+        return baseStamp;
+    }
+
+    /**
+     * @return new values by attribute name
+     */
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return true if there is no change
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "DTODelta [type=" + type.getName() + ", id=" + id + ", baseStamp=" + baseStamp + ", changes=" + changes.keySet() + "]";
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.tracking;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.vpda.common.types.IdentifiedObject;
+import org.vpda.common.types.StampedObject;
+
+/**
+ * DTO with snapshot of its attribute values. Changes made to DTO after
+ * snapshot can be turned into {@link DTODelta}. Not thread safe.
+ * 
+ * @author kitko
+ *
+ * @param <T>
+ */
+public final class TrackedDTO<T> {
+
+    private final T dto;
+    private final TrackingSchema schema;
+    private Object[] state;
+    private Object baseStamp;
+
+    TrackedDTO(T dto, TrackingSchema schema) {
+        this.dto = dto;
+        this.schema = schema;
+        reset();
+    }
+
+    /**
+     * @return tracked DTO
+     */
+    public T getDTO() {
+        return dto;
+    }
+
+    /**
+     * @return stamp of DTO when snapshot was taken
+     */
+    public Object getBaseStamp() {
+        return baseStamp;
+    }
+
+    /**
+     * @return true if any attribute was modified since snapshot
+     */
+    public boolean isDirty() {
+        return schema.isModified(dto, state);
+    }
+
+    /**
+     * @return names of attributes modified since snapshot
+     */
+    public Set<String> getModifiedAttributes() {
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < schema.size(); i++) {
+            if (schema.isModified(dto, state, i)) {
+                names.add(schema.getName(i));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return delta with new values of modified attributes
+     */
+    public DTODelta createDelta() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < schema.size(); i++) {
+            if (schema.isModified(dto, state, i)) {
+                changes.put(schema.getName(i), schema.getValue(dto, i));
+            }
+        }
+        Object id = null;
+        UUID externalId = null;
+        if (dto instanceof IdentifiedObject) {
+            id = ((IdentifiedObject<?>) dto).getId();
+            externalId = ((IdentifiedObject<?>) dto).getExternalId();
+        }
+        return new DTODelta(dto.getClass(), id, externalId, baseStamp, changes);
+    }
+
+    /**
+     * Takes new snapshot, typically after changes were stored
+     */
+    public void reset() {
+        this.state = schema.snapshot(dto);
+        this.baseStamp = dto instanceof StampedObject ? ((StampedObject<?>) dto).getStamp() : null;
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.dto.tracking;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.vpda.common.dto.model.Attribute;
+import org.vpda.common.dto.model.EmbeddableType;
+import org.vpda.common.dto.model.ManagedType;
+import org.vpda.common.dto.model.SingleAttribute;
+
+/**
+ * Attributes of managed class and the way their values are snapshotted and
+ * compared
+ * 
+ * @author kitko
+ *
+ */
+final class TrackingSchema {
+
+    private enum Kind {
+        /** Compared by equals */
+        VALUE,
+        /** Association to other DTO, compared by identity */
+        ASSOCIATION,
+        /** Collection, shallow copy is compared */
+        COLLECTION,
+        /** Embedded object, its attributes are compared */
+        EMBEDDED
+    }
+
+    private final DTOChangeTracker tracker;
+    private final Attribute<Object, Object>[] attributes;
+    private final Kind[] kinds;
+
+    @SuppressWarnings("unchecked")
+    TrackingSchema(DTOChangeTracker tracker, ManagedType<?> managedType) {
+        this.tracker = tracker;
+        List<Attribute<?, ?>> list = new ArrayList<>(managedType.getAttributes());
+        this.attributes = list.toArray(new Attribute[list.size()]);
+        this.kinds = new Kind[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            kinds[i] = kindOf(attributes[i]);
+        }
+    }
+
+    private static Kind kindOf(Attribute<?, ?> attribute) {
+        if (attribute.isCollection()) {
+            return Kind.COLLECTION;
+        }
+        if (attribute instanceof SingleAttribute && ((SingleAttribute<?, ?>) attribute).getType() instanceof EmbeddableType) {
+            return Kind.EMBEDDED;
+        }
+        return attribute.isAssociation() ? Kind.ASSOCIATION : Kind.VALUE;
+    }
+
+    int size() {
+        return attributes.length;
+    }
+
+    String getName(int index) {
+        return attributes[index].getName();
+    }
+
+    Object getValue(Object dto, int index) {
+        return attributes[index].getValue(dto);
+    }
+
+    /**
+     * @param dto
+     * @return snapshot of current values
+     */
+    Object[] snapshot(Object dto) {
+        Object[] state = new Object[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            state[i] = copy(kinds[i], attributes[i].getValue(dto));
+        }
+        return state;
+    }
+
+    boolean isModified(Object dto, Object[] state, int index) {
+        Object current = attributes[index].getValue(dto);
+        Object old = state[index];
+        switch (kinds[index]) {
+        case ASSOCIATION:
+            return old != current;
+        case EMBEDDED:
+            if (current == null || old == null) {
+                return current != old;
+            }
+            EmbeddedState embedded = (EmbeddedState) old;
+            return embedded.value != current || embedded.schema.isModified(current, embedded.state);
+        default:
+            return !Objects.equals(old, current);
+        }
+    }
+
+    boolean isModified(Object dto, Object[] state) {
+        for (int i = 0; i < attributes.length; i++) {
+            if (isModified(dto, state, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object copy(Kind kind, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (kind) {
+        case COLLECTION:
+            if (value instanceof List) {
+                return new ArrayList<>((List<?>) value);
+            }
+            if (value instanceof Set) {
+                return new LinkedHashSet<>((Set<?>) value);
+            }
+            if (value instanceof Map) {
+                return new LinkedHashMap<>((Map<?, ?>) value);
+            }
+            return value;
+        case EMBEDDED:
+            TrackingSchema schema = tracker.getSchema(value.getClass());
+            return new EmbeddedState(value, schema, schema.snapshot(value));
+        default:
+            return value;
+        }
+    }
+
+    /**
+     * Snapshot of embedded object
+     */
+    private static final class EmbeddedState {
+        private final Object value;
+        private final TrackingSchema schema;
+        private final Object[] state;
+
+        private EmbeddedState(Object value, TrackingSchema schema, Object[] state) {
+            this.value = value;
+            this.schema = schema;
+            this.state = state;
+        }
+    }
+
+}
@@ -14,44 +14,43 @@
  */
 package org.vpda.common.ioc.objectresolver;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
- * Implementation of DynamicMacroObjectResolver
+ * Implementation of DynamicMacroObjectResolver. Resolvers are held in immutable
+ * chain that is replaced on registration changes, so resolving needs no locking
+ * and does not race with registration.
  * 
  * @author kitko
  *
  */
 public final class DynamicMacroObjectResolverImpl implements DynamicMacroObjectResolver {
 
-    private final List<ObjectResolver> resolvers;
+    private volatile ResolverChain chain;
 
     @Override
     public DynamicMacroObjectResolver addResolver(ObjectResolver resolver) {
-        resolvers.add(resolver);
+        synchronized (this) {
+            chain = chain.insert(chain.size(), resolver);
+        }
         return this;
     }
 
     @Override
     public boolean removeResolver(ObjectResolver resolver) {
-        return resolvers.remove(resolver);
+        synchronized (this) {
+            ResolverChain old = chain;
+            chain = old.remove(resolver);
+            return chain != old;
+        }
     }
 
     @Override
-    public synchronized <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
-        for (ObjectResolver resolver : resolvers) {
-            T value = resolver.resolveObject(clazz, contextObjects);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
+    public <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
+        return chain.resolveObject(clazz, contextObjects);
     }
 
     @Override
@@ -71,7 +70,7 @@ public final class DynamicMacroObjectResolverImpl implements DynamicMacroObjectR
      */
     public DynamicMacroObjectResolverImpl(List<ObjectResolver> resolvers) {
         super();
-        this.resolvers = new ArrayList<ObjectResolver>(resolvers);
+        this.chain = ResolverChain.of(resolvers);
     }
 
     /**
@@ -81,56 +80,32 @@ public final class DynamicMacroObjectResolverImpl implements DynamicMacroObjectR
      */
     public DynamicMacroObjectResolverImpl(ObjectResolver... resolvers) {
         super();
-        this.resolvers = new ArrayList<ObjectResolver>();
-        for (ObjectResolver resolver : resolvers) {
-            this.resolvers.add(resolver);
-        }
+        this.chain = ResolverChain.of(Arrays.asList(resolvers));
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz) {
-        for (ObjectResolver resolver : resolvers) {
-            if (resolver.canResolveObject(clazz)) {
-                return true;
-            }
-        }
-        return false;
+        return chain.canResolveObject(clazz);
     }
 
     @Override
-    public synchronized List<ObjectResolver> getResolvers() {
-        return Collections.unmodifiableList(resolvers);
+    public List<ObjectResolver> getResolvers() {
+        return chain.asList();
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz, Object key, Map<?, Object> contextObjects) {
-        for (ObjectResolver resolver : resolvers) {
-            T value = resolver.resolveObject(clazz, key, contextObjects);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
+        return chain.resolveObject(clazz, key, contextObjects);
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz, Object key) {
-        for (ObjectResolver resolver : resolvers) {
-            if (resolver.canResolveObject(clazz, key)) {
-                return true;
-            }
-        }
-        return false;
+        return chain.canResolveObject(clazz, key);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Collection<?> getKeys() {
-        Set set = new HashSet();
-        for (ObjectResolver resolver : resolvers) {
-            set.addAll(resolver.getKeys());
-        }
-        return set;
+        return chain.getKeys();
     }
 
     @Override
@@ -140,7 +115,9 @@ public final class DynamicMacroObjectResolverImpl implements DynamicMacroObjectR
 
     @Override
     public DynamicMacroObjectResolver addResolver(int index, ObjectResolver resolver) {
-        this.resolvers.add(index, resolver);
+        synchronized (this) {
+            chain = chain.insert(index, resolver);
+        }
         return this;
     }
 
@@ -0,0 +1,306 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.ioc.objectresolver;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.vpda.common.util.Builder;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Resolver that snapshots resolver chain into lookup table by class. Leading
+ * resolvers of the chain with fixed content ({@link SingleObjectResolver},
+ * {@link MapObjectResolver} and macros of them) and explicitly frozen types are
+ * compiled into entries, results of matching requested class against them are
+ * memoized in concurrent map owned by the resolver, so resolving by class costs
+ * single map lookup. Classes not found in entries are resolved by rest of the
+ * chain. Lookups by key are always delegated to source chain.
+ * 
+ * Table is released together with the resolver, so resolver can be created per
+ * request as well as for long living environments.
+ * 
+ * @author kitko
+ *
+ */
+public final class FrozenObjectResolver implements ObjectResolver, Serializable {
+    private static final long serialVersionUID = 3154792480652187360L;
+    private static final Object NOT_FOUND = new Object();
+
+    private final ObjectResolver source;
+    private final Map<Class<?>, Object> values;
+    private final Set<Class<?>> frozenTypes;
+    private final ObjectResolver fallback;
+    private final List<Entry> entries;
+    private transient ConcurrentMap<Class<?>, Object> table;
+
+    private FrozenObjectResolver(FrozenObjectResolverBuilder builder) {
+        this.source = Assert.isNotNullArgument(builder.source, "source");
+        this.values = new LinkedHashMap<Class<?>, Object>(builder.values);
+        this.frozenTypes = new LinkedHashSet<Class<?>>(builder.frozenTypes);
+        List<Entry> list = new ArrayList<Entry>();
+        for (Map.Entry<Class<?>, Object> e : builder.values.entrySet()) {
+            list.add(new Entry(e.getKey(), e.getValue(), true));
+        }
+        for (Class<?> type : builder.frozenTypes) {
+            Object value = source.resolveObject(type);
+            if (value != null) {
+                list.add(new Entry(type, value, true));
+            }
+        }
+        List<ObjectResolver> flat = new ArrayList<ObjectResolver>();
+        flatten(source, flat);
+        int firstDynamic = 0;
+        while (firstDynamic < flat.size() && addFixedEntries(flat.get(firstDynamic), list)) {
+            firstDynamic++;
+        }
+        List<ObjectResolver> rest = flat.subList(firstDynamic, flat.size());
+        if (rest.isEmpty()) {
+            this.fallback = EmptyObjectResolver.getInstance();
+        }
+        else if (rest.size() == 1) {
+            this.fallback = rest.get(0);
+        }
+        else {
+            this.fallback = new MacroObjectResolverImpl(new ArrayList<ObjectResolver>(rest));
+        }
+        this.entries = Collections.unmodifiableList(list);
+        this.table = createTable();
+    }
+
+    private static void flatten(ObjectResolver resolver, List<ObjectResolver> flat) {
+        if (resolver instanceof MacroObjectResolverImpl) {
+            for (ObjectResolver r : ((MacroObjectResolverImpl) resolver).getResolvers()) {
+                flatten(r, flat);
+            }
+        }
+        else {
+            flat.add(resolver);
+        }
+    }
+
+    /**
+     * @return true if resolver has fixed content and its entries were added
+     */
+    private static boolean addFixedEntries(ObjectResolver resolver, List<Entry> list) {
+        if (resolver instanceof EmptyObjectResolver) {
+            return true;
+        }
+        if (resolver instanceof SingleObjectResolver) {
+            SingleObjectResolver<?> single = (SingleObjectResolver<?>) resolver;
+            if (single.getValue() != null) {
+                list.add(new Entry(single.getType(), single.getValue(), false));
+            }
+            return true;
+        }
+        if (resolver instanceof MapObjectResolver) {
+            for (Map.Entry<Object, Object> e : ((MapObjectResolver) resolver).getMap().entrySet()) {
+                if (e.getKey() instanceof Class && e.getValue() != null) {
+                    list.add(new Entry((Class<?>) e.getKey(), e.getValue(), true));
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static ConcurrentMap<Class<?>, Object> createTable() {
+        return new ConcurrentHashMap<Class<?>, Object>();
+    }
+
+    private Object lookup(Class<?> type) {
+        Object value = table.get(type);
+        if (value == null) {
+            value = NOT_FOUND;
+            for (Entry e : entries) {
+                if (e.exact ? e.type == type : type.isAssignableFrom(e.type)) {
+                    value = e.value;
+                    break;
+                }
+            }
+            Object previous = table.putIfAbsent(type, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return value;
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        table = createTable();
+    }
+
+    @Override
+    public <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
+        Object value = lookup(clazz);
+        if (value != NOT_FOUND) {
+            return unchecked(value);
+        }
+        return fallback.resolveObject(clazz, contextObjects);
+    }
+
+    @Override
+    public <T> T resolveObject(Class<T> clazz) {
+        return resolveObject(clazz, (Map<?, Object>) null);
+    }
+
+    @Override
+    public <T> T resolveObject(Class<T> clazz, Object key, Map<?, Object> contextObjects) {
+        return source.resolveObject(clazz, key, contextObjects);
+    }
+
+    @Override
+    public <T> T resolveObject(Class<T> clazz, Object key) {
+        return source.resolveObject(clazz, key);
+    }
+
+    @Override
+    public <T> boolean canResolveObject(Class<T> clazz) {
+        return lookup(clazz) != NOT_FOUND || fallback.canResolveObject(clazz);
+    }
+
+    @Override
+    public <T> boolean canResolveObject(Class<T> clazz, Object key) {
+        return source.canResolveObject(clazz, key);
+    }
+
+    @Override
+    public Collection<?> getKeys() {
+        return source.getKeys();
+    }
+
+    /**
+     * @return source resolver chain
+     */
+    public ObjectResolver getSource() {
+        return source;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T unchecked(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Creates frozen resolver for chain
+     * 
+     * @param source
+     * @return frozen resolver
+     */
+    public static FrozenObjectResolver freeze(ObjectResolver source) {
+        return new FrozenObjectResolverBuilder().setSource(source).build();
+    }
+
+    private static final class Entry implements Serializable {
+        private static final long serialVersionUID = -6230761049238163458L;
+        private final Class<?> type;
+        private final Object value;
+        /** Entry matches only same class, otherwise also super types */
+        private final boolean exact;
+
+        Entry(Class<?> type, Object value, boolean exact) {
+            this.type = type;
+            this.value = value;
+            this.exact = exact;
+        }
+    }
+
+    /**
+     * Builder for FrozenObjectResolver
+     * 
+     * @author kitko
+     *
+     */
+    public static final class FrozenObjectResolverBuilder implements Builder<FrozenObjectResolver> {
+        private ObjectResolver source;
+        private final Map<Class<?>, Object> values = new LinkedHashMap<Class<?>, Object>();
+        private final Set<Class<?>> frozenTypes = new LinkedHashSet<Class<?>>();
+
+        /**
+         * @return source chain
+         */
+        public ObjectResolver getSource() {
+            return source;
+        }
+
+        /**
+         * @param source resolver chain to freeze
+         * @return this
+         */
+        public FrozenObjectResolverBuilder setSource(ObjectResolver source) {
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * Adds value resolved for exact type before source chain
+         * 
+         * @param type
+         * @param value
+         * @return this
+         */
+        public <T> FrozenObjectResolverBuilder addValue(Class<T> type, T value) {
+            values.put(Assert.isNotNullArgument(type, "type"), Assert.isNotNullArgument(value, "value"));
+            return this;
+        }
+
+        /**
+         * Types that will be resolved from source once when building and then served
+         * from table. Should be used only for types source always resolves to same
+         * instance.
+         * 
+         * @param types
+         * @return this
+         */
+        public FrozenObjectResolverBuilder addFrozenTypes(Class<?>... types) {
+            for (Class<?> type : types) {
+                frozenTypes.add(Assert.isNotNullArgument(type, "type"));
+            }
+            return this;
+        }
+
+        @Override
+        public FrozenObjectResolver build() {
+            return new FrozenObjectResolver(this);
+        }
+
+        @Override
+        public Class<? extends FrozenObjectResolver> getTargetClass() {
+            return FrozenObjectResolver.class;
+        }
+
+        @Override
+        public FrozenObjectResolverBuilder setValues(FrozenObjectResolver values) {
+            this.source = values.source;
+            this.values.clear();
+            this.values.putAll(values.values);
+            this.frozenTypes.clear();
+            this.frozenTypes.addAll(values.frozenTypes);
+            return this;
+        }
+    }
+
+}
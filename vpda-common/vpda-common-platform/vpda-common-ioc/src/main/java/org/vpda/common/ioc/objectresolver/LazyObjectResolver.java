@@ -18,53 +18,98 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import org.vpda.common.util.exceptions.VPDARuntimeException;
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Resolver that creates its delegate on first use. Supplier is called at most
+ * once, created delegate is safely published to all threads. When supplier
+ * fails, the failure is propagated and supplier will be called again on next
+ * use.
+ * 
+ * @author kitko
+ *
+ */
 public final class LazyObjectResolver implements ObjectResolver {
 
     private final Supplier<ObjectResolver> supplier;
+    private volatile ObjectResolver delegate;
 
+    /**
+     * Creates lazy resolver
+     * 
+     * @param supplier supplier of delegate resolver
+     */
     public LazyObjectResolver(Supplier<ObjectResolver> supplier) {
-        this.supplier = supplier;
+        this.supplier = Assert.isNotNullArgument(supplier, "supplier");
+    }
+
+    /**
+     * @return delegate resolver, created on first call
+     */
+    public ObjectResolver getDelegate() {
+        ObjectResolver d = delegate;
+        if (d == null) {
+            synchronized (this) {
+                d = delegate;
+                if (d == null) {
+                    d = supplier.get();
+                    if (d == null) {
+                        throw new VPDARuntimeException("Supplier of lazy resolver returned null");
+                    }
+                    delegate = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    /**
+     * @return true if delegate was already created
+     */
+    public boolean isInitialized() {
+        return delegate != null;
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
-        return supplier.get().resolveObject(clazz, contextObjects);
+        return getDelegate().resolveObject(clazz, contextObjects);
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz) {
-        // TODO Auto-generated method stub
-        return null;
+        return getDelegate().resolveObject(clazz);
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz, Object key, Map<?, Object> contextObjects) {
-        // TODO Auto-generated method stub
-        return null;
+        return getDelegate().resolveObject(clazz, key, contextObjects);
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz, Object key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getDelegate().resolveObject(clazz, key);
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz) {
-        // TODO Auto-generated method stub
-        return false;
+        return getDelegate().canResolveObject(clazz);
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz, Object key) {
-        // TODO Auto-generated method stub
-        return false;
+        return getDelegate().canResolveObject(clazz, key);
     }
 
     @Override
     public Collection<?> getKeys() {
-        // TODO Auto-generated method stub
-        return null;
+        return getDelegate().getKeys();
+    }
+
+    @Override
+    public String toString() {
+        ObjectResolver d = delegate;
+        return "LazyObjectResolver [" + (d != null ? d.toString() : "not initialized") + "]";
     }
 
 }
@@ -14,35 +14,33 @@
  */
 package org.vpda.common.ioc.objectresolver;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Simple holder of more resolvers. It will delegate resolve calls to hold
- * resolvers in order they were added.
+ * resolvers in order they were added. Resolvers are held in immutable chain, so
+ * resolving needs no locking.
  * 
  * @author kitko
  *
  */
 public final class MacroObjectResolverImpl implements MacroObjectResolver, Serializable {
     private static final long serialVersionUID = 1L;
-    private final List<ObjectResolver> resolvers;
+    /** Serialized form of former list based implementation */
+    private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("resolvers", List.class) };
+    private transient ResolverChain chain;
 
     @Override
-    public synchronized <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
-        for (ObjectResolver resolver : resolvers) {
-            T value = resolver.resolveObject(clazz, contextObjects);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
+    public <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
+        return chain.resolveObject(clazz, contextObjects);
     }
 
     @Override
@@ -62,7 +60,7 @@ public final class MacroObjectResolverImpl implements MacroObjectResolver, Seria
      */
     public MacroObjectResolverImpl(List<ObjectResolver> resolvers) {
         super();
-        this.resolvers = new ArrayList<ObjectResolver>(resolvers);
+        this.chain = ResolverChain.of(resolvers);
     }
 
     /**
@@ -115,56 +113,52 @@ public final class MacroObjectResolverImpl implements MacroObjectResolver, Seria
      */
     public MacroObjectResolverImpl(ObjectResolver... resolvers) {
         super();
-        this.resolvers = new ArrayList<ObjectResolver>();
-        for (ObjectResolver resolver : resolvers) {
-            this.resolvers.add(resolver);
-        }
+        this.chain = new ResolverChain(resolvers.clone());
+    }
+
+    ResolverChain getChain() {
+        return chain;
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz) {
-        for (ObjectResolver resolver : resolvers) {
-            if (resolver.canResolveObject(clazz)) {
-                return true;
-            }
-        }
-        return false;
+        return chain.canResolveObject(clazz);
     }
 
     @Override
-    public synchronized List<ObjectResolver> getResolvers() {
-        return Collections.unmodifiableList(resolvers);
+    public List<ObjectResolver> getResolvers() {
+        return chain.asList();
     }
 
     @Override
     public <T> T resolveObject(Class<T> clazz, Object key, Map<?, Object> contextObjects) {
-        for (ObjectResolver resolver : resolvers) {
-            T value = resolver.resolveObject(clazz, key, contextObjects);
-            if (value != null) {
-                return value;
-            }
-        }
-        return null;
+        return chain.resolveObject(clazz, key, contextObjects);
     }
 
     @Override
     public <T> boolean canResolveObject(Class<T> clazz, Object key) {
-        for (ObjectResolver resolver : resolvers) {
-            if (resolver.canResolveObject(clazz, key)) {
-                return true;
-            }
-        }
-        return false;
+        return chain.canResolveObject(clazz, key);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Collection<?> getKeys() {
-        Set set = new HashSet();
-        for (ObjectResolver resolver : resolvers) {
-            set.addAll(resolver.getKeys());
+        return chain.getKeys();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("resolvers", new ArrayList<ObjectResolver>(chain.asList()));
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        List<ObjectResolver> resolvers = (List<ObjectResolver>) fields.get("resolvers", null);
+        if (resolvers == null) {
+            throw new java.io.InvalidObjectException("Missing resolvers");
         }
-        return set;
+        chain = ResolverChain.of(resolvers);
     }
 
 }
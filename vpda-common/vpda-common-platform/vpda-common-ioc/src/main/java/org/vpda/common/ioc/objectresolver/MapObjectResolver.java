@@ -16,6 +16,7 @@ package org.vpda.common.ioc.objectresolver;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -83,4 +84,11 @@ public final class MapObjectResolver implements ObjectResolver, Serializable {
         return map.keySet();
     }
 
+    /**
+     * @return read only view of held map
+     */
+    Map<Object, Object> getMap() {
+        return Collections.unmodifiableMap(map);
+    }
+
 }
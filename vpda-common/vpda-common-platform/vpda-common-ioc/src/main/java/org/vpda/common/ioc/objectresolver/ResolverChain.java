@@ -0,0 +1,191 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.ioc.objectresolver;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable ordered chain of resolvers shared by macro resolvers. Reads need no
+ * locking. For resolving by class the chain memoizes which resolvers must be
+ * asked: resolvers with fixed content that cannot answer the class are skipped
+ * and when such resolver answers, the rest of chain is not probed. Other
+ * resolvers are always asked in order.
+ * 
+ * @author kitko
+ *
+ */
+final class ResolverChain implements Serializable {
+    private static final long serialVersionUID = -1719244207615863810L;
+
+    private final ObjectResolver[] resolvers;
+    private final boolean[] fixed;
+    private final boolean allFixed;
+    private transient volatile ConcurrentMap<Class<?>, int[]> plans;
+
+    ResolverChain(ObjectResolver[] resolvers) {
+        this.resolvers = resolvers;
+        this.fixed = new boolean[resolvers.length];
+        boolean all = true;
+        for (int i = 0; i < resolvers.length; i++) {
+            fixed[i] = isFixed(resolvers[i]);
+            all &= fixed[i];
+        }
+        this.allFixed = all;
+    }
+
+    static ResolverChain of(Collection<? extends ObjectResolver> resolvers) {
+        return new ResolverChain(resolvers.toArray(new ObjectResolver[resolvers.size()]));
+    }
+
+    /**
+     * @param resolver
+     * @return true if resolver content cannot change and does not depend on
+     *         context objects
+     */
+    private static boolean isFixed(ObjectResolver resolver) {
+        if (resolver instanceof SingleObjectResolver || resolver instanceof MapObjectResolver || resolver instanceof EmptyObjectResolver) {
+            return true;
+        }
+        if (resolver instanceof MacroObjectResolverImpl) {
+            return ((MacroObjectResolverImpl) resolver).getChain().allFixed;
+        }
+        return false;
+    }
+
+    List<ObjectResolver> asList() {
+        return Collections.unmodifiableList(Arrays.asList(resolvers));
+    }
+
+    int size() {
+        return resolvers.length;
+    }
+
+    ResolverChain insert(int index, ObjectResolver resolver) {
+        if (index < 0 || index > resolvers.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + resolvers.length);
+        }
+        ObjectResolver[] n = new ObjectResolver[resolvers.length + 1];
+        System.arraycopy(resolvers, 0, n, 0, index);
+        n[index] = resolver;
+        System.arraycopy(resolvers, index, n, index + 1, resolvers.length - index);
+        return new ResolverChain(n);
+    }
+
+    ResolverChain remove(ObjectResolver resolver) {
+        for (int i = 0; i < resolvers.length; i++) {
+            if (resolver == null ? resolvers[i] == null : resolver.equals(resolvers[i])) {
+                ObjectResolver[] n = new ObjectResolver[resolvers.length - 1];
+                System.arraycopy(resolvers, 0, n, 0, i);
+                System.arraycopy(resolvers, i + 1, n, i, resolvers.length - i - 1);
+                return new ResolverChain(n);
+            }
+        }
+        return this;
+    }
+
+    <T> T resolveObject(Class<T> clazz, Map<?, Object> contextObjects) {
+        for (int i : planFor(clazz)) {
+            T value = resolvers[i].resolveObject(clazz, contextObjects);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    <T> T resolveObject(Class<T> clazz, Object key, Map<?, Object> contextObjects) {
+        for (ObjectResolver resolver : resolvers) {
+            T value = resolver.resolveObject(clazz, key, contextObjects);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    <T> boolean canResolveObject(Class<T> clazz) {
+        for (ObjectResolver resolver : resolvers) {
+            if (resolver.canResolveObject(clazz)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    <T> boolean canResolveObject(Class<T> clazz, Object key) {
+        for (ObjectResolver resolver : resolvers) {
+            if (resolver.canResolveObject(clazz, key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    Collection<?> getKeys() {
+        Set set = new HashSet();
+        for (ObjectResolver resolver : resolvers) {
+            set.addAll(resolver.getKeys());
+        }
+        return set;
+    }
+
+    private int[] planFor(Class<?> clazz) {
+        ConcurrentMap<Class<?>, int[]> map = plans;
+        if (map == null) {
+            synchronized (this) {
+                map = plans;
+                if (map == null) {
+                    map = new ConcurrentHashMap<Class<?>, int[]>();
+                    plans = map;
+                }
+            }
+        }
+        int[] plan = map.get(clazz);
+        if (plan == null) {
+            plan = computePlan(clazz);
+            int[] old = map.putIfAbsent(clazz, plan);
+            if (old != null) {
+                plan = old;
+            }
+        }
+        return plan;
+    }
+
+    private int[] computePlan(Class<?> clazz) {
+        int[] plan = new int[resolvers.length];
+        int size = 0;
+        for (int i = 0; i < resolvers.length; i++) {
+            if (!fixed[i]) {
+                plan[size++] = i;
+            }
+            else if (resolvers[i].resolveObject(clazz, null) != null) {
+                plan[size++] = i;
+                break;
+            }
+        }
+        return size == plan.length ? plan : Arrays.copyOf(plan, size);
+    }
+
+}
@@ -154,4 +154,18 @@ public final class SingleObjectResolver<V> implements ObjectResolver {
         return new SingleObjectResolver<V>(key, type, value);
     }
 
+    /**
+     * @return type of held value
+     */
+    Class<V> getType() {
+        return clazz;
+    }
+
+    /**
+     * @return held value
+     */
+    V getValue() {
+        return value;
+    }
+
 }
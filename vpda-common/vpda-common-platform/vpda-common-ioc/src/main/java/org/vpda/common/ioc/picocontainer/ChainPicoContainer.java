@@ -17,13 +17,22 @@
  */
 package org.vpda.common.ioc.picocontainer;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 import org.picocontainer.ComponentAdapter;
 import org.picocontainer.Disposable;
@@ -37,6 +46,16 @@ import org.picocontainer.lifecycle.LifecycleState;
 import org.vpda.internal.common.util.Assert;
 
 /**
+ * Mutable container that resolves components in own container first and then
+ * in chained containers in order they were added. Container remembers which
+ * chained container resolved given key or type, so repeated lookups do not
+ * probe whole chain. Owner is remembered only when all containers before it
+ * report their changes, negative results only when whole chain does, see
+ * {@link #isChangeTracked()}. Resolution cache is invalidated when this
+ * container or chained ChainPicoContainer is mutated.
+ * When other chained container is mutated directly,
+ * {@link #invalidateResolutionCache()} should be called.
+ * 
  * @author kitko
  *
  */
@@ -47,12 +66,25 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
 
     private final List<PicoContainer> chain;
 
+    private transient volatile ResolutionIndex resolutionIndex;
+
+    private transient List<WeakReference<ChainPicoContainer>> dependents;
+
+    private static final Object NOT_FOUND = new Object();
+    private static final int COMPONENT_BY_KEY = 0;
+    private static final int COMPONENT_BY_KEY_INTO = 1;
+    private static final int COMPONENT_BY_TYPE = 2;
+    private static final int COMPONENT_BY_TYPE_BINDING = 3;
+    private static final int ADAPTER_BY_KEY = 4;
+    private static final int ADAPTER_BY_TYPE_BINDING = 5;
+
     /**
      * Creates Chained pico container
      */
     public ChainPicoContainer() {
         this.mutableDelegate = new ChangeAdapterContainer(this);
-        chain = new ArrayList<PicoContainer>();
+        chain = new CopyOnWriteArrayList<PicoContainer>();
+        resolutionIndex = new ResolutionIndex(chain);
     }
 
     /**
@@ -62,21 +94,121 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
      */
     public ChainPicoContainer(MutablePicoContainer mutableDelegate) {
         this.mutableDelegate = Assert.isNotNullArgument(mutableDelegate, "mutableDelegate");
-        chain = new ArrayList<PicoContainer>();
+        chain = new CopyOnWriteArrayList<PicoContainer>();
+        resolutionIndex = new ResolutionIndex(chain);
     }
 
-    @Override
-    public ComponentAdapter<?> getComponentAdapter(final Object componentKey) {
-        ComponentAdapter<?> adapter = mutableDelegate.getComponentAdapter(componentKey);
-        if (adapter == null) {
-            for (PicoContainer container : chain) {
-                adapter = container.getComponentAdapter(componentKey);
-                if (adapter != null) {
-                    break;
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        resolutionIndex = new ResolutionIndex(chain);
+        for (PicoContainer c : chain) {
+            if (c instanceof ChainPicoContainer) {
+                ((ChainPicoContainer) c).addDependent(this);
+            }
+        }
+    }
+
+    private synchronized void addDependent(ChainPicoContainer dependent) {
+        if (dependents == null) {
+            dependents = new CopyOnWriteArrayList<WeakReference<ChainPicoContainer>>();
+        }
+        dependents.add(new WeakReference<ChainPicoContainer>(dependent));
+    }
+
+    /**
+     * Drops remembered resolution of keys and types in this container and in
+     * containers that depend on it. Must be called when chained container that is
+     * not ChainPicoContainer was mutated directly.
+     */
+    public void invalidateResolutionCache() {
+        invalidateResolutionCache(Collections.newSetFromMap(new IdentityHashMap<ChainPicoContainer, Boolean>()));
+    }
+
+    private void invalidateResolutionCache(Set<ChainPicoContainer> visited) {
+        if (!visited.add(this)) {
+            return;
+        }
+        resolutionIndex = new ResolutionIndex(chain);
+        List<WeakReference<ChainPicoContainer>> deps;
+        synchronized (this) {
+            deps = dependents;
+        }
+        if (deps != null) {
+            for (WeakReference<ChainPicoContainer> ref : deps) {
+                ChainPicoContainer dependent = ref.get();
+                if (dependent != null) {
+                    dependent.invalidateResolutionCache(visited);
+                }
+                else {
+                    deps.remove(ref);
                 }
             }
         }
-        return adapter;
+    }
+
+    /**
+     * Resolves value in own container and then in chain using resolution index
+     * 
+     * @param kind
+     * @param key
+     * @param qualifier
+     * @param lookup
+     * @return resolved value or null
+     */
+    private <R> R resolve(int kind, Object key, Object qualifier, Function<PicoContainer, R> lookup) {
+        R result = lookup.apply(mutableDelegate);
+        if (result != null) {
+            return result;
+        }
+        ResolutionIndex index = resolutionIndex;
+        if (key == null) {
+            return index.scan(lookup, 0);
+        }
+        LookupKey lookupKey = new LookupKey(kind, key, qualifier);
+        Object owner = index.owners.get(lookupKey);
+        if (owner == NOT_FOUND) {
+            return null;
+        }
+        if (owner != null) {
+            int i = (Integer) owner;
+            result = lookup.apply(index.chain[i]);
+            if (result != null) {
+                return result;
+            }
+            // Owner lost the component, forget it and probe whole chain again
+            index.owners.remove(lookupKey, owner);
+        }
+        for (int i = 0; i < index.chain.length; i++) {
+            result = lookup.apply(index.chain[i]);
+            if (result != null) {
+                if (i <= index.trackedPrefix) {
+                    index.owners.put(lookupKey, Integer.valueOf(i));
+                }
+                return result;
+            }
+        }
+        if (index.trackedPrefix == index.chain.length) {
+            index.owners.put(lookupKey, NOT_FOUND);
+        }
+        return null;
+    }
+
+    @Override
+    public ComponentAdapter<?> getComponentAdapter(final Object componentKey) {
+        return resolve(ADAPTER_BY_KEY, componentKey, null, c -> c.getComponentAdapter(componentKey));
+    }
+
+    /**
+     * Container is change tracked when it reports all its changes to dependent
+     * containers. It must use own internal delegate and all containers in its
+     * chain must be change tracked too.
+     * 
+     * @return true if every change of this container invalidates dependent
+     *         containers
+     */
+    public boolean isChangeTracked() {
+        ResolutionIndex index = resolutionIndex;
+        return mutableDelegate instanceof ChangeAdapterContainer && index != null && index.trackedPrefix == index.chain.length;
     }
 
     /**
@@ -88,69 +220,36 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
         if (container == this) {
             throw new IllegalArgumentException("Cannot depend on itself");
         }
-        if (!this.chain.contains(container)) {
+        synchronized (this.chain) {
+            if (this.chain.contains(container)) {
+                return;
+            }
             this.chain.add(container);
         }
+        if (container instanceof ChainPicoContainer) {
+            ((ChainPicoContainer) container).addDependent(this);
+        }
+        invalidateResolutionCache();
     }
 
     @Override
     public Object getComponent(Object componentKeyOrType) {
-        Object component = mutableDelegate.getComponent(componentKeyOrType);
-        if (component != null) {
-            return component;
-        }
-        for (PicoContainer c : chain) {
-            component = c.getComponent(componentKeyOrType);
-            if (component != null) {
-                return component;
-            }
-        }
-        return null;
+        return resolve(COMPONENT_BY_KEY, componentKeyOrType, null, c -> c.getComponent(componentKeyOrType));
     }
 
     @Override
     public Object getComponent(Object componentKeyOrType, Type into) {
-        Object component = mutableDelegate.getComponent(componentKeyOrType, into);
-        if (component != null) {
-            return component;
-        }
-        for (PicoContainer c : chain) {
-            component = c.getComponent(componentKeyOrType, into);
-            if (component != null) {
-                return component;
-            }
-        }
-        return null;
+        return resolve(COMPONENT_BY_KEY_INTO, componentKeyOrType, into, c -> c.getComponent(componentKeyOrType, into));
     }
 
     @Override
     public <T> T getComponent(Class<T> componentType) {
-        T component = mutableDelegate.getComponent(componentType);
-        if (component != null) {
-            return component;
-        }
-        for (PicoContainer c : chain) {
-            component = c.getComponent(componentType);
-            if (component != null) {
-                return component;
-            }
-        }
-        return null;
+        return resolve(COMPONENT_BY_TYPE, componentType, null, c -> c.getComponent(componentType));
     }
 
     @Override
     public <T> T getComponent(Class<T> componentType, Class<? extends Annotation> binding) {
-        T component = mutableDelegate.getComponent(componentType, binding);
-        if (component != null) {
-            return component;
-        }
-        for (PicoContainer c : chain) {
-            component = c.getComponent(componentType, binding);
-            if (component != null) {
-                return component;
-            }
-        }
-        return null;
+        return resolve(COMPONENT_BY_TYPE_BINDING, componentType, binding, c -> c.getComponent(componentType, binding));
     }
 
     @Override
@@ -185,17 +284,7 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
 
     @Override
     public <T> ComponentAdapter<T> getComponentAdapter(Class<T> componentType, Class<? extends Annotation> binding) {
-        ComponentAdapter<T> adapter = mutableDelegate.getComponentAdapter(componentType, binding);
-        if (adapter != null) {
-            return adapter;
-        }
-        for (PicoContainer c : chain) {
-            adapter = c.getComponentAdapter(componentType, binding);
-            if (adapter != null) {
-                return adapter;
-            }
-        }
-        return null;
+        return resolve(ADAPTER_BY_TYPE_BINDING, componentType, binding, c -> c.getComponentAdapter(componentType, binding));
     }
 
     @Override
@@ -280,35 +369,43 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
     @Override
     public MutablePicoContainer addComponent(Object componentKey, Object componentImplementationOrInstance, Parameter... parameters) {
         mutableDelegate.addComponent(componentKey, componentImplementationOrInstance, parameters);
+        invalidateResolutionCache();
         return this;
     }
 
     @Override
     public MutablePicoContainer addComponent(Object implOrInstance) {
         mutableDelegate.addComponent(implOrInstance);
+        invalidateResolutionCache();
         return this;
     }
 
     @Override
     public MutablePicoContainer addConfig(String name, Object val) {
         mutableDelegate.addConfig(name, val);
+        invalidateResolutionCache();
         return this;
     }
 
     @Override
     public MutablePicoContainer addAdapter(ComponentAdapter<?> componentAdapter) {
         mutableDelegate.addAdapter(componentAdapter);
+        invalidateResolutionCache();
         return this;
     }
 
     @Override
     public <T> ComponentAdapter<T> removeComponent(Object componentKey) {
-        return mutableDelegate.removeComponent(componentKey);
+        ComponentAdapter<T> adapter = mutableDelegate.removeComponent(componentKey);
+        invalidateResolutionCache();
+        return adapter;
     }
 
     @Override
     public <T> ComponentAdapter<T> removeComponentByInstance(T componentInstance) {
-        return mutableDelegate.removeComponentByInstance(componentInstance);
+        ComponentAdapter<T> adapter = mutableDelegate.removeComponentByInstance(componentInstance);
+        invalidateResolutionCache();
+        return adapter;
     }
 
     @Override
@@ -365,4 +462,68 @@ public final class ChainPicoContainer implements MutablePicoContainer, Serializa
         return getName();
     }
 
+    /**
+     * Snapshot of chain with remembered owners of keys
+     */
+    private static final class ResolutionIndex {
+        private final PicoContainer[] chain;
+        private final ConcurrentMap<LookupKey, Object> owners = new ConcurrentHashMap<>();
+        /**
+         * Number of leading chained containers that report their changes. Owner at
+         * index i is remembered only if i &lt;= trackedPrefix, misses only if whole
+         * chain is tracked.
+         */
+        private final int trackedPrefix;
+
+        ResolutionIndex(List<PicoContainer> chain) {
+            this.chain = chain.toArray(new PicoContainer[0]);
+            int tracked = 0;
+            while (tracked < this.chain.length && this.chain[tracked] instanceof ChainPicoContainer && ((ChainPicoContainer) this.chain[tracked]).isChangeTracked()) {
+                tracked++;
+            }
+            this.trackedPrefix = tracked;
+        }
+
+        <R> R scan(Function<PicoContainer, R> lookup, int start) {
+            for (int i = start; i < chain.length; i++) {
+                R result = lookup.apply(chain[i]);
+                if (result != null) {
+                    return result;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class LookupKey {
+        private final int kind;
+        private final Object key;
+        private final Object qualifier;
+        private final int hash;
+
+        LookupKey(int kind, Object key, Object qualifier) {
+            this.kind = kind;
+            this.key = key;
+            this.qualifier = qualifier;
+            this.hash = 31 * (31 * kind + key.hashCode()) + (qualifier != null ? qualifier.hashCode() : 0);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey other = (LookupKey) obj;
+            return kind == other.kind && key.equals(other.key) && (qualifier == null ? other.qualifier == null : qualifier.equals(other.qualifier));
+        }
+    }
+
 }
@@ -29,8 +29,11 @@ public final class LocalizationCacheKey implements Serializable {
     private static final long serialVersionUID = 6206380407791926104L;
     private final LocKey key;
     private final TenementalContext context;
+    private transient int hash;
 
     /**
+     * Context should be canonical, see {@link TenementalContext#create(org.vpda.common.context.ApplContext, java.util.Locale, org.vpda.common.context.DateContext)}
+     * 
      * @param key
      * @param context
      */
@@ -58,10 +61,14 @@ public final class LocalizationCacheKey implements Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((context == null) ? 0 : context.hashCode());
-        result = prime * result + ((key == null) ? 0 : key.hashCode());
+        int result = hash;
+        if (result == 0) {
+            final int prime = 31;
+            result = 1;
+            result = prime * result + ((context == null) ? 0 : context.hashCode());
+            result = prime * result + ((key == null) ? 0 : key.hashCode());
+            hash = result;
+        }
         return result;
     }
 
@@ -74,11 +81,14 @@ public final class LocalizationCacheKey implements Serializable {
         if (getClass() != obj.getClass())
             return false;
         LocalizationCacheKey other = (LocalizationCacheKey) obj;
+        if (hashCode() != other.hashCode()) {
+            return false;
+        }
         if (context == null) {
             if (other.context != null)
                 return false;
         }
-        else if (!context.equals(other.context))
+        else if (context != other.context && !context.equals(other.context))
             return false;
         if (key == null) {
             if (other.key != null)
@@ -31,8 +31,11 @@ public final class LocalizationCacheKeyWithClass implements Serializable {
     private final LocKey key;
     private final TenementalContext context;
     private final Class<? extends LocValue> clazz;
+    private transient int hash;
 
     /**
+     * Context should be canonical, see {@link TenementalContext#create(org.vpda.common.context.ApplContext, java.util.Locale, org.vpda.common.context.DateContext)}
+     * 
      * @param key
      * @param context
      * @param clazz
@@ -70,12 +73,20 @@ public final class LocalizationCacheKeyWithClass implements Serializable {
             return false;
         }
         LocalizationCacheKeyWithClass localizationCacheKey = (LocalizationCacheKeyWithClass) obj;
-        return key.equals(localizationCacheKey.key) && ObjectUtil.equalsConsiderNull(context, localizationCacheKey.context) && ObjectUtil.equalsConsiderNull(clazz, localizationCacheKey.clazz);
+        if (hashCode() != localizationCacheKey.hashCode()) {
+            return false;
+        }
+        return key.equals(localizationCacheKey.key) && (context == localizationCacheKey.context || ObjectUtil.equalsConsiderNull(context, localizationCacheKey.context)) && ObjectUtil.equalsConsiderNull(clazz, localizationCacheKey.clazz);
     }
 
     @Override
     public int hashCode() {
-        return key.hashCode() ^ ObjectUtil.hashCodeConsiderNull(context) ^ ObjectUtil.hashCodeConsiderNull(clazz);
+        int result = hash;
+        if (result == 0) {
+            result = key.hashCode() ^ ObjectUtil.hashCodeConsiderNull(context) ^ ObjectUtil.hashCodeConsiderNull(clazz);
+            hash = result;
+        }
+        return result;
     }
 
     @Override
@@ -14,8 +14,9 @@
  */
 package org.vpda.common.service.localization;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.text.MessageFormat;
+import java.util.Locale;
 
 import org.vpda.common.context.TenementalContext;
 import org.vpda.common.context.localization.LocKey;
@@ -38,6 +39,9 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
     private static final String NOT_FOUND_STRING = "NOT_FOUND";
     private final LocalizationValueResolver localizationValueResolver;
     private final LocValueBuilderFactory locValueBuilderFactory;
+    private final SingleFlightLoader<LocalizationCacheKey, String> stringLoader = new SingleFlightLoader<>();
+    private final SingleFlightLoader<LocalizationCacheKeyWithClass, LocValue> locDataLoader = new SingleFlightLoader<>();
+    private transient MessageTemplateCache templateCache = new MessageTemplateCache();
 
     static final String DEF_LOC_CACHE_MANAGER_NAME = "LOCALIZATION";
 
@@ -80,25 +84,54 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
     }
 
     @Override
-    public synchronized String localizeMessage(LocKey locKey, TenementalContext context, String defaultValue, Object... params) {
+    public String localizeMessage(LocKey locKey, TenementalContext context, String defaultValue, Object... params) {
         String value = localizeString(locKey, context);
         if (value == null) {
             return defaultValue;
         }
         if (params != null && params.length > 0) {
-            value = MessageFormat.format(value, params);
+            value = getMessageTemplate(value).format(params);
         }
         return value;
     }
 
+    /**
+     * Localizes message and appends it to passed builder. Same as
+     * {@link #localizeMessage(LocKey, TenementalContext, String, Object...)} but
+     * without creating result string
+     * 
+     * @param target
+     * @param locKey
+     * @param context
+     * @param defaultValue
+     * @param params
+     * @return target
+     */
+    public StringBuilder appendMessage(StringBuilder target, LocKey locKey, TenementalContext context, String defaultValue, Object... params) {
+        String value = localizeString(locKey, context);
+        if (value == null) {
+            return defaultValue != null ? target.append(defaultValue) : target;
+        }
+        if (params != null && params.length > 0) {
+            return getMessageTemplate(value).formatTo(target, params);
+        }
+        return target.append(value);
+    }
+
+    private MessageTemplate getMessageTemplate(String pattern) {
+        // Same locale as MessageFormat.format(String, Object...) uses
+        return templateCache.getTemplate(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
     @Override
-    public synchronized String localizeMessage(LocKey locKey, TenementalContext context, Object... params) {
+    public String localizeMessage(LocKey locKey, TenementalContext context, Object... params) {
         return localizeMessage(locKey, context, null, params);
     }
 
     @Override
-    public synchronized void clearData() {
+    public void clearData() {
         cache.clearData();
+        templateCache.clearData();
     }
 
     @Override
@@ -117,7 +150,7 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
 
     @Override
     @SuppressWarnings("unchecked")
-    public synchronized <T extends LocValue> T localizeData(LocKey locKey, TenementalContext context, LocValueBuilder<T> builder, T defaultValue, LocDataArguments params) {
+    public <T extends LocValue> T localizeData(LocKey locKey, TenementalContext context, LocValueBuilder<T> builder, T defaultValue, LocDataArguments params) {
         if (locKey == null) {
             throw new IllegalArgumentException("Key argument is null");
         }
@@ -137,8 +170,12 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
                     return value;
                 }
             }
-            value = builder.localizeData(locValueBuilderFactory, this, locKey, context, params);
-            cache.putLocData(cacheKey, value != null ? value : NOT_FOUND_VALUE);
+            LocValue loaded = locDataLoader.load(cacheKey, () -> {
+                LocValue v = builder.localizeData(locValueBuilderFactory, this, locKey, context, params);
+                cache.putLocData(cacheKey, v != null ? v : NOT_FOUND_VALUE);
+                return v != null ? v : NOT_FOUND_VALUE;
+            });
+            return loaded == NOT_FOUND_VALUE ? defaultValue : (T) loaded;
         }
         else {
             value = builder.localizeData(locValueBuilderFactory, this, locKey, context, params);
@@ -147,7 +184,7 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
     }
 
     @Override
-    public synchronized String localizeString(LocKey locKey, TenementalContext context) {
+    public String localizeString(LocKey locKey, TenementalContext context) {
         return localizeString(locKey, context, null);
     }
 
@@ -165,11 +202,18 @@ public final class LocalizationServiceImpl implements LocalizationService, Clear
         if (value != null) {
             return value == NOT_FOUND_STRING ? defaultValue : value;
         }
-        else {
-            value = localizationValueResolver.resolveValue(locKey, context);
-            cache.putStringData(cacheKey, value != null ? value : NOT_FOUND_STRING);
-            return value != null ? value : defaultValue;
-        }
+        // 2 Resolve once for all threads missing the same key
+        value = stringLoader.load(cacheKey, () -> {
+            String v = localizationValueResolver.resolveValue(locKey, context);
+            cache.putStringData(cacheKey, v != null ? v : NOT_FOUND_STRING);
+            return v != null ? v : NOT_FOUND_STRING;
+        });
+        return value == NOT_FOUND_STRING ? defaultValue : value;
+    }
+
+    private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        templateCache = new MessageTemplateCache();
     }
 
     @Override
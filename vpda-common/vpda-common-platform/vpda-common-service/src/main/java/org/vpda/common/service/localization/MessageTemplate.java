@@ -0,0 +1,199 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.service.localization;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+import org.vpda.internal.common.util.Assert;
+
+/**
+ * Compiled, thread safe {@link MessageFormat} pattern. Pattern is parsed once
+ * to literal parts and argument slots. Arguments without format type that are
+ * not numbers or dates are appended directly, other messages are formatted by
+ * copy of precompiled {@link MessageFormat}. Output is same as from
+ * {@link MessageFormat#format(Object)}.
+ * 
+ * @author kitko
+ *
+ */
+public final class MessageTemplate {
+    private final String pattern;
+    private final Locale locale;
+    private final MessageFormat prototype;
+    /** Literal parts, String, or argument indexes, Integer; null if not simple */
+    private final Object[] parts;
+
+    private MessageTemplate(String pattern, Locale locale) {
+        this.pattern = pattern;
+        this.locale = locale;
+        this.prototype = new MessageFormat(pattern, locale);
+        Object[] parsed = parse(pattern);
+        if (parsed != null) {
+            int slots = 0;
+            for (Object p : parsed) {
+                if (p instanceof Integer) {
+                    slots++;
+                }
+            }
+            if (slots != prototype.getFormats().length) {
+                parsed = null;
+            }
+        }
+        this.parts = parsed;
+    }
+
+    /**
+     * Compiles pattern
+     * 
+     * @param pattern MessageFormat pattern
+     * @param locale  locale used for number and date arguments
+     * @return compiled template
+     */
+    public static MessageTemplate compile(String pattern, Locale locale) {
+        Assert.isNotNullArgument(pattern, "pattern");
+        Assert.isNotNullArgument(locale, "locale");
+        return new MessageTemplate(pattern, locale);
+    }
+
+    /**
+     * @return source pattern
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the locale
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * Formats message
+     * 
+     * @param args
+     * @return formatted message
+     */
+    public String format(Object... args) {
+        return formatTo(new StringBuilder(pattern.length() + 16), args).toString();
+    }
+
+    /**
+     * Formats message into passed builder
+     * 
+     * @param target
+     * @param args
+     * @return target
+     */
+    public StringBuilder formatTo(StringBuilder target, Object... args) {
+        if (parts == null || !isSimple(args)) {
+            MessageFormat format = (MessageFormat) prototype.clone();
+            return target.append(format.format(args, new StringBuffer(pattern.length() + 16), null));
+        }
+        for (Object p : parts) {
+            if (p instanceof String) {
+                target.append((String) p);
+                continue;
+            }
+            int index = (Integer) p;
+            if (args == null || index >= args.length) {
+                target.append('{').append(index).append('}');
+            }
+            else {
+                target.append(args[index]);
+            }
+        }
+        return target;
+    }
+
+    private boolean isSimple(Object[] args) {
+        if (args == null) {
+            return true;
+        }
+        for (Object p : parts) {
+            if (p instanceof Integer) {
+                int index = (Integer) p;
+                if (index < args.length && (args[index] instanceof Number || args[index] instanceof Date)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse pattern to literals and simple argument indexes
+     * 
+     * @param pattern
+     * @return parts or null if pattern contains argument with format type
+     */
+    private static Object[] parse(String pattern) {
+        List<Object> parts = new ArrayList<Object>();
+        StringBuilder literal = new StringBuilder();
+        boolean quoted = false;
+        int len = pattern.length();
+        for (int i = 0; i < len; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < len && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                }
+                else {
+                    quoted = !quoted;
+                }
+            }
+            else if (c == '{' && !quoted) {
+                int end = pattern.indexOf('}', i + 1);
+                if (end < 0) {
+                    return null;
+                }
+                String arg = pattern.substring(i + 1, end);
+                if (arg.isEmpty()) {
+                    return null;
+                }
+                for (int j = 0; j < arg.length(); j++) {
+                    if (arg.charAt(j) < '0' || arg.charAt(j) > '9') {
+                        return null;
+                    }
+                }
+                if (literal.length() > 0) {
+                    parts.add(literal.toString());
+                    literal.setLength(0);
+                }
+                parts.add(Integer.valueOf(arg));
+                i = end;
+            }
+            else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            parts.add(literal.toString());
+        }
+        return parts.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "MessageTemplate [pattern=" + pattern + ", locale=" + locale + "]";
+    }
+
+}
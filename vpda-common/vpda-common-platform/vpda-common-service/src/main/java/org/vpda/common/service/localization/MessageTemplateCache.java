@@ -0,0 +1,63 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.service.localization;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.vpda.common.service.Clearable;
+
+/**
+ * Cache of compiled {@link MessageTemplate} per pattern and locale. Template
+ * depends only on them, so number of cached templates is bounded by number of
+ * localized patterns, not by number of contexts.
+ * 
+ * @author kitko
+ *
+ */
+public final class MessageTemplateCache implements Clearable {
+
+    private final ConcurrentMap<Locale, ConcurrentMap<String, MessageTemplate>> templates = new ConcurrentHashMap<>(2);
+
+    /**
+     * Gets or compiles template for localized pattern
+     * 
+     * @param pattern localized pattern
+     * @param locale
+     * @return compiled template
+     */
+    public MessageTemplate getTemplate(String pattern, Locale locale) {
+        ConcurrentMap<String, MessageTemplate> localeTemplates = templates.get(locale);
+        if (localeTemplates == null) {
+            localeTemplates = templates.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+        }
+        MessageTemplate template = localeTemplates.get(pattern);
+        if (template == null) {
+            template = MessageTemplate.compile(pattern, locale);
+            MessageTemplate old = localeTemplates.putIfAbsent(pattern, template);
+            if (old != null) {
+                template = old;
+            }
+        }
+        return template;
+    }
+
+    @Override
+    public void clearData() {
+        templates.clear();
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.service.localization;
+
+import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.vpda.common.util.exceptions.VPDARuntimeException;
+
+/**
+ * Coalesces concurrent loads of same key. First thread that misses the key
+ * runs the loader, other threads wait for its result. Nested load of the same
+ * key by owning thread runs the loader directly. Thread also loads directly
+ * when waiting would close cycle of threads waiting for each other, e.g. when
+ * it loads A needing B while other thread loads B needing A.
+ * 
+ * @author kitko
+ *
+ * @param <K>
+ * @param <V>
+ */
+final class SingleFlightLoader<K, V> implements Serializable {
+    private static final long serialVersionUID = 7021534907834616721L;
+    /** Flight each waiting thread waits for, shared so cycles over more loaders are found */
+    private static final ConcurrentMap<Thread, Flight<?>> WAITING = new ConcurrentHashMap<>();
+    private transient ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Loads value for key, only one loader runs for the key at a time
+     * 
+     * @param key
+     * @param loader
+     * @return loaded value
+     */
+    V load(K key, Supplier<V> loader) {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = flights.putIfAbsent(key, flight);
+        if (running != null) {
+            Thread current = Thread.currentThread();
+            if (running.owner == current) {
+                return loader.get();
+            }
+            WAITING.put(current, running);
+            try {
+                if (closesCycle(running, current)) {
+                    WAITING.remove(current);
+                    return loader.get();
+                }
+                return running.result.join();
+            }
+            catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new VPDARuntimeException("Cannot load value for key " + key, cause);
+            }
+            finally {
+                WAITING.remove(current);
+            }
+        }
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        }
+        catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Follows owners of flights and flights they wait for. Waiting thread is
+     * registered before the check, so of two threads closing the cycle at
+     * least one finds it.
+     */
+    private static boolean closesCycle(Flight<?> flight, Thread current) {
+        int steps = WAITING.size();
+        for (Flight<?> f = flight; f != null && steps-- >= 0; f = WAITING.get(f.owner)) {
+            if (f.owner == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Object readResolve() {
+        return new SingleFlightLoader<K, V>();
+    }
+
+    private static final class Flight<V> {
+        private final Thread owner = Thread.currentThread();
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+    }
+
+}
@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
@@ -49,6 +51,7 @@ public final class URLsLocalizationValueResolver implements LocalizationValueRes
     private final static String NOT_FOUND_VALUE = "notFound";
     private final static String ALREADY_SCANNED = "alreadyScanned";
     private final URLsLocalizationValueResolverCache cache;
+    private transient ConcurrentMap<URLLocCacheKey, Object> scanLocks = new ConcurrentHashMap<>();
 
     /**
      * Creates ModulesLocalizationValueResolver
@@ -79,6 +82,7 @@ public final class URLsLocalizationValueResolver implements LocalizationValueRes
 
     private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
+        scanLocks = new ConcurrentHashMap<>();
         try {
             vfsManager = VFS.getManager();
         }
@@ -97,15 +101,27 @@ public final class URLsLocalizationValueResolver implements LocalizationValueRes
         return value;
     }
 
-    private synchronized String resolveValueForLocale(LocKey key, Locale locale) {
+    private String resolveValueForLocale(LocKey key, Locale locale) {
         URLLocCacheKey cacheKey = new URLLocCacheKey(key.getPath(), locale);
         String value = resolveCachedValue(cacheKey);
         if (value != null) {
-            if (NOT_FOUND_VALUE.equals(value)) {
-                return null;
+            return NOT_FOUND_VALUE.equals(value) ? null : value;
+        }
+        // Scanning of files under same root path and locale is serialized, cache hits
+        // are lock free
+        String[] pathParts = key.getPathParts();
+        URLLocCacheKey lockKey = new URLLocCacheKey(pathParts.length > 0 ? pathParts[0] : "", locale);
+        Object lock = scanLocks.computeIfAbsent(lockKey, k -> new Object());
+        synchronized (lock) {
+            value = resolveCachedValue(cacheKey);
+            if (value != null) {
+                return NOT_FOUND_VALUE.equals(value) ? null : value;
             }
-            return value;
+            return scanValueForLocale(key, locale, cacheKey);
         }
+    }
+
+    private String scanValueForLocale(LocKey key, Locale locale, URLLocCacheKey cacheKey) {
         LocKey tmp = key;
         while (tmp.hasParrent()) {
             tmp = tmp.createParrentKey();
@@ -130,7 +146,7 @@ public final class URLsLocalizationValueResolver implements LocalizationValueRes
         catch (IOException e) {
             throw new VPDARuntimeException("Cannot search for localization file", e);
         }
-        value = resolveCachedValue(cacheKey);
+        String value = resolveCachedValue(cacheKey);
         if (value == null) {
             cache.putData(cacheKey, NOT_FOUND_VALUE);
         }
@@ -14,6 +14,7 @@
  */
 package org.vpda.common.util.logging;
 
+import java.lang.StackWalker.Option;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.LogRecord;
@@ -22,7 +23,10 @@ import java.util.logging.Logger;
 import org.vpda.common.util.exceptions.VPDARuntimeException;
 
 /**
- * This is java util.Logger with method tracing support
+ * This is java util.Logger with method tracing support. Method timers can be
+ * also recorded into {@link MethodTraceRecorder}, recording works even when
+ * level of timer is not loggable, so timing can stay on without formatting log
+ * lines.
  * 
  * @author kitko
  *
@@ -30,6 +34,8 @@ import org.vpda.common.util.exceptions.VPDARuntimeException;
 public final class LoggerMethodTracer extends Logger {
 
     private static volatile boolean logToSysoutOnly;
+    private static volatile MethodTraceRecorder methodTraceRecorder;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE);
 
     /** How we should log method progress */
     public static enum MethodProgressLogTimes {
@@ -55,6 +61,21 @@ public final class LoggerMethodTracer extends Logger {
         LoggerMethodTracer.logToSysoutOnly = logToSysoutOnly;
     }
 
+    /**
+     * @return recorder of method timers or null if recording is off
+     */
+    public static MethodTraceRecorder getMethodTraceRecorder() {
+        return methodTraceRecorder;
+    }
+
+    /**
+     * @param methodTraceRecorder recorder of method timers, null turns recording
+     *                            off
+     */
+    public static void setMethodTraceRecorder(MethodTraceRecorder methodTraceRecorder) {
+        LoggerMethodTracer.methodTraceRecorder = methodTraceRecorder;
+    }
+
     /**
      * Creates new Logger
      * 
@@ -107,16 +128,25 @@ public final class LoggerMethodTracer extends Logger {
      * @return new Timer if level is loggable
      */
     private MethodTimer createTimer(Level level, String createId, String msg, Object... args) {
-        if (!isLoggable(level)) {
+        if (!isLoggable(level) && methodTraceRecorder == null) {
             return null;
         }
-        LogRecord record = new LogRecord(level, msg);
-        record.setParameters(args);
-        inferCaller(record);
-        if (msg != null) {
+        return createTimer(level, inferCallerSite(), createId, msg, args);
+    }
+
+    private MethodTimer createTimer(Level level, MethodTraceSite site, String createId, String msg, Object... args) {
+        boolean loggable = isLoggable(level);
+        if (!loggable && methodTraceRecorder == null) {
+            return null;
+        }
+        if (msg != null && loggable) {
+            LogRecord record = new LogRecord(level, msg);
+            record.setParameters(args);
+            record.setSourceClassName(site.getClassName());
+            record.setSourceMethodName(site.getMethodName());
             log(record);
         }
-        return new MethodTimer(level, record.getSourceClassName(), record.getSourceMethodName(), createId);
+        return new MethodTimer(level, site, createId);
     }
 
     /**
@@ -141,6 +171,32 @@ public final class LoggerMethodTracer extends Logger {
         return createTimer(level, "Entry", msg, args);
     }
 
+    /**
+     * Log method entry to logger using explicit site, no caller inference is
+     * done
+     * 
+     * @param level
+     * @param site
+     * @return MethodTimer
+     */
+    public MethodTimer methodEntry(Level level, MethodTraceSite site) {
+        return createTimer(level, site, "Entry", "Entry");
+    }
+
+    /**
+     * Log method entry to logger using explicit site, no caller inference is
+     * done
+     * 
+     * @param level
+     * @param site
+     * @param msg
+     * @param args
+     * @return MethodTimer
+     */
+    public MethodTimer methodEntry(Level level, MethodTraceSite site, String msg, Object... args) {
+        return createTimer(level, site, "Entry", msg, args);
+    }
+
     /**
      * @param level
      * @param timer
@@ -163,11 +219,25 @@ public final class LoggerMethodTracer extends Logger {
      * @return MethodTimer
      */
     public MethodTimer methodProgress(Level level, MethodTimer timer, MethodProgressLogTimes methodProgressLogTimes, String progressId, String msg, Object... args) {
-        if (timer == null || !isLoggable(level)) {
+        if (timer == null) {
             return null;
         }
-        long duration = timer.stopWatch.duration();
-        long nextDuration = timer.stopWatch.nextDuration();
+        MethodTraceRecorder recorder = methodTraceRecorder;
+        boolean loggable = isLoggable(level);
+        if (!loggable && recorder == null) {
+            return null;
+        }
+        long nextDurationNanos = timer.stopWatch.nextDurationNanos();
+        long durationNanos = timer.stopWatch.splitDurationNanos();
+        if (recorder != null) {
+            recorder.record(timer.site, timer.lastId != null ? timer.lastId : timer.createId, progressId, durationNanos, nextDurationNanos);
+        }
+        if (!loggable) {
+            timer.setLastId(progressId);
+            return timer;
+        }
+        long duration = durationNanos / 1000000L;
+        long nextDuration = nextDurationNanos / 1000000L;
         StringBuilder builder = new StringBuilder();
         builder.append(progressId).append(" | ");
         if (MethodProgressLogTimes.FromStartAndLast.equals(methodProgressLogTimes) || MethodProgressLogTimes.FromStartOnly.equals(methodProgressLogTimes)) {
@@ -259,34 +329,14 @@ public final class LoggerMethodTracer extends Logger {
         return methodProgress(timer.entryLevel, timer, "Exit", msg, args);
     }
 
-    private void inferCaller(LogRecord record) {
-        String loggerName = getClass().getName();
-        // Get the stack trace.
-        StackTraceElement stack[] = Thread.currentThread().getStackTrace();
-        // First, search back to a method in the Logger class.
-        int ix = 0;
-        while (ix < stack.length) {
-            StackTraceElement frame = stack[ix];
-            String cname = frame.getClassName();
-            if (cname.equals(loggerName)) {
-                break;
-            }
-            ix++;
-        }
-        // Now search for the first frame before the "Logger" class.
-        while (ix < stack.length) {
-            StackTraceElement frame = stack[ix];
-            String cname = frame.getClassName();
-            if (!cname.equals(loggerName)) {
-                // We've found the relevant frame.
-                record.setSourceClassName(cname);
-                record.setSourceMethodName(frame.getMethodName());
-                return;
-            }
-            ix++;
+    private static MethodTraceSite inferCallerSite() {
+        StackWalker.StackFrame frame = STACK_WALKER.walk(frames -> frames.dropWhile(f -> f.getDeclaringClass() == LoggerMethodTracer.class).findFirst().orElse(null));
+        if (frame == null) {
+            // We haven't found a suitable frame, so just punt. This is
+            // OK as we are only committed to making a "best effort" here.
+            return MethodTraceSite.of(LoggerMethodTracer.class, "unknown");
         }
-        // We haven't found a suitable frame, so just punt. This is
-        // OK as we are only committed to making a "best effort" here.
+        return MethodTraceSite.of(frame.getDeclaringClass(), frame.getMethodName());
     }
 
     /**
@@ -23,6 +23,8 @@ import java.util.logging.Level;
  *
  */
 public final class MethodTimer {
+    /** Traced method */
+    final MethodTraceSite site;
     /** Name of class we measure */
     final String className;
     /** Name of method we measure */
@@ -40,15 +42,15 @@ public final class MethodTimer {
      * Creates Timer
      * 
      * @param entryLevel
-     * @param className
-     * @param methodName
+     * @param site
      * @param createId
      */
-    MethodTimer(Level entryLevel, String className, String methodName, String createId) {
+    MethodTimer(Level entryLevel, MethodTraceSite site, String createId) {
         super();
         this.entryLevel = entryLevel;
-        this.className = className;
-        this.methodName = methodName;
+        this.site = site;
+        this.className = site.getClassName();
+        this.methodName = site.getMethodName();
         this.stopWatch = new StopWatch();
         this.createId = createId;
     }
@@ -67,6 +69,13 @@ public final class MethodTimer {
         return methodName;
     }
 
+    /**
+     * @return the traced method
+     */
+    public MethodTraceSite getSite() {
+        return site;
+    }
+
     /**
      * @return the stopWatch
      */
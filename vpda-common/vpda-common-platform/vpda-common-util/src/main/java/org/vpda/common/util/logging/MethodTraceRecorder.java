@@ -0,0 +1,246 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.util.logging;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size ring buffer of method trace events. All slots are preallocated,
+ * recording just stores references and numbers, older events are overwritten.
+ * Writer claims its slot by CAS, event is dropped when slot is still being
+ * written or was already taken by newer event one lap ahead. Reading is meant
+ * for diagnostics, slots overwritten during read are skipped.
+ * 
+ * @author kitko
+ *
+ */
+public final class MethodTraceRecorder {
+
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    /** Sequence of first event after last clear */
+    private volatile long clearedAt;
+    /**
+     * Sequence + 1 of event stored in slot, negated while slot is written, 0 for
+     * empty slot
+     */
+    private final AtomicLongArray sequences;
+    private final MethodTraceSite[] sites;
+    private final String[] fromIds;
+    private final String[] toIds;
+    private final long[] threadIds;
+    private final long[] timestamps;
+    private final long[] fromStartNanos;
+    private final long[] fromLastNanos;
+
+    /**
+     * Recorded event
+     * 
+     * @author kitko
+     *
+     */
+    public static final class Event {
+        private final long sequence;
+        private final MethodTraceSite site;
+        private final String fromId;
+        private final String toId;
+        private final long threadId;
+        private final long timestamp;
+        private final long fromStartNanos;
+        private final long fromLastNanos;
+
+        private Event(long sequence, MethodTraceSite site, String fromId, String toId, long threadId, long timestamp, long fromStartNanos, long fromLastNanos) {
+            this.sequence = sequence;
+            this.site = site;
+            this.fromId = fromId;
+            this.toId = toId;
+            this.threadId = threadId;
+            this.timestamp = timestamp;
+            this.fromStartNanos = fromStartNanos;
+            this.fromLastNanos = fromLastNanos;
+        }
+
+        /**
+         * @return sequence number of event
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * @return traced method
+         */
+        public MethodTraceSite getSite() {
+            return site;
+        }
+
+        /**
+         * @return id of previous progress
+         */
+        public String getFromId() {
+            return fromId;
+        }
+
+        /**
+         * @return progress id
+         */
+        public String getToId() {
+            return toId;
+        }
+
+        /**
+         * @return id of recording thread
+         */
+        public long getThreadId() {
+            return threadId;
+        }
+
+        /**
+         * @return {@link System#nanoTime()} of event
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return nanos from method entry
+         */
+        public long getFromStartNanos() {
+            return fromStartNanos;
+        }
+
+        /**
+         * @return nanos from previous progress
+         */
+        public long getFromLastNanos() {
+            return fromLastNanos;
+        }
+
+        @Override
+        public String toString() {
+            return site + " " + fromId + "->" + toId + " (" + fromLastNanos + " ns, " + fromStartNanos + " ns from start)";
+        }
+    }
+
+    /**
+     * Creates recorder
+     * 
+     * @param capacity number of events kept, rounded up to power of two
+     */
+    public MethodTraceRecorder(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.sites = new MethodTraceSite[size];
+        this.fromIds = new String[size];
+        this.toIds = new String[size];
+        this.threadIds = new long[size];
+        this.timestamps = new long[size];
+        this.fromStartNanos = new long[size];
+        this.fromLastNanos = new long[size];
+    }
+
+    /**
+     * @return number of slots
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return number of events recorded since creation or last clear
+     */
+    public long getRecordedCount() {
+        return cursor.get() - clearedAt;
+    }
+
+    /**
+     * Records event
+     * 
+     * @param site
+     * @param fromId
+     * @param toId
+     * @param fromStartNanos
+     * @param fromLastNanos
+     */
+    public void record(MethodTraceSite site, String fromId, String toId, long fromStartNanos, long fromLastNanos) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        long current;
+        do {
+            current = sequences.get(slot);
+            if (current < 0 || current > sequence) {
+                return;
+            }
+        }
+        while (!sequences.compareAndSet(slot, current, -(sequence + 1)));
+        VarHandle.storeStoreFence();
+        sites[slot] = site;
+        this.fromIds[slot] = fromId;
+        this.toIds[slot] = toId;
+        threadIds[slot] = Thread.currentThread().getId();
+        timestamps[slot] = System.nanoTime();
+        this.fromStartNanos[slot] = fromStartNanos;
+        this.fromLastNanos[slot] = fromLastNanos;
+        sequences.set(slot, sequence + 1);
+    }
+
+    /**
+     * @return events still kept in buffer, oldest first
+     */
+    public List<Event> getEvents() {
+        long end = cursor.get();
+        long start = Math.max(clearedAt, end - mask - 1);
+        List<Event> events = new ArrayList<Event>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask);
+            if (sequences.get(slot) != sequence + 1) {
+                continue;
+            }
+            Event event = new Event(sequence, sites[slot], fromIds[slot], toIds[slot], threadIds[slot], timestamps[slot], fromStartNanos[slot], fromLastNanos[slot]);
+            VarHandle.loadLoadFence();
+            if (sequences.get(slot) == sequence + 1) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Clears all events recorded so far. Sequence numbers continue, events
+     * recorded concurrently with clear may be kept or dropped.
+     */
+    public void clear() {
+        long floor = cursor.get();
+        clearedAt = floor;
+        for (int i = 0; i <= mask; i++) {
+            long current = sequences.get(i);
+            if (current > 0 && current <= floor && sequences.compareAndSet(i, current, -current)) {
+                sites[i] = null;
+                fromIds[i] = null;
+                toIds[i] = null;
+                sequences.compareAndSet(i, -current, 0);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.common.util.logging;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Identification of traced method. Sites are interned by class and method
+ * name, so they can be kept in static field of traced class and passed to
+ * {@link LoggerMethodTracer#methodEntry(java.util.logging.Level, MethodTraceSite)}
+ * without any caller inference.
+ * 
+ * @author kitko
+ *
+ */
+public final class MethodTraceSite {
+
+    private static final ClassValue<ConcurrentMap<String, MethodTraceSite>> SITES = new ClassValue<ConcurrentMap<String, MethodTraceSite>>() {
+        @Override
+        protected ConcurrentMap<String, MethodTraceSite> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(4);
+        }
+    };
+
+    private final String className;
+    private final String methodName;
+
+    private MethodTraceSite(String className, String methodName) {
+        this.className = className;
+        this.methodName = methodName;
+    }
+
+    /**
+     * Gets or creates site
+     * 
+     * @param clazz
+     * @param methodName
+     * @return interned site
+     */
+    public static MethodTraceSite of(Class<?> clazz, String methodName) {
+        ConcurrentMap<String, MethodTraceSite> sites = SITES.get(clazz);
+        MethodTraceSite site = sites.get(methodName);
+        if (site == null) {
+            site = new MethodTraceSite(clazz.getName(), methodName);
+            MethodTraceSite old = sites.putIfAbsent(methodName, site);
+            if (old != null) {
+                site = old;
+            }
+        }
+        return site;
+    }
+
+    /**
+     * @return the className
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return the methodName
+     */
+    public String getMethodName() {
+        return methodName;
+    }
+
+    @Override
+    public String toString() {
+        return className + "." + methodName;
+    }
+
+}
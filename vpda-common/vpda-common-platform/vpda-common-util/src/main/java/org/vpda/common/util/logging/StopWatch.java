@@ -15,7 +15,8 @@
 package org.vpda.common.util.logging;
 
 /**
- * Stop watch - class for measuring duration of any process
+ * Stop watch - class for measuring duration of any process. Time is measured
+ * by {@link System#nanoTime()}, durations are reported in milis or nanos.
  * 
  * @author kitko
  *
@@ -43,7 +44,7 @@ final class StopWatch {
      */
     StopWatch(Object data) {
         this.data = data;
-        startTime = System.currentTimeMillis();
+        startTime = System.nanoTime();
         splitTime = startTime;
     }
 
@@ -53,7 +54,16 @@ final class StopWatch {
      * @return duration in milis from start
      */
     long duration() {
-        return System.currentTimeMillis() - startTime;
+        return durationNanos() / 1000000L;
+    }
+
+    /**
+     * Returns total duration from start
+     * 
+     * @return duration in nanos from start
+     */
+    long durationNanos() {
+        return System.nanoTime() - startTime;
     }
 
     /**
@@ -121,7 +131,7 @@ final class StopWatch {
     /**
      * Getter for startTime
      * 
-     * @return startTime
+     * @return startTime as {@link System#nanoTime()} value
      */
     long getStartTime() {
         return startTime;
@@ -130,20 +140,36 @@ final class StopWatch {
     /**
      * Measures split duration
      * 
-     * @return split duration
+     * @return split duration in milis
      */
     long nextDuration() {
-        long current = System.currentTimeMillis();
+        return nextDurationNanos() / 1000000L;
+    }
+
+    /**
+     * Measures split duration
+     * 
+     * @return split duration in nanos
+     */
+    long nextDurationNanos() {
+        long current = System.nanoTime();
         long tmp = current - splitTime;
         splitTime = current;
         return tmp;
     }
 
+    /**
+     * @return duration in nanos from start to last split
+     */
+    long splitDurationNanos() {
+        return splitTime - startTime;
+    }
+
     /**
      * Restart watch
      */
     void restart() {
-        startTime = System.currentTimeMillis();
+        startTime = System.nanoTime();
         splitTime = startTime;
     }
 
@@ -0,0 +1,277 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.internal.common.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reflective metadata of one class, computed once per class and cached using
+ * {@link ClassValue}. Holds declared and inherited fields and classes, getter
+ * methods and getter accessors by property name. All returned lists are
+ * unmodifiable.
+ * 
+ * @author kitko
+ *
+ */
+public final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final GetterAccessor NO_GETTER = new GetterAccessor(null, null);
+
+    private final Class<?> type;
+    private final ClassMetadata superMetadata;
+    private final List<Field> declaredFields;
+    private final List<Field> declaredAndInheritedFields;
+    private final List<Field> declaredAndInheritedFieldsReverse;
+    private final List<Class<?>> declaredClasses;
+    private final List<Class<?>> declaredAndInheritedClasses;
+    private final List<Class<?>> declaredAndInheritedClassesReverse;
+    private volatile List<Method> getters;
+    private final ConcurrentMap<String, GetterAccessor> getterAccessors = new ConcurrentHashMap<>(4);
+
+    /**
+     * Accessor of public getter method
+     * 
+     * @author kitko
+     *
+     */
+    public static final class GetterAccessor {
+        private final Method method;
+        private final MethodHandle handle;
+
+        private GetterAccessor(Method method, MethodHandle handle) {
+            this.method = method;
+            this.handle = handle;
+        }
+
+        /**
+         * @return getter method
+         */
+        public Method getMethod() {
+            return method;
+        }
+
+        /**
+         * Invokes getter on object
+         * 
+         * @param object
+         * @return getter value
+         * @throws IllegalAccessException
+         * @throws InvocationTargetException
+         */
+        public Object invoke(Object object) throws IllegalAccessException, InvocationTargetException {
+            if (handle == null) {
+                return method.invoke(object);
+            }
+            if (!method.getDeclaringClass().isInstance(object)) {
+                throw new IllegalArgumentException("Object is not instance of " + method.getDeclaringClass());
+            }
+            try {
+                return (Object) handle.invokeExact(object);
+            }
+            catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+
+    private ClassMetadata(Class<?> type) {
+        this.type = type;
+        Class<?> superClass = type.getSuperclass();
+        this.superMetadata = superClass != null ? METADATA.get(superClass) : null;
+        this.declaredFields = Collections.unmodifiableList(Arrays.asList(type.getDeclaredFields()));
+        List<Field> ownFields = new ArrayList<Field>(declaredFields.size());
+        for (Field field : declaredFields) {
+            if (!field.isSynthetic()) {
+                ownFields.add(field);
+            }
+        }
+        this.declaredAndInheritedFields = concat(superMetadata != null ? superMetadata.declaredAndInheritedFields : null, ownFields);
+        this.declaredAndInheritedFieldsReverse = concat(ownFields, superMetadata != null ? superMetadata.declaredAndInheritedFieldsReverse : null);
+        this.declaredClasses = Collections.unmodifiableList(Arrays.<Class<?>>asList(type.getDeclaredClasses()));
+        this.declaredAndInheritedClasses = concat(superMetadata != null ? superMetadata.declaredAndInheritedClasses : null, declaredClasses);
+        this.declaredAndInheritedClassesReverse = concat(declaredClasses, superMetadata != null ? superMetadata.declaredAndInheritedClassesReverse : null);
+    }
+
+    private static <T> List<T> concat(List<T> first, List<T> second) {
+        List<T> result = new ArrayList<T>((first != null ? first.size() : 0) + (second != null ? second.size() : 0));
+        if (first != null) {
+            result.addAll(first);
+        }
+        if (second != null) {
+            result.addAll(second);
+        }
+        return result.isEmpty() ? Collections.<T>emptyList() : Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @param type
+     * @return cached metadata of class
+     */
+    public static ClassMetadata forClass(Class<?> type) {
+        return METADATA.get(Assert.isNotNullArgument(type, "type"));
+    }
+
+    /**
+     * @return described class
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return metadata of super class or null
+     */
+    public ClassMetadata getSuperMetadata() {
+        return superMetadata;
+    }
+
+    /**
+     * @return all declared fields of class including synthetic ones
+     */
+    public List<Field> getDeclaredFields() {
+        return declaredFields;
+    }
+
+    /**
+     * @return non synthetic declared fields in hierarchy, parent first
+     */
+    public List<Field> getDeclaredAndInheritedFields() {
+        return declaredAndInheritedFields;
+    }
+
+    /**
+     * @return non synthetic declared fields in hierarchy, parent last
+     */
+    public List<Field> getDeclaredAndInheritedFieldsReverse() {
+        return declaredAndInheritedFieldsReverse;
+    }
+
+    /**
+     * @return declared classes
+     */
+    public List<Class<?>> getDeclaredClasses() {
+        return declaredClasses;
+    }
+
+    /**
+     * @return declared classes in hierarchy, parent first
+     */
+    public List<Class<?>> getDeclaredAndInheritedClasses() {
+        return declaredAndInheritedClasses;
+    }
+
+    /**
+     * @return declared classes in hierarchy, parent last
+     */
+    public List<Class<?>> getDeclaredAndInheritedClassesReverse() {
+        return declaredAndInheritedClassesReverse;
+    }
+
+    /**
+     * @return public declared getters of class
+     */
+    public List<Method> getGetters() {
+        List<Method> result = getters;
+        if (result == null) {
+            result = new ArrayList<Method>();
+            for (Method method : type.getDeclaredMethods()) {
+                if (isPropertyGetter(method)) {
+                    result.add(method);
+                }
+            }
+            result = result.isEmpty() ? Collections.<Method>emptyList() : Collections.unmodifiableList(result);
+            getters = result;
+        }
+        return result;
+    }
+
+    private static boolean isPropertyGetter(Method method) {
+        String methodName = method.getName();
+        if (method.getParameterCount() == 0 && Modifier.isPublic(method.getModifiers())) {
+            if (methodName.startsWith("get") && methodName.length() > 3) {
+                return true;
+            }
+            if (methodName.startsWith("is") && methodName.length() > 2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves accessor of public getter get&lt;PropertyName&gt; declared or
+     * inherited by class
+     * 
+     * @param propertyName
+     * @return getter accessor or null if there is no such getter
+     */
+    public GetterAccessor getGetterAccessor(String propertyName) {
+        GetterAccessor accessor = getterAccessors.get(propertyName);
+        if (accessor == null) {
+            accessor = createGetterAccessor(propertyName);
+            GetterAccessor old = getterAccessors.putIfAbsent(propertyName, accessor);
+            if (old != null) {
+                accessor = old;
+            }
+        }
+        return accessor != NO_GETTER ? accessor : null;
+    }
+
+    private GetterAccessor createGetterAccessor(String propertyName) {
+        String name = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
+        Method method;
+        try {
+            method = type.getMethod(name);
+        }
+        catch (NoSuchMethodException e) {
+            return NO_GETTER;
+        }
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method).asType(GETTER_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            // Not accessible through public lookup, reflective invoke will report access problem
+            handle = null;
+        }
+        return new GetterAccessor(method, handle);
+    }
+
+    @Override
+    public String toString() {
+        return "ClassMetadata [type=" + type.getName() + "]";
+    }
+
+}
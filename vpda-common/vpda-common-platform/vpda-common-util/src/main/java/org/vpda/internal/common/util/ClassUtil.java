@@ -328,15 +328,7 @@ public final class ClassUtil {
      * @return list of declared classes
      */
     public static List<Class<?>> getDeclaredAndInheritedClasses(Class<?> clazz) {
-        List<Class<?>> result = new ArrayList<Class<?>>(10);
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedClasses(superClass));
-        }
-        for (Class declaredClazz : clazz.getDeclaredClasses()) {
-            result.add(declaredClazz);
-        }
-        return result;
+        return new ArrayList<Class<?>>(ClassMetadata.forClass(clazz).getDeclaredAndInheritedClasses());
     }
 
     /**
@@ -346,15 +338,7 @@ public final class ClassUtil {
      * @return list of declared classes
      */
     public static List<Class<?>> getDeclaredAndInheritedClassesReverse(Class<?> clazz) {
-        List<Class<?>> result = new ArrayList<Class<?>>(10);
-        for (Class declaredClazz : clazz.getDeclaredClasses()) {
-            result.add(declaredClazz);
-        }
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedClassesReverse(superClass));
-        }
-        return result;
+        return new ArrayList<Class<?>>(ClassMetadata.forClass(clazz).getDeclaredAndInheritedClassesReverse());
     }
 
     /**
@@ -364,17 +348,7 @@ public final class ClassUtil {
      * @return list of declared fields
      */
     public static List<Field> getDeclaredAndInheritedFields(Class<?> clazz) {
-        List<Field> result = new ArrayList<Field>(10);
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedFields(superClass));
-        }
-        for (Field field : clazz.getDeclaredFields()) {
-            if (!field.isSynthetic()) {
-                result.add(field);
-            }
-        }
-        return result;
+        return new ArrayList<Field>(ClassMetadata.forClass(clazz).getDeclaredAndInheritedFields());
     }
 
     /**
@@ -384,17 +358,7 @@ public final class ClassUtil {
      * @return list of declared fields
      */
     public static List<Field> getDeclaredAndInheritedFieldsReverse(Class<?> clazz) {
-        List<Field> result = new ArrayList<Field>(10);
-        for (Field field : clazz.getDeclaredFields()) {
-            if (!field.isSynthetic()) {
-                result.add(field);
-            }
-        }
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedFieldsReverse(superClass));
-        }
-        return result;
+        return new ArrayList<Field>(ClassMetadata.forClass(clazz).getDeclaredAndInheritedFieldsReverse());
     }
 
     /**
@@ -414,14 +378,16 @@ public final class ClassUtil {
      * @return list of declared fields
      */
     public static List<Field> getDeclaredAndInheritedFields(Class<?> clazz, Class<? extends Object> fieldType) {
-        List<Field> result = new ArrayList<Field>(10);
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedFields(superClass, fieldType));
+        List<ClassMetadata> hierarchy = new ArrayList<ClassMetadata>(4);
+        for (ClassMetadata metadata = ClassMetadata.forClass(clazz); metadata != null; metadata = metadata.getSuperMetadata()) {
+            hierarchy.add(metadata);
         }
-        for (Field field : clazz.getDeclaredFields()) {
-            if (fieldType.isAssignableFrom(field.getType())) {
-                result.add(field);
+        List<Field> result = new ArrayList<Field>(10);
+        for (int i = hierarchy.size() - 1; i >= 0; i--) {
+            for (Field field : hierarchy.get(i).getDeclaredFields()) {
+                if (fieldType.isAssignableFrom(field.getType())) {
+                    result.add(field);
+                }
             }
         }
         return result;
@@ -436,15 +402,13 @@ public final class ClassUtil {
      */
     public static List<Field> getDeclaredAndInheritedFieldsReverse(Class<?> clazz, Class<? extends Object> fieldType) {
         List<Field> result = new ArrayList<Field>(10);
-        for (Field field : clazz.getDeclaredFields()) {
-            if (fieldType.isAssignableFrom(field.getType())) {
-                result.add(field);
+        for (ClassMetadata metadata = ClassMetadata.forClass(clazz); metadata != null; metadata = metadata.getSuperMetadata()) {
+            for (Field field : metadata.getDeclaredFields()) {
+                if (fieldType.isAssignableFrom(field.getType())) {
+                    result.add(field);
+                }
             }
         }
-        Class<?> superClass = clazz.getSuperclass();
-        if (superClass != null) {
-            result.addAll(getDeclaredAndInheritedFieldsReverse(superClass, fieldType));
-        }
         return result;
     }
 
@@ -539,29 +503,7 @@ public final class ClassUtil {
      * @return collection of all getters
      */
     public static Collection<Method> getGetters(Class<?> clazz) {
-        Collection<Method> methods = new ArrayList<Method>();
-        for (Method method : clazz.getDeclaredMethods()) {
-            boolean isPropertyGetter = false;
-            isPropertyGetter = isMethodPropertyGetter(method);
-            if (isPropertyGetter) {
-                methods.add(method);
-            }
-        }
-        return methods;
-    }
-
-    private static boolean isMethodPropertyGetter(Method method) {
-        boolean isPropertyGetter = false;
-        String methodName = method.getName();
-        if (method.getParameterTypes().length == 0 && Modifier.isPublic(method.getModifiers())) {
-            if (methodName.startsWith("get") && methodName.length() > 3) {
-                isPropertyGetter = true;
-            }
-            if (methodName.startsWith("is") && methodName.length() > 2) {
-                isPropertyGetter = true;
-            }
-        }
-        return isPropertyGetter;
+        return new ArrayList<Method>(ClassMetadata.forClass(clazz).getGetters());
     }
 
     /**
@@ -578,9 +520,11 @@ public final class ClassUtil {
      */
     public static Object getGetterValue(Object object, String propertyName)
             throws SecurityException, NoSuchMethodException, IllegalArgumentException, IllegalAccessException, InvocationTargetException {
-        String name = "get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1);
-        Method method = object.getClass().getMethod(name, new Class[0]);
-        return method.invoke(object);
+        ClassMetadata.GetterAccessor accessor = ClassMetadata.forClass(object.getClass()).getGetterAccessor(propertyName);
+        if (accessor == null) {
+            throw new NoSuchMethodException(object.getClass().getName() + ".get" + Character.toUpperCase(propertyName.charAt(0)) + propertyName.substring(1) + "()");
+        }
+        return accessor.invoke(object);
     }
 
     /**
@@ -696,9 +640,8 @@ public final class ClassUtil {
      * @return field value
      */
     public static <T> T getFieldValue(Object o, String name, Class<T> type) {
-        Class clazz = o.getClass();
-        while (clazz != null) {
-            for (Field field : clazz.getDeclaredFields()) {
+        for (ClassMetadata metadata = ClassMetadata.forClass(o.getClass()); metadata != null; metadata = metadata.getSuperMetadata()) {
+            for (Field field : metadata.getDeclaredFields()) {
                 if (field.isSynthetic() || Modifier.isStatic(field.getModifiers())) {
                     continue;
                 }
@@ -713,7 +656,6 @@ public final class ClassUtil {
                 }
 
             }
-            clazz = clazz.getSuperclass();
         }
         return null;
     }
@@ -0,0 +1,228 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.internal.common.util;
+
+import java.io.IOException;
+import java.lang.module.ModuleReader;
+import java.lang.module.ResolvedModule;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+import org.vpda.common.util.logging.LoggerMethodTracer;
+
+/**
+ * Index of module qualified resources of one {@link ModuleLayer}. Resource
+ * <code>path</code> of module <code>a.b.c</code> is looked up as
+ * <code>a/b/c/path</code> using module class loader. Index maps paths to
+ * modules containing them, so lookup asks only those modules. Until index is
+ * built, lookup scans all modules. Results of lookups are cached, including
+ * not found ones.
+ * 
+ * @author kitko
+ *
+ */
+final class ModuleResourceIndex {
+
+    private static final LoggerMethodTracer LOGGER = LoggerMethodTracer.getLogger(ModuleResourceIndex.class);
+
+    /** Layers live usually for whole application lifetime */
+    private static final ConcurrentMap<ModuleLayer, ModuleResourceIndex> INDEXES = new ConcurrentHashMap<>(2);
+
+    private final ModuleLayer layer;
+    private final Module[] modules;
+    private final String[] prefixes;
+    private volatile Map<String, int[]> index;
+    private volatile boolean building;
+    private final ConcurrentMap<String, Optional<URL>> resourceCache = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<URL>> resourcesCache = new ConcurrentHashMap<>();
+
+    private ModuleResourceIndex(ModuleLayer layer) {
+        this.layer = layer;
+        List<Module> candidates = new ArrayList<Module>();
+        for (Module module : layer.modules()) {
+            if (!module.isNamed() || module.getName().startsWith("java.") || module.getName().startsWith("jdk.") || module.getClassLoader() == null) {
+                continue;
+            }
+            candidates.add(module);
+        }
+        this.modules = candidates.toArray(new Module[candidates.size()]);
+        this.prefixes = new String[modules.length];
+        for (int i = 0; i < modules.length; i++) {
+            prefixes[i] = modules[i].getName().replace('.', '/') + "/";
+        }
+    }
+
+    /**
+     * @param layer
+     * @return index of layer, index is not built yet if it was not initialized
+     *         before
+     */
+    static ModuleResourceIndex getIndex(ModuleLayer layer) {
+        ModuleResourceIndex resourceIndex = INDEXES.get(layer);
+        if (resourceIndex == null) {
+            resourceIndex = new ModuleResourceIndex(layer);
+            ModuleResourceIndex old = INDEXES.putIfAbsent(layer, resourceIndex);
+            if (old != null) {
+                resourceIndex = old;
+            }
+        }
+        return resourceIndex;
+    }
+
+    /**
+     * Builds index now or in background daemon thread
+     * 
+     * @param background
+     */
+    void init(boolean background) {
+        if (index != null || building) {
+            return;
+        }
+        synchronized (this) {
+            if (index != null || building) {
+                return;
+            }
+            building = true;
+        }
+        if (background) {
+            Thread thread = new Thread(this::build, "vpda-module-resource-index");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        else {
+            build();
+        }
+    }
+
+    /**
+     * @return true if index is built
+     */
+    boolean isBuilt() {
+        return index != null;
+    }
+
+    private void build() {
+        try {
+            Map<String, List<Integer>> paths = new HashMap<String, List<Integer>>();
+            for (int i = 0; i < modules.length; i++) {
+                Optional<ResolvedModule> resolvedModule = layer.configuration().findModule(modules[i].getName());
+                if (resolvedModule.isEmpty()) {
+                    LOGGER.log(Level.FINE, "Module {0} not found in layer configuration, index not built", modules[i].getName());
+                    return;
+                }
+                String prefix = prefixes[i];
+                try (ModuleReader reader = resolvedModule.get().reference().open(); Stream<String> names = reader.list()) {
+                    final int moduleIndex = i;
+                    names.filter(name -> name.length() > prefix.length() && name.startsWith(prefix) && !name.endsWith("/"))
+                            .forEach(name -> paths.computeIfAbsent(name.substring(prefix.length()), key -> new ArrayList<Integer>(1)).add(moduleIndex));
+                }
+            }
+            Map<String, int[]> newIndex = new HashMap<String, int[]>(paths.size() * 4 / 3 + 1);
+            for (Map.Entry<String, List<Integer>> entry : paths.entrySet()) {
+                newIndex.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            index = newIndex;
+            LOGGER.log(Level.FINE, "Module resource index built with {0} resources from {1} modules", new Object[] { newIndex.size(), modules.length });
+        }
+        catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Cannot build module resource index, will search all modules", e);
+        }
+        finally {
+            building = false;
+        }
+    }
+
+    /**
+     * @param path
+     * @return first module qualified resource
+     */
+    Optional<URL> getResource(String path) {
+        Optional<URL> url = resourceCache.get(path);
+        if (url == null) {
+            List<URL> urls = find(path, true);
+            url = urls.isEmpty() ? Optional.<URL>empty() : Optional.of(urls.get(0));
+            Optional<URL> old = resourceCache.putIfAbsent(path, url);
+            if (old != null) {
+                url = old;
+            }
+        }
+        return url;
+    }
+
+    /**
+     * @param path
+     * @return all module qualified resources
+     */
+    List<URL> getResources(String path) {
+        List<URL> urls = resourcesCache.get(path);
+        if (urls == null) {
+            urls = find(path, false);
+            List<URL> old = resourcesCache.putIfAbsent(path, urls);
+            if (old != null) {
+                urls = old;
+            }
+        }
+        return urls;
+    }
+
+    private List<URL> find(String path, boolean firstOnly) {
+        Map<String, int[]> currentIndex = index;
+        List<URL> result = null;
+        if (currentIndex != null) {
+            int[] moduleIndexes = currentIndex.get(path);
+            if (moduleIndexes == null) {
+                return Collections.emptyList();
+            }
+            for (int i : moduleIndexes) {
+                result = addResource(result, i, path);
+                if (firstOnly && result != null) {
+                    break;
+                }
+            }
+        }
+        else {
+            LOGGER.log(Level.FINE, "Searching for path {0} in all modules of layer", path);
+            for (int i = 0; i < modules.length; i++) {
+                result = addResource(result, i, path);
+                if (firstOnly && result != null) {
+                    break;
+                }
+            }
+        }
+        return result != null ? Collections.unmodifiableList(result) : Collections.<URL>emptyList();
+    }
+
+    private List<URL> addResource(List<URL> result, int moduleIndex, String path) {
+        URL url = modules[moduleIndex].getClassLoader().getResource(prefixes[moduleIndex] + path);
+        if (url == null) {
+            return result;
+        }
+        if (result == null) {
+            result = new ArrayList<URL>(1);
+        }
+        result.add(url);
+        return result;
+    }
+
+}
@@ -14,9 +14,13 @@
  */
 package org.vpda.internal.common.util;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -24,17 +28,31 @@ import java.util.Map;
 import java.util.Set;
 
 /**
- * Map that also holds order of keys
+ * Map that also holds order of keys. Keys and values are held in parallel
+ * arrays in key order, lookup by key goes through open addressing table of
+ * indexes, which is created only for bigger maps. Map can be frozen into
+ * immutable form, see {@link #freeze()}.
  * 
  * @author kitko
  * @param <K>
  * @param <V>
  */
 public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
-    private final List<KeyValue<K, V>> list;
-    private final Map<K, ValueOrder<V>> map;
-
     private static final long serialVersionUID = -5862963611731453495L;
+    /** Serialized form of former list and map based implementation */
+    private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("list", List.class), new ObjectStreamField("map", Map.class),
+            new ObjectStreamField("frozen", boolean.class) };
+
+    /** Maps up to this size are searched linearly */
+    private static final int LINEAR_SCAN_THRESHOLD = 8;
+    private static final Object[] EMPTY = new Object[0];
+
+    private transient Object[] keys;
+    private transient Object[] vals;
+    private transient int size;
+    /** Index + 1 of key in keys array, 0 marks empty slot */
+    private transient int[] table;
+    private transient boolean frozen;
 
     /**
      * 
@@ -74,7 +92,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
 
         @Override
         public V setValue(V value) {
-            V oldValue = value;
+            V oldValue = this.value;
             this.value = value;
             return oldValue;
         }
@@ -109,7 +127,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
     public static final class ValueOrder<V> implements java.io.Serializable {
         private static final long serialVersionUID = 6552666566564135063L;
         private final V value;
-        private int order;
+        private final int order;
 
         private ValueOrder(V value, int order) {
             this.value = value;
@@ -147,7 +165,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
             final int prime = 31;
             int result = 1;
             result = prime * result + (value != null ? value.hashCode() : 0);
-            result = prime * order;
+            result = prime * result + order;
             return result;
         }
 
@@ -162,8 +180,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      *
      */
     public OrderedMap() {
-        list = new ArrayList<KeyValue<K, V>>();
-        map = new LinkedHashMap<K, ValueOrder<V>>();
+        this(0);
     }
 
     /**
@@ -171,21 +188,20 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      */
     @SuppressWarnings("unchecked")
     public OrderedMap(Map<K, V> map) {
-        list = new ArrayList<KeyValue<K, V>>();
-        this.map = new LinkedHashMap<K, ValueOrder<V>>();
         if (map instanceof OrderedMap) {
             OrderedMap<K, V> om = (OrderedMap<K, V>) map;
-            for (int i = 0, size = map.size(); i < size; i++) {
-                KeyValue<K, V> keyValue = om.getKeyValue(i);
-                this.put(keyValue.key, keyValue.value);
-            }
+            this.size = om.size;
+            this.keys = Arrays.copyOf(om.keys, Math.max(om.size, 1));
+            this.vals = Arrays.copyOf(om.vals, Math.max(om.size, 1));
+            this.table = om.table != null ? om.table.clone() : null;
         }
         else {
+            this.keys = new Object[Math.max(map.size(), 1)];
+            this.vals = new Object[keys.length];
             for (Map.Entry<K, V> entry : map.entrySet()) {
                 put(entry.getKey(), entry.getValue());
             }
         }
-
     }
 
     /**
@@ -195,8 +211,142 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      *
      */
     public OrderedMap(int initCapacity) {
-        list = new ArrayList<KeyValue<K, V>>(initCapacity);
-        map = new LinkedHashMap<K, ValueOrder<V>>(initCapacity);
+        this.keys = initCapacity > 0 ? new Object[initCapacity] : EMPTY;
+        this.vals = initCapacity > 0 ? new Object[initCapacity] : EMPTY;
+    }
+
+    /**
+     * Creates immutable copy of this map with arrays trimmed to size. Frozen
+     * map returns itself.
+     * 
+     * @return frozen map
+     */
+    public OrderedMap<K, V> freeze() {
+        if (frozen) {
+            return this;
+        }
+        OrderedMap<K, V> copy = new OrderedMap<>(this);
+        copy.frozen = true;
+        return copy;
+    }
+
+    /**
+     * @return true if map is frozen and cannot be modified
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("OrderedMap is frozen");
+        }
+    }
+
+    private static int spread(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int indexOf(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        int[] t = table;
+        if (t == null) {
+            Object[] k = keys;
+            for (int i = 0; i < size; i++) {
+                if (key.equals(k[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = t.length - 1;
+        for (int slot = spread(key) & mask;; slot = (slot + 1) & mask) {
+            int index = t[slot];
+            if (index == 0) {
+                return -1;
+            }
+            if (key.equals(keys[index - 1])) {
+                return index - 1;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newLength = Math.max(capacity, keys.length + (keys.length >> 1) + 1);
+            keys = Arrays.copyOf(keys, newLength);
+            vals = Arrays.copyOf(vals, newLength);
+        }
+    }
+
+    private void addToTable(int index) {
+        if (size <= LINEAR_SCAN_THRESHOLD) {
+            table = null;
+            return;
+        }
+        if (table == null || size * 2 > table.length) {
+            rebuildTable();
+            return;
+        }
+        int mask = table.length - 1;
+        int slot = spread(keys[index]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private void rebuildTable() {
+        if (size <= LINEAR_SCAN_THRESHOLD) {
+            table = null;
+            return;
+        }
+        int length = Integer.highestOneBit(size * 4 - 1);
+        int[] t = new int[length];
+        int mask = length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = spread(keys[i]) & mask;
+            while (t[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            t[slot] = i + 1;
+        }
+        table = t;
+    }
+
+    private void insertAt(int index, K key, V value) {
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(vals, index, vals, index + 1, size - index);
+        }
+        keys[index] = key;
+        vals[index] = value;
+        size++;
+        if (index == size - 1) {
+            addToTable(index);
+        }
+        else {
+            rebuildTable();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        V old = (V) vals[index];
+        int moved = size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(keys, index + 1, keys, index, moved);
+            System.arraycopy(vals, index + 1, vals, index, moved);
+        }
+        size--;
+        keys[size] = null;
+        vals[size] = null;
+        rebuildTable();
+        return old;
     }
 
     /**
@@ -206,24 +356,33 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      */
     @Override
     public boolean containsKey(Object key) {
-        return map.containsKey(key);
+        return indexOf(key) >= 0;
     }
 
     /**
      * @param i
      * @return KeyValue
      */
+    @SuppressWarnings("unchecked")
     public KeyValue getKeyValue(int i) {
-        return list.get(i);
+        checkIndex(i);
+        return new KeyValue<K, V>((K) keys[i], (V) vals[i]);
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
     }
 
     /**
      * @param i
      * @return value
      */
+    @SuppressWarnings("unchecked")
     public V getValue(int i) {
-        KeyValue<K, V> keyValue = list.get(i);
-        return keyValue.value;
+        checkIndex(i);
+        return (V) vals[i];
     }
 
     /**
@@ -232,11 +391,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @return value of key
      */
     public V getValue(K key) {
-        ValueOrder<V> valueOrder = map.get(key);
-        if (valueOrder != null) {
-            return valueOrder.value;
-        }
-        return null;
+        return get(key);
     }
 
     /**
@@ -244,9 +399,10 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @param key
      * @return value order
      */
+    @SuppressWarnings("unchecked")
     public ValueOrder<V> getValueOrder(K key) {
-        ValueOrder<V> valueOrder = map.get(key);
-        return valueOrder;
+        int index = indexOf(key);
+        return index >= 0 ? new ValueOrder<V>((V) vals[index], index) : null;
     }
 
     /**
@@ -255,8 +411,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @return order key or -1 if key is not found
      */
     public int getOrderOfKey(K key) {
-        ValueOrder valueOrder = map.get(key);
-        return valueOrder != null ? valueOrder.order : -1;
+        return indexOf(key);
     }
 
     /**
@@ -265,7 +420,7 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      */
     @Override
     public boolean isEmpty() {
-        return list.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -274,22 +429,21 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @param value
      * @return old value order
      */
+    @SuppressWarnings("unchecked")
     @Override
     public V put(K key, V value) {
         if (key == null) {
             throw new RuntimeException("NULL keys not allowed");
         }
-        ValueOrder<V> valueOrder = map.get(key);
-        if (valueOrder == null) {
-            int order = list.size();
-            map.put(key, new ValueOrder<V>(value, order));
-            list.add(new KeyValue<K, V>(key, value));
+        checkNotFrozen();
+        int index = indexOf(key);
+        if (index >= 0) {
+            V old = (V) vals[index];
+            vals[index] = value;
+            return old;
         }
-        else {
-            map.put(key, new ValueOrder<V>(value, valueOrder.order));
-            list.set(valueOrder.order, new KeyValue<K, V>(key, value));
-        }
-        return valueOrder == null ? null : valueOrder.value;
+        insertAt(size, key, value);
+        return null;
     }
 
     /**
@@ -307,19 +461,16 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
         if (after == null) {
             throw new RuntimeException("NULL keys not allowed");
         }
-        ValueOrder<V> valueOrder = map.get(key);
-        if (valueOrder == null) {
-            ValueOrder<V> afterValue = map.get(after);
-            if (afterValue == null) {
-                return false;
-            }
-            int newOrder = afterValue.order + 1;
-            map.put(key, new ValueOrder<V>(value, newOrder));
-            list.add(newOrder, new KeyValue<K, V>(key, value));
-            correctOrder(newOrder, list.size());
-            return true;
+        checkNotFrozen();
+        if (indexOf(key) >= 0) {
+            return false;
         }
-        return false;
+        int afterIndex = indexOf(after);
+        if (afterIndex < 0) {
+            return false;
+        }
+        insertAt(afterIndex + 1, key, value);
+        return true;
     }
 
     /**
@@ -337,19 +488,16 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
         if (before == null) {
             throw new RuntimeException("NULL keys not allowed");
         }
-        ValueOrder<V> valueOrder = map.get(key);
-        if (valueOrder == null) {
-            ValueOrder<V> beforeValue = map.get(before);
-            if (beforeValue == null) {
-                return false;
-            }
-            int newOrder = beforeValue.order - 1 >= 0 ? beforeValue.order - 1 : 0;
-            map.put(key, new ValueOrder<V>(value, newOrder));
-            list.add(newOrder, new KeyValue<K, V>(key, value));
-            correctOrder(newOrder, list.size());
-            return true;
+        checkNotFrozen();
+        if (indexOf(key) >= 0) {
+            return false;
         }
-        return false;
+        int beforeIndex = indexOf(before);
+        if (beforeIndex < 0) {
+            return false;
+        }
+        insertAt(beforeIndex - 1 >= 0 ? beforeIndex - 1 : 0, key, value);
+        return true;
     }
 
     /**
@@ -384,43 +532,26 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
         return old;
     }
 
-    private void correctOrder() {
-        if (!list.isEmpty()) {
-            correctOrder(0, list.size());
-        }
-    }
-
-    private void correctOrder(int fromIndex, int endIndex) {
-        for (int i = fromIndex; i < endIndex; i++) {
-            KeyValue<K, V> keyValue = list.get(i);
-            ValueOrder<V> valueOrder = map.get(keyValue.getKey());
-            if (valueOrder != null) {
-                valueOrder.order = i;
-            }
-        }
-    }
-
     /**
      * 
      * @param key
      * @param value
      * @return old value order
      */
+    @SuppressWarnings("unchecked")
     public V putWithNewAsFirst(K key, V value) {
         if (key == null) {
             throw new RuntimeException("NULL keys not allowed");
         }
-        ValueOrder<V> valueOrder = map.get(key);
-        if (valueOrder == null) {
-            map.put(key, new ValueOrder<V>(value, 0));
-            list.add(0, new KeyValue<K, V>(key, value));
-            correctOrder();
-        }
-        else {
-            map.put(key, new ValueOrder<V>(value, valueOrder.order));
-            list.set(valueOrder.order, new KeyValue<K, V>(key, value));
+        checkNotFrozen();
+        int index = indexOf(key);
+        if (index >= 0) {
+            V old = (V) vals[index];
+            vals[index] = value;
+            return old;
         }
-        return valueOrder == null ? null : valueOrder.value;
+        insertAt(0, key, value);
+        return null;
     }
 
     /**
@@ -428,15 +559,9 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @return removed value
      */
     public V remove(int i) {
-        KeyValue<K, V> keyValue = list.remove(i);
-        map.remove(keyValue.key);
-        for (Iterator<ValueOrder<V>> it = map.values().iterator(); it.hasNext();) {
-            ValueOrder<V> valueOrder = it.next();
-            if (valueOrder.order > i) {
-                valueOrder.order = valueOrder.order - 1;
-            }
-        }
-        return keyValue.getValue();
+        checkNotFrozen();
+        checkIndex(i);
+        return removeAt(i);
     }
 
     /**
@@ -444,17 +569,9 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      */
     @Override
     public V remove(Object key) {
-        ValueOrder<V> valueOrder = map.remove(key);
-        if (valueOrder != null) {
-            list.remove(valueOrder.order);
-            for (Iterator<ValueOrder<V>> it = map.values().iterator(); it.hasNext();) {
-                ValueOrder<V> vo = it.next();
-                if (vo.order > valueOrder.order) {
-                    vo.order = vo.order - 1;
-                }
-            }
-        }
-        return valueOrder == null ? null : valueOrder.value;
+        checkNotFrozen();
+        int index = indexOf(key);
+        return index >= 0 ? removeAt(index) : null;
     }
 
     /**
@@ -463,19 +580,18 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      */
     @Override
     public int size() {
-        return list.size();
+        return size;
     }
 
     @Override
     public String toString() {
-        StringBuffer b = new StringBuffer();
+        StringBuilder b = new StringBuilder();
         b.append("{");
-        for (int i = 0; i < list.size(); i++) {
-            KeyValue kv = list.get(i);
-            b.append(kv.key);
+        for (int i = 0; i < size; i++) {
+            b.append(keys[i]);
             b.append("=");
-            b.append(kv.value);
-            if (i + 1 < list.size()) {
+            b.append(vals[i]);
+            if (i + 1 < size) {
                 b.append(",");
             }
         }
@@ -486,64 +602,72 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
     /**
      * @return values
      */
+    @SuppressWarnings("unchecked")
     @Override
     public List<V> values() {
-        List<V> values = new ArrayList<V>();
-        for (KeyValue<K, V> keyvalue : list) {
-            values.add(keyvalue.value);
-        }
-        return Collections.unmodifiableList(values);
+        Object[] array = frozen && vals.length == size ? vals : Arrays.copyOf(vals, size);
+        return (List<V>) Collections.unmodifiableList(Arrays.asList(array));
     }
 
     /**
      * @return keys
      */
+    @SuppressWarnings("unchecked")
     public List<K> keys() {
-        List<K> keys = new ArrayList<K>();
-        for (KeyValue<K, V> keyvalue : list) {
-            keys.add(keyvalue.key);
-        }
-        return Collections.unmodifiableList(keys);
+        Object[] array = frozen && keys.length == size ? keys : Arrays.copyOf(keys, size);
+        return (List<K>) Collections.unmodifiableList(Arrays.asList(array));
     }
 
     @Override
     public void clear() {
-        map.clear();
-        list.clear();
+        checkNotFrozen();
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(vals, 0, size, null);
+        size = 0;
+        table = null;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        for (KeyValue<K, V> keyValue : list) {
-            if (keyValue.value.equals(value)) {
+        for (int i = 0; i < size; i++) {
+            if (vals[i].equals(value)) {
                 return true;
             }
         }
         return false;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> set = new LinkedHashSet<Entry<K, V>>();
-        for (KeyValue<K, V> keyValue : list) {
-            set.add(keyValue);
+        Set<Entry<K, V>> set = new LinkedHashSet<Entry<K, V>>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            set.add(new KeyValue<K, V>((K) keys[i], (V) vals[i]));
         }
         return set;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public V get(Object key) {
-        ValueOrder<V> v = map.get(key);
-        return v != null ? v.value : null;
+        int index = indexOf(key);
+        return index >= 0 ? (V) vals[index] : null;
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public Set<K> keySet() {
-        return Collections.unmodifiableSet(map.keySet());
+        Set<K> set = new LinkedHashSet<K>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            set.add((K) keys[i]);
+        }
+        return Collections.unmodifiableSet(set);
     }
 
     @Override
     public void putAll(Map<? extends K, ? extends V> map) {
+        checkNotFrozen();
+        ensureCapacity(size + map.size());
         for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
             put(entry.getKey(), entry.getValue());
         }
@@ -556,8 +680,10 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
      * @param index
      * @return i-ties key
      */
+    @SuppressWarnings("unchecked")
     public K getKey(int index) {
-        return list.get(index).key;
+        checkIndex(index);
+        return (K) keys[index];
     }
 
     @Override
@@ -570,15 +696,22 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
         }
         if (o instanceof OrderedMap) {
             OrderedMap om = (OrderedMap) o;
-            return this.map.equals(om.map) && this.list.equals(om.list);
+            if (size != om.size) {
+                return false;
+            }
+            for (int i = 0; i < size; i++) {
+                if (!keys[i].equals(om.keys[i]) || !ObjectUtil.equalsConsiderNull(vals[i], om.vals[i])) {
+                    return false;
+                }
+            }
+            return true;
         }
         Map m = (Map) o;
-        if (this.map.size() != m.size()) {
+        if (size != m.size()) {
             return false;
         }
-        for (Map.Entry<K, ValueOrder<V>> entry : this.map.entrySet()) {
-            Object value2 = m.get(entry.getKey());
-            if (!ObjectUtil.equalsConsiderNull(entry.getValue().getValue(), value2)) {
+        for (int i = 0; i < size; i++) {
+            if (!ObjectUtil.equalsConsiderNull(vals[i], m.get(keys[i]))) {
                 return false;
             }
         }
@@ -587,11 +720,45 @@ public final class OrderedMap<K, V> implements Map<K, V>, java.io.Serializable {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
         int result = 1;
-        result = prime * result + list.hashCode();
-        result = prime * result + map.hashCode();
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + (keys[i].hashCode() ^ (vals[i] == null ? 0 : vals[i].hashCode()));
+        }
         return result;
     }
 
+    @SuppressWarnings("unchecked")
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        List<KeyValue<K, V>> list = new ArrayList<KeyValue<K, V>>(size);
+        Map<K, ValueOrder<V>> map = new LinkedHashMap<K, ValueOrder<V>>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++) {
+            list.add(new KeyValue<K, V>((K) keys[i], (V) vals[i]));
+            map.put((K) keys[i], new ValueOrder<V>((V) vals[i], i));
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("list", list);
+        fields.put("map", map);
+        fields.put("frozen", frozen);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        List<?> list = (List<?>) fields.get("list", null);
+        if (list == null) {
+            throw new java.io.InvalidObjectException("Missing list");
+        }
+        keys = new Object[Math.max(list.size(), 1)];
+        vals = new Object[keys.length];
+        size = 0;
+        for (Object o : list) {
+            KeyValue<?, ?> kv = (KeyValue<?, ?>) o;
+            keys[size] = kv.getKey();
+            vals[size] = kv.getValue();
+            size++;
+        }
+        rebuildTable();
+        frozen = fields.get("frozen", false);
+    }
+
 }
@@ -25,7 +25,6 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
-import java.util.Set;
 import java.util.logging.Level;
 
 import org.vpda.common.util.exceptions.VPDARuntimeException;
@@ -42,6 +41,39 @@ public final class ResourceLoader {
     private ResourceLoader() {
     }
 
+    /**
+     * Name of module of class. For unnamed module the name is read from
+     * module-info.class next to class, null means name cannot be resolved.
+     */
+    private static final ClassValue<String> MODULE_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> defaultModuleClass) {
+            Module javaDefaultModule = defaultModuleClass.getModule();
+            if (javaDefaultModule.isNamed()) {
+                return javaDefaultModule.getName();
+            }
+            // Here this should be true only for tests
+            URL defaultClassUrl = defaultModuleClass.getResource('/' + defaultModuleClass.getName().replace('.', '/') + ".class");
+            if (defaultClassUrl == null) {
+                return null;
+            }
+            String removeString = defaultModuleClass.getName().replace('.', '/') + ".class";
+            String moduleInfoPath = defaultClassUrl.toExternalForm();
+            moduleInfoPath = moduleInfoPath.substring(0, moduleInfoPath.length() - removeString.length()) + "module-info.class";
+            try {
+                URL moduleInfoURL = new URL(moduleInfoPath);
+                try (InputStream is = moduleInfoURL.openStream()) {
+                    ModuleDescriptor descriptor = ModuleDescriptor.read(is);
+                    return descriptor.name();
+                }
+            }
+            catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Cannot read module descriptor " + moduleInfoPath, e);
+                return null;
+            }
+        }
+    };
+
     /** Name of prefix system property */
     public static final String PREFIX_PROPERTY_NAME = "vpda.resources.prefix";
 
@@ -164,6 +196,18 @@ public final class ResourceLoader {
         return resolveResourceFromLoaderAndModules(path, clazz.getClassLoader(), clazz);
     }
 
+    /**
+     * Builds index of module qualified resources of layer, so module lookups do
+     * not need to search all modules
+     * 
+     * @param layer
+     * @param background whether index should be built in background daemon
+     *                   thread
+     */
+    public static void initModuleResourceIndex(ModuleLayer layer, boolean background) {
+        ModuleResourceIndex.getIndex(Assert.isNotNullArgument(layer, "layer")).init(background);
+    }
+
     public static Optional<URL> resolveResourceFromLoaderAndModules(String path, ClassLoader loader, Class<?> defaultModuleClass) {
         URL url = null;
         url = loader.getResource(path);
@@ -171,28 +215,9 @@ public final class ResourceLoader {
             return Optional.of(url);
         }
         Module javaDefaultModule = defaultModuleClass.getModule();
-        String javaDefaultModuleName = javaDefaultModule.getName();
-        if (!javaDefaultModule.isNamed()) {
-            // Here this should be true only for tests
-            URL defaultClassUrl = defaultModuleClass.getResource('/' + defaultModuleClass.getName().replace('.', '/') + ".class");
-            if (defaultClassUrl != null) {
-                String removeString = defaultModuleClass.getName().replace('.', '/') + ".class";
-                String moduleInfoPath = defaultClassUrl.toExternalForm();
-                moduleInfoPath = moduleInfoPath.substring(0, moduleInfoPath.length() - removeString.length()) + "module-info.class";
-                try {
-                    URL moduleInfoURL = new URL(moduleInfoPath);
-                    try (InputStream is = moduleInfoURL.openStream()) {
-                        ModuleDescriptor descriptor = ModuleDescriptor.read(is);
-                        javaDefaultModuleName = descriptor.name();
-                    }
-
-                }
-                catch (IOException e) {
-                    e.printStackTrace();
-                    return Optional.empty();
-                }
-
-            }
+        String javaDefaultModuleName = MODULE_NAMES.get(defaultModuleClass);
+        if (javaDefaultModuleName == null) {
+            return Optional.empty();
         }
         String qualifiedPath = javaDefaultModuleName.replace('.', '/') + "/" + path;
         if (javaDefaultModule.getClassLoader() != null) {
@@ -208,19 +233,7 @@ public final class ResourceLoader {
         if (javaDefaultModule.getLayer() == null) {
             return Optional.empty();
         }
-        Set<Module> modules = javaDefaultModule.getLayer().modules();
-        LOGGER.log(Level.INFO, "Searching for path {0} in following modules {1}", new Object[] { path, modules });
-        for (Module module : modules) {
-            if (module.getName().startsWith("java.") || module.getName().startsWith("jdk.") || module.getClassLoader() == null) {
-                continue;
-            }
-            qualifiedPath = module.getName().replace('.', '/') + "/" + path;
-            url = module.getClassLoader().getResource(qualifiedPath);
-            if (url != null) {
-                return Optional.of(url);
-            }
-        }
-        return Optional.empty();
+        return ModuleResourceIndex.getIndex(javaDefaultModule.getLayer()).getResource(path);
     }
 
     public static Collection<URL> getResourcesFromLoaderAndModules(String path, ClassLoader loader, Class<?> defaultModuleClass) {
@@ -230,28 +243,9 @@ public final class ResourceLoader {
             urlList.add(url);
         }
         Module javaDefaultModule = defaultModuleClass.getModule();
-        String javaDefaultModuleName = javaDefaultModule.getName();
-        if (!javaDefaultModule.isNamed()) {
-            // Here this should be true only for tests
-            URL defaultClassUrl = defaultModuleClass.getResource('/' + defaultModuleClass.getName().replace('.', '/') + ".class");
-            if (defaultClassUrl != null) {
-                String removeString = defaultModuleClass.getName().replace('.', '/') + ".class";
-                String moduleInfoPath = defaultClassUrl.toExternalForm();
-                moduleInfoPath = moduleInfoPath.substring(0, moduleInfoPath.length() - removeString.length()) + "module-info.class";
-                try {
-                    URL moduleInfoURL = new URL(moduleInfoPath);
-                    try (InputStream is = moduleInfoURL.openStream()) {
-                        ModuleDescriptor descriptor = ModuleDescriptor.read(is);
-                        javaDefaultModuleName = descriptor.name();
-                    }
-
-                }
-                catch (IOException e) {
-                    e.printStackTrace();
-                    return urlList;
-                }
-
-            }
+        String javaDefaultModuleName = MODULE_NAMES.get(defaultModuleClass);
+        if (javaDefaultModuleName == null) {
+            return urlList;
         }
         String qualifiedPath = javaDefaultModuleName.replace('.', '/') + "/" + path;
         // /vpda-common-core/src/main/resources/org/vpda/common/core/ehcache/config/vpda-ehcache-common.xml
@@ -268,17 +262,7 @@ public final class ResourceLoader {
         if (javaDefaultModule.getLayer() == null) {
             return urlList;
         }
-        Set<Module> modules = javaDefaultModule.getLayer().modules();
-        for (Module module : modules) {
-            if (!module.isNamed() || module.getName().startsWith("java.") || module.getName().startsWith("jdk.") || module.getClassLoader() == null) {
-                continue;
-            }
-            qualifiedPath = module.getName().replace('.', '/') + "/" + path;
-            url = module.getClassLoader().getResource(qualifiedPath);
-            if (url != null) {
-                urlList.add(url);
-            }
-        }
+        urlList.addAll(ModuleResourceIndex.getIndex(javaDefaultModule.getLayer()).getResources(path));
         return urlList;
     }
 
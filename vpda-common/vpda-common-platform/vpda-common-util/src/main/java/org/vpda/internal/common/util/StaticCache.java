@@ -23,7 +23,12 @@ import java.util.Map;
 /**
  * Static access to global cache by key and current thread. This way we can
  * access some static data but we can set some thread discriminator that switch
- * concrete cache. This is useful for sessions
+ * concrete cache. This is useful for sessions.
+ * <p>
+ * Each key selects one scope. Scopes are concurrent maps that can be limited by
+ * {@link StaticCacheConfig}, idle scopes other than global one are reclaimed
+ * during periodic cleanup. Null values are not stored, putting null removes the
+ * value.
  * 
  * @author kitko
  *
@@ -45,7 +50,7 @@ public final class StaticCache {
         }
 
         /**
-         * @return the cache
+         * @return snapshot of the cache values
          */
         public Map<Object, Object> getCache() {
             return cache;
@@ -96,7 +101,7 @@ public final class StaticCache {
      * @param clazz
      * @return value
      */
-    public synchronized static <T> T get(Class<T> clazz) {
+    public static <T> T get(Class<T> clazz) {
         return IMPL.get(clazz);
     }
 
@@ -109,7 +114,7 @@ public final class StaticCache {
      * @param value
      * @return old value
      */
-    public synchronized static <T> T put(Class<T> clazz, Object key, T value) {
+    public static <T> T put(Class<T> clazz, Object key, T value) {
         return IMPL.put(clazz, key, value);
     }
 
@@ -121,7 +126,7 @@ public final class StaticCache {
      * @param value
      * @return old value
      */
-    public synchronized static <T> T put(Class<T> clazz, T value) {
+    public static <T> T put(Class<T> clazz, T value) {
         return IMPL.put(clazz, value);
     }
 
@@ -131,14 +136,14 @@ public final class StaticCache {
      * @param creator
      * @return old current thread creator
      */
-    public synchronized static CacheKeyCreator setKeyCreator(CacheKeyCreator creator) {
+    public static CacheKeyCreator setKeyCreator(CacheKeyCreator creator) {
         return IMPL.setKeyCreator(creator);
     }
 
     /**
      * @return current CacheKeyCreator
      */
-    public synchronized static CacheKeyCreator getKeyCreator() {
+    public static CacheKeyCreator getKeyCreator() {
         return IMPL.getKeyCreator();
     }
 
@@ -147,7 +152,7 @@ public final class StaticCache {
      * 
      * @return old creator
      */
-    public synchronized static CacheKeyCreator setGlobalKeyCreator() {
+    public static CacheKeyCreator setGlobalKeyCreator() {
         return IMPL.setGlobalKeyCreator();
     }
 
@@ -156,7 +161,7 @@ public final class StaticCache {
      * 
      * @return old CacheKeyCreator
      */
-    public synchronized static CacheKeyCreator setGlobalKeyCreatorAndRemove() {
+    public static CacheKeyCreator setGlobalKeyCreatorAndRemove() {
         return IMPL.setGlobalKeyCreatorAndRemove();
     }
 
@@ -167,7 +172,7 @@ public final class StaticCache {
      * @param clazz
      * @return cached or new instance
      */
-    public synchronized static <T> T getOrPutNewByReflection(Class<T> clazz) {
+    public static <T> T getOrPutNewByReflection(Class<T> clazz) {
         return IMPL.getOrPutNewByReflection(clazz);
     }
 
@@ -186,7 +191,7 @@ public final class StaticCache {
     }
 
     /**
-     * @return current cache
+     * @return current cache with snapshot of its values
      */
     public static CurrentCache getCurrentCache() {
         return IMPL.getCurrentCache();
@@ -202,4 +207,38 @@ public final class StaticCache {
         return IMPL.putCurrentCache(cache);
     }
 
+    /**
+     * Sets config used for newly created scopes
+     * 
+     * @param config
+     * @return old default config
+     */
+    public static StaticCacheConfig setDefaultConfig(StaticCacheConfig config) {
+        return IMPL.setDefaultConfig(config);
+    }
+
+    /**
+     * @return config used for newly created scopes
+     */
+    public static StaticCacheConfig getDefaultConfig() {
+        return IMPL.getDefaultConfig();
+    }
+
+    /**
+     * Sets config of current thread scope. Config lives as long as the scope
+     * 
+     * @param config
+     * @return old scope config
+     */
+    public static StaticCacheConfig setCurrentScopeConfig(StaticCacheConfig config) {
+        return IMPL.setCurrentScopeConfig(config);
+    }
+
+    /**
+     * @return snapshot of hit, miss and eviction counters
+     */
+    public static StaticCacheStatistics getStatistics() {
+        return IMPL.getStatistics();
+    }
+
 }
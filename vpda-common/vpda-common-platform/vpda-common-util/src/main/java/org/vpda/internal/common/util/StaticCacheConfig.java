@@ -0,0 +1,212 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.internal.common.util;
+
+import java.io.Serializable;
+
+import org.vpda.common.util.Builder;
+
+/**
+ * Limits applied to scope of {@link StaticCache}. Scope is one cache map
+ * selected by current {@link CacheKeyCreator} key. All values are in
+ * milliseconds and zero means no limit.
+ * 
+ * @author kitko
+ *
+ */
+public final class StaticCacheConfig implements Serializable {
+    private static final long serialVersionUID = 4170921834651243086L;
+
+    /** System property with default max entries per scope */
+    public static final String MAX_ENTRIES_PROPERTY_NAME = "vpda.staticcache.maxEntries";
+    /** System property with default time to live of entry in millis */
+    public static final String ENTRY_TTL_PROPERTY_NAME = "vpda.staticcache.entryTtl";
+    /** System property with default idle time after which scope is reclaimed */
+    public static final String SCOPE_IDLE_TIMEOUT_PROPERTY_NAME = "vpda.staticcache.scopeIdleTimeout";
+    /** System property with default interval between cleanup passes */
+    public static final String CLEANUP_INTERVAL_PROPERTY_NAME = "vpda.staticcache.cleanupInterval";
+
+    /** Default interval between cleanup passes */
+    public static final long DEFAULT_CLEANUP_INTERVAL = 60000L;
+
+    private final int maxEntries;
+    private final long entryTtl;
+    private final long scopeIdleTimeout;
+    private final long cleanupInterval;
+
+    private StaticCacheConfig(StaticCacheConfigBuilder builder) {
+        this.maxEntries = builder.maxEntries;
+        this.entryTtl = builder.entryTtl;
+        this.scopeIdleTimeout = builder.scopeIdleTimeout;
+        this.cleanupInterval = builder.cleanupInterval;
+    }
+
+    /**
+     * @return max number of entries in one scope, 0 means unbounded
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @return time to live of entry after it was put, 0 means forever
+     */
+    public long getEntryTtl() {
+        return entryTtl;
+    }
+
+    /**
+     * @return idle time after which not accessed scope is reclaimed, 0 means
+     *         never
+     */
+    public long getScopeIdleTimeout() {
+        return scopeIdleTimeout;
+    }
+
+    /**
+     * @return interval between cleanup passes over all scopes
+     */
+    public long getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    /**
+     * @return config with values read from system properties
+     */
+    public static StaticCacheConfig createFromSystemProperties() {
+        StaticCacheConfigBuilder builder = new StaticCacheConfigBuilder();
+        builder.setMaxEntries(Integer.getInteger(MAX_ENTRIES_PROPERTY_NAME, 0));
+        builder.setEntryTtl(Long.getLong(ENTRY_TTL_PROPERTY_NAME, 0L));
+        builder.setScopeIdleTimeout(Long.getLong(SCOPE_IDLE_TIMEOUT_PROPERTY_NAME, 0L));
+        builder.setCleanupInterval(Long.getLong(CLEANUP_INTERVAL_PROPERTY_NAME, DEFAULT_CLEANUP_INTERVAL));
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "StaticCacheConfig [maxEntries=" + maxEntries + ", entryTtl=" + entryTtl + ", scopeIdleTimeout=" + scopeIdleTimeout + ", cleanupInterval="
+                + cleanupInterval + "]";
+    }
+
+    /**
+     * Builder for StaticCacheConfig
+     * 
+     * @author kitko
+     *
+     */
+    public static final class StaticCacheConfigBuilder implements Builder<StaticCacheConfig> {
+        private int maxEntries;
+        private long entryTtl;
+        private long scopeIdleTimeout;
+        private long cleanupInterval = DEFAULT_CLEANUP_INTERVAL;
+
+        /**
+         * @return max entries
+         */
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        /**
+         * @param maxEntries max number of entries in scope, 0 means unbounded
+         * @return this
+         */
+        public StaticCacheConfigBuilder setMaxEntries(int maxEntries) {
+            if (maxEntries < 0) {
+                throw new IllegalArgumentException("MaxEntries must not be negative");
+            }
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * @return entry ttl
+         */
+        public long getEntryTtl() {
+            return entryTtl;
+        }
+
+        /**
+         * @param entryTtl time to live of entry in millis, 0 means forever
+         * @return this
+         */
+        public StaticCacheConfigBuilder setEntryTtl(long entryTtl) {
+            if (entryTtl < 0) {
+                throw new IllegalArgumentException("EntryTtl must not be negative");
+            }
+            this.entryTtl = entryTtl;
+            return this;
+        }
+
+        /**
+         * @return scope idle timeout
+         */
+        public long getScopeIdleTimeout() {
+            return scopeIdleTimeout;
+        }
+
+        /**
+         * @param scopeIdleTimeout idle time in millis after which scope is
+         *                         reclaimed, 0 means never
+         * @return this
+         */
+        public StaticCacheConfigBuilder setScopeIdleTimeout(long scopeIdleTimeout) {
+            if (scopeIdleTimeout < 0) {
+                throw new IllegalArgumentException("ScopeIdleTimeout must not be negative");
+            }
+            this.scopeIdleTimeout = scopeIdleTimeout;
+            return this;
+        }
+
+        /**
+         * @return cleanup interval
+         */
+        public long getCleanupInterval() {
+            return cleanupInterval;
+        }
+
+        /**
+         * @param cleanupInterval interval in millis between cleanup passes
+         * @return this
+         */
+        public StaticCacheConfigBuilder setCleanupInterval(long cleanupInterval) {
+            if (cleanupInterval <= 0) {
+                throw new IllegalArgumentException("CleanupInterval must be positive");
+            }
+            this.cleanupInterval = cleanupInterval;
+            return this;
+        }
+
+        @Override
+        public StaticCacheConfig build() {
+            return new StaticCacheConfig(this);
+        }
+
+        @Override
+        public Class<? extends StaticCacheConfig> getTargetClass() {
+            return StaticCacheConfig.class;
+        }
+
+        @Override
+        public StaticCacheConfigBuilder setValues(StaticCacheConfig values) {
+            this.maxEntries = values.maxEntries;
+            this.entryTtl = values.entryTtl;
+            this.scopeIdleTimeout = values.scopeIdleTimeout;
+            this.cleanupInterval = values.cleanupInterval;
+            return this;
+        }
+    }
+
+}
@@ -15,10 +15,12 @@
 package org.vpda.internal.common.util;
 
 import java.lang.reflect.Constructor;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.vpda.common.util.exceptions.VPDARuntimeException;
 import org.vpda.internal.common.util.StaticCache.CurrentCache;
@@ -26,10 +28,19 @@ import org.vpda.internal.common.util.StaticCache.CurrentCache;
 final class StaticCacheImpl {
 
     StaticCacheImpl() {
+        this(StaticCacheConfig.createFromSystemProperties());
+    }
+
+    StaticCacheImpl(StaticCacheConfig defaultConfig) {
+        this.defaultConfig = defaultConfig;
+        this.nextCleanup = new AtomicLong(now() + defaultConfig.getCleanupInterval());
     }
 
     private final ThreadLocal<CacheKeyCreator> cacheKeyCreator = new ThreadLocal<CacheKeyCreator>();
-    private final ConcurrentMap<Object, Map<Object, Object>> caches = new ConcurrentHashMap<Object, Map<Object, Object>>();
+    private final ConcurrentMap<Object, StaticCacheScope> caches = new ConcurrentHashMap<Object, StaticCacheScope>();
+    private final Counters counters = new Counters();
+    private final AtomicLong nextCleanup;
+    private volatile StaticCacheConfig defaultConfig;
 
     /** Global key */
     final Object globalKey = new Object();
@@ -50,6 +61,19 @@ final class StaticCacheImpl {
 
     }
 
+    /** Counters shared by all scopes */
+    static final class Counters {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder expirations = new LongAdder();
+        final LongAdder reclaimedScopes = new LongAdder();
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
     /**
      * Gets value by key of type clazz
      * 
@@ -59,8 +83,13 @@ final class StaticCacheImpl {
      * @return value
      */
     <T> T get(Class<T> clazz, Object key) {
-        Map<Object, Object> currentCache = getCurrentCacheImpl();
-        return clazz.cast(currentCache.get(key));
+        long now = now();
+        StaticCacheScope scope = getCurrentScope(false, now);
+        if (scope == null) {
+            counters.misses.increment();
+            return null;
+        }
+        return clazz.cast(scope.get(key, now));
     }
 
     /**
@@ -71,8 +100,7 @@ final class StaticCacheImpl {
      * @return value
      */
     <T> T get(Class<T> clazz) {
-        Map<Object, Object> currentCache = getCurrentCacheImpl();
-        return clazz.cast(currentCache.get(clazz));
+        return get(clazz, clazz);
     }
 
     /**
@@ -85,10 +113,14 @@ final class StaticCacheImpl {
      * @return old value
      */
     <T> T put(Class<T> clazz, Object key, T value) {
-        Map<Object, Object> currentCache = getCurrentCacheImpl();
-        T old = clazz.cast(currentCache.get(key));
-        currentCache.put(key, value);
-        return old;
+        long now = now();
+        while (true) {
+            StaticCacheScope scope = getCurrentScope(true, now);
+            Object old = scope.put(key, value, now);
+            if (scope.isActive()) {
+                return clazz.cast(old);
+            }
+        }
     }
 
     /**
@@ -100,26 +132,69 @@ final class StaticCacheImpl {
      * @return old value
      */
     <T> T put(Class<T> clazz, T value) {
-        Map<Object, Object> currentCache = getCurrentCacheImpl();
-        T old = clazz.cast(currentCache.get(clazz));
-        currentCache.put(clazz, value);
-        return old;
+        return put(clazz, clazz, value);
     }
 
-    private Map<Object, Object> getCurrentCacheImpl() {
+    private Object getCurrentKey() {
         CacheKeyCreator creator = cacheKeyCreator.get();
         if (creator == null) {
             creator = globalKeyCreator;
             cacheKeyCreator.set(creator);
         }
-        Object key = creator.getCurrentKey();
-        Map<Object, Object> currentCache = caches.get(key);
-        if (currentCache == null) {
-            currentCache = new HashMap<Object, Object>(2);
-            Map<Object, Object> old = caches.putIfAbsent(key, currentCache);
-            currentCache = old != null ? old : currentCache;
+        return creator.getCurrentKey();
+    }
+
+    private StaticCacheScope getCurrentScope(boolean create, long now) {
+        cleanupIfDue(now);
+        Object key = getCurrentKey();
+        while (true) {
+            StaticCacheScope scope = caches.get(key);
+            if (scope == null) {
+                if (!create) {
+                    return null;
+                }
+                scope = caches.computeIfAbsent(key, k -> new StaticCacheScope(defaultConfig, counters, now));
+            }
+            if (scope.isActive()) {
+                scope.touch(now);
+                return scope;
+            }
+            if (scope.isRetired()) {
+                caches.remove(key, scope);
+            }
+            else {
+                // Cleanup is deciding about idle scope, it will either retire it or keep it
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void cleanupIfDue(long now) {
+        long next = nextCleanup.get();
+        if (now < next || !nextCleanup.compareAndSet(next, now + defaultConfig.getCleanupInterval())) {
+            return;
+        }
+        cleanup(now);
+    }
+
+    /**
+     * Removes idle scopes and expired entries. Idle scope is retired before
+     * removal, so writers still holding it move to new scope.
+     * 
+     * @param now
+     */
+    void cleanup(long now) {
+        for (Map.Entry<Object, StaticCacheScope> e : caches.entrySet()) {
+            StaticCacheScope scope = e.getValue();
+            if (e.getKey() != globalKey && scope.isIdle(now) && scope.retireIfIdle(now)) {
+                if (caches.remove(e.getKey(), scope)) {
+                    counters.reclaimedScopes.increment();
+                }
+            }
+            else {
+                scope.purgeExpired(now);
+            }
         }
-        return currentCache;
     }
 
     /**
@@ -161,21 +236,32 @@ final class StaticCacheImpl {
         CacheKeyCreator old = setGlobalKeyCreator();
         if (old != null) {
             Object key = old.getCurrentKey();
-            caches.remove(key);
+            StaticCacheScope scope = caches.remove(key);
+            if (scope != null) {
+                scope.retire();
+            }
         }
         return old;
     }
 
     /**
-     * Get value by class, if not found use class.newInstance to create
+     * Get value by class, if not found use class.newInstance to create. Instance
+     * is created without holding any lock, so constructor can use the cache too.
+     * When more threads create instance concurrently, only the first put one is
+     * kept and returned to all of them.
      * 
      * @param <T>
      * @param clazz
      * @return cached or new instance
      */
     <T> T getOrPutNewByReflection(Class<T> clazz) {
-        T t = get(clazz);
-        if (t == null) {
+        long now = now();
+        while (true) {
+            StaticCacheScope scope = getCurrentScope(true, now);
+            T t = clazz.cast(scope.get(clazz, now));
+            if (t != null) {
+                return t;
+            }
             try {
                 Constructor<T> constructor = clazz.getDeclaredConstructor();
                 constructor.setAccessible(true);
@@ -184,10 +270,11 @@ final class StaticCacheImpl {
             catch (Exception e) {
                 throw new VPDARuntimeException("Cannot create new instance of cache value", e);
             }
-            put(clazz, t);
+            T existing = clazz.cast(scope.putIfAbsent(clazz, t, now));
+            if (scope.isActive()) {
+                return existing != null ? existing : t;
+            }
         }
-        return t;
-
     }
 
     /** Clear the cache */
@@ -197,7 +284,7 @@ final class StaticCacheImpl {
             return;
         }
         Object key = creator.getCurrentKey();
-        Map<Object, Object> currentCache = caches.get(key);
+        StaticCacheScope currentCache = caches.get(key);
         if (currentCache == null) {
             return;
         }
@@ -210,8 +297,11 @@ final class StaticCacheImpl {
             return null;
         }
         Object key = creator.getCurrentKey();
-        Map<Object, Object> currentCache = caches.remove(key);
-        return new CurrentCache(key, currentCache);
+        StaticCacheScope currentCache = caches.remove(key);
+        if (currentCache != null) {
+            currentCache.retire();
+        }
+        return new CurrentCache(key, currentCache != null ? currentCache.snapshot(now()) : null);
     }
 
     CurrentCache getCurrentCache() {
@@ -220,8 +310,8 @@ final class StaticCacheImpl {
             return null;
         }
         Object key = creator.getCurrentKey();
-        Map<Object, Object> currentCache = caches.get(key);
-        return new CurrentCache(key, currentCache);
+        StaticCacheScope currentCache = caches.get(key);
+        return new CurrentCache(key, currentCache != null ? currentCache.snapshot(now()) : null);
     }
 
     CurrentCache putCurrentCache(Map<Object, Object> cache) {
@@ -230,8 +320,63 @@ final class StaticCacheImpl {
             return null;
         }
         Object key = creator.getCurrentKey();
-        Map<Object, Object> old = caches.put(key, cache);
-        return new CurrentCache(key, old);
+        long now = now();
+        StaticCacheScope old = caches.get(key);
+        StaticCacheScope scope = new StaticCacheScope(old != null ? old.getConfig() : defaultConfig, counters, now);
+        if (cache != null) {
+            scope.putAll(cache, now);
+        }
+        old = caches.put(key, scope);
+        if (old != null) {
+            old.retire();
+        }
+        return new CurrentCache(key, old != null ? old.snapshot(now) : null);
+    }
+
+    /**
+     * Sets config used for newly created scopes
+     * 
+     * @param config
+     * @return old default config
+     */
+    StaticCacheConfig setDefaultConfig(StaticCacheConfig config) {
+        StaticCacheConfig old = defaultConfig;
+        defaultConfig = config;
+        return old;
+    }
+
+    /**
+     * @return config used for newly created scopes
+     */
+    StaticCacheConfig getDefaultConfig() {
+        return defaultConfig;
+    }
+
+    /**
+     * Sets config of current scope, creating the scope if needed
+     * 
+     * @param config
+     * @return old scope config
+     */
+    StaticCacheConfig setCurrentScopeConfig(StaticCacheConfig config) {
+        long now = now();
+        while (true) {
+            StaticCacheScope scope = getCurrentScope(true, now);
+            StaticCacheConfig old = scope.getConfig();
+            scope.setConfig(config);
+            scope.purgeExpired(now);
+            if (scope.isActive()) {
+                return old;
+            }
+        }
+    }
+
+    /**
+     * @return snapshot of counters
+     */
+    StaticCacheStatistics getStatistics() {
+        return new StaticCacheStatistics(counters.hits.sum(), counters.misses.sum(), counters.evictions.sum(), counters.expirations.sum(),
+                counters.reclaimedScopes.sum(), caches.size());
     }
 
 }
@@ -0,0 +1,250 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.internal.common.util;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One scope of {@link StaticCache}. Entries are kept in concurrent map, so
+ * scope can be shared by all threads using the same cache key. Size limit is
+ * enforced by evicting approximately least recently used entry picked from
+ * small sample of entries. Scope removed from cache is retired first. Writers
+ * do not lock, they touch scope, write and then check the scope is still
+ * active, retrying with new scope otherwise. Idle scope is marked as retiring
+ * before its last access is checked again, so either the cleanup sees the
+ * writer's access or the writer sees the retiring scope.
+ * 
+ * @author kitko
+ *
+ */
+final class StaticCacheScope {
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final ConcurrentMap<Object, Entry> entries;
+    private final StaticCacheImpl.Counters counters;
+    private volatile StaticCacheConfig config;
+    private volatile long lastAccess;
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+
+    private static final int ACTIVE = 0;
+    private static final int RETIRING = 1;
+    private static final int RETIRED = 2;
+
+    private static final class Entry {
+        private final Object value;
+        private final long created;
+        private volatile long lastAccess;
+
+        private Entry(Object value, long now) {
+            this.value = value;
+            this.created = now;
+            this.lastAccess = now;
+        }
+    }
+
+    StaticCacheScope(StaticCacheConfig config, StaticCacheImpl.Counters counters, long now) {
+        this.config = config;
+        this.counters = counters;
+        this.entries = new ConcurrentHashMap<Object, Entry>(4);
+        this.lastAccess = now;
+    }
+
+    StaticCacheConfig getConfig() {
+        return config;
+    }
+
+    void setConfig(StaticCacheConfig config) {
+        this.config = config;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch(long now) {
+        if (lastAccess != now) {
+            lastAccess = now;
+        }
+    }
+
+    /**
+     * @return true if scope is neither retired nor being retired
+     */
+    boolean isActive() {
+        return state.get() == ACTIVE;
+    }
+
+    boolean isRetired() {
+        return state.get() == RETIRED;
+    }
+
+    /**
+     * Retires scope if it is idle
+     * 
+     * @param now
+     * @return true if scope is retired
+     */
+    boolean retireIfIdle(long now) {
+        if (!state.compareAndSet(ACTIVE, RETIRING)) {
+            return isRetired();
+        }
+        if (isIdle(now)) {
+            state.set(RETIRED);
+            return true;
+        }
+        state.compareAndSet(RETIRING, ACTIVE);
+        return isRetired();
+    }
+
+    void retire() {
+        state.set(RETIRED);
+    }
+
+    boolean isIdle(long now) {
+        long idleTimeout = config.getScopeIdleTimeout();
+        return idleTimeout > 0 && now - lastAccess > idleTimeout;
+    }
+
+    Object get(Object key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            counters.misses.increment();
+            return null;
+        }
+        if (isExpired(entry, now)) {
+            if (entries.remove(key, entry)) {
+                counters.expirations.increment();
+            }
+            counters.misses.increment();
+            return null;
+        }
+        if (config.getMaxEntries() > 0 && entry.lastAccess != now) {
+            entry.lastAccess = now;
+        }
+        counters.hits.increment();
+        return entry.value;
+    }
+
+    Object put(Object key, Object value, long now) {
+        Entry old = value != null ? entries.put(key, new Entry(value, now)) : entries.remove(key);
+        int maxEntries = config.getMaxEntries();
+        if (maxEntries > 0 && entries.size() > maxEntries) {
+            evict(key, maxEntries, now);
+        }
+        return old == null || isExpired(old, now) ? null : old.value;
+    }
+
+    /**
+     * Puts value if there is no live value for key
+     * 
+     * @param key
+     * @param value
+     * @param now
+     * @return live value already present or null if value was put
+     */
+    Object putIfAbsent(Object key, Object value, long now) {
+        Entry entry = new Entry(value, now);
+        while (true) {
+            Entry old = entries.putIfAbsent(key, entry);
+            if (old == null) {
+                break;
+            }
+            if (!isExpired(old, now)) {
+                return old.value;
+            }
+            if (entries.replace(key, old, entry)) {
+                counters.expirations.increment();
+                break;
+            }
+        }
+        int maxEntries = config.getMaxEntries();
+        if (maxEntries > 0 && entries.size() > maxEntries) {
+            evict(key, maxEntries, now);
+        }
+        return null;
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    Map<Object, Object> snapshot(long now) {
+        Map<Object, Object> result = new HashMap<Object, Object>(Math.max(2, entries.size() * 2));
+        for (Map.Entry<Object, Entry> e : entries.entrySet()) {
+            if (!isExpired(e.getValue(), now)) {
+                result.put(e.getKey(), e.getValue().value);
+            }
+        }
+        return result;
+    }
+
+    void putAll(Map<Object, Object> values, long now) {
+        for (Map.Entry<Object, Object> e : values.entrySet()) {
+            put(e.getKey(), e.getValue(), now);
+        }
+    }
+
+    void purgeExpired(long now) {
+        if (config.getEntryTtl() <= 0) {
+            return;
+        }
+        for (Iterator<Map.Entry<Object, Entry>> i = entries.entrySet().iterator(); i.hasNext();) {
+            Map.Entry<Object, Entry> e = i.next();
+            if (isExpired(e.getValue(), now) && entries.remove(e.getKey(), e.getValue())) {
+                counters.expirations.increment();
+            }
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        long ttl = config.getEntryTtl();
+        return ttl > 0 && now - entry.created > ttl;
+    }
+
+    private void evict(Object keptKey, int maxEntries, long now) {
+        purgeExpired(now);
+        while (entries.size() > maxEntries) {
+            Object victimKey = null;
+            Entry victim = null;
+            int sampled = 0;
+            for (Iterator<Map.Entry<Object, Entry>> i = entries.entrySet().iterator(); i.hasNext() && sampled < EVICTION_SAMPLE_SIZE; sampled++) {
+                Map.Entry<Object, Entry> e = i.next();
+                if (e.getKey().equals(keptKey)) {
+                    continue;
+                }
+                if (victim == null || e.getValue().lastAccess < victim.lastAccess) {
+                    victimKey = e.getKey();
+                    victim = e.getValue();
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            if (entries.remove(victimKey, victim)) {
+                counters.evictions.increment();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * View provider driven applications - java application framework for developing RIA
+ * Copyright (C) 2009-2022 Roman Kitko, Slovakia
+ *
+ * Licensed under the GNU GENERAL PUBLIC LICENSE, Version 3.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at http://www.gnu.org/licenses/gpl.html
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.vpda.internal.common.util;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of {@link StaticCache} counters
+ * 
+ * @author kitko
+ *
+ */
+public final class StaticCacheStatistics implements Serializable {
+    private static final long serialVersionUID = -2613386021946452957L;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long reclaimedScopes;
+    private final int scopes;
+
+    /**
+     * Creates statistics
+     * 
+     * @param hits
+     * @param misses
+     * @param evictions
+     * @param expirations
+     * @param reclaimedScopes
+     * @param scopes
+     */
+    public StaticCacheStatistics(long hits, long misses, long evictions, long expirations, long reclaimedScopes, int scopes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.reclaimedScopes = reclaimedScopes;
+        this.scopes = scopes;
+    }
+
+    /**
+     * @return number of lookups that found value
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of lookups that did not find value
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of entries removed because scope exceeded max entries
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of entries removed because their ttl elapsed
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * @return number of idle scopes removed by cleanup
+     */
+    public long getReclaimedScopes() {
+        return reclaimedScopes;
+    }
+
+    /**
+     * @return number of live scopes
+     */
+    public int getScopes() {
+        return scopes;
+    }
+
+    /**
+     * @return hits / (hits + misses) or 0 when there was no lookup
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "StaticCacheStatistics [hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", expirations=" + expirations + ", reclaimedScopes="
+                + reclaimedScopes + ", scopes=" + scopes + "]";
+    }
+
+}
@@ -155,6 +155,10 @@ public final class JettyLauncher {
             return;
         }
         AppLauncherHelper.loadLoggingConfiguration();
+        ModuleLayer layer = JettyLauncher.class.getModule().getLayer();
+        if (layer != null) {
+            ResourceLoader.initModuleResourceIndex(layer, true);
+        }
         System.setProperty("com.sun.net.httpserver.HttpServerProvider", org.vpda.common.launcher.jetty.JettyHttpServerProvider.class.getName());
 
     }